@@ -0,0 +1,66 @@
+package lanchonetelistas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Publicação no AnelPedidos com um consumidor, por evento e em lote, para
+// cada estratégia de espera. Com o anel cheio o produtor espera o
+// consumidor, então o tempo medido inclui a passagem até ele.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnelPedidosBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Estado {
+        @Param({ "1024", "65536" })
+        int tamanho;
+
+        @Param({ "ocupada", "ceder", "dormir" })
+        String espera;
+
+        @Param({ "64" })
+        int lote;
+
+        AnelPedidos anel;
+        Pedido pedido;
+        List<Pedido> pedidos;
+        // lido pelo consumidor, para o trabalho dele não ser descartado
+        long soma;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            AnelPedidos.EstrategiaEspera e = switch (espera) {
+                case "ocupada" -> AnelPedidos.EstrategiaEspera.ocupada();
+                case "ceder" -> AnelPedidos.EstrategiaEspera.ceder();
+                default -> AnelPedidos.EstrategiaEspera.dormir();
+            };
+            anel = new AnelPedidos(tamanho, false, e);
+            anel.adicionarConsumidor("bench", (ev, seq, fimDoLote) -> soma += ev.getQuantidade());
+            anel.iniciar();
+            pedido = new Pedido("X-Burger", 1, 10.90);
+            pedidos = new ArrayList<>(lote);
+            for (int i = 0; i < lote; i++) pedidos.add(new Pedido("Guaraná", 1, 4.50));
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() throws InterruptedException {
+            anel.parar();
+        }
+    }
+
+    @Benchmark
+    public void publicar(Estado s) {
+        s.anel.publicar(s.pedido);
+    }
+
+    // Tempo do lote inteiro; divida por lote para comparar com publicar.
+    @Benchmark
+    public void publicarLote(Estado s) {
+        s.anel.publicarLote(s.pedidos, 0);
+    }
+}
@@ -0,0 +1,53 @@
+package lanchonetelistas;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// adicionar/remover/getPedidos em cada TipoEstrutura, de 10 a 1M pedidos.
+// adicionarRemover mantém o tamanho estável durante a medição: o pedido que
+// sai é o próximo a entrar, então nenhum pedido é adicionado enquanto ainda
+// está na estrutura (o heap da PRIORIDADE não aceita).
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GerenciadorPedidosBenchmark {
+
+    @State(Scope.Thread)
+    public static class Estado {
+        @Param({ "LISTA", "PILHA", "FILA", "LISTA_ENCADEADA", "PRIORIDADE" })
+        GerenciadorPedidos.TipoEstrutura tipo;
+
+        @Param({ "10", "1000", "100000", "1000000" })
+        int tamanho;
+
+        @Param({ "false", "true" })
+        boolean concorrente;
+
+        GerenciadorPedidos gerenciador;
+        Pedido pedido;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            gerenciador = new GerenciadorPedidos(concorrente);
+            gerenciador.setEstrutura(tipo);
+            for (int i = 0; i < tamanho; i++) {
+                gerenciador.adicionar(new Pedido("X-Burger", 1, 10.90));
+            }
+            pedido = new Pedido("Guaraná", 1, 4.50);
+        }
+    }
+
+    @Benchmark
+    public void adicionarRemover(Estado e) {
+        e.gerenciador.adicionar(e.pedido);
+        e.pedido = e.gerenciador.retirar();
+    }
+
+    @Benchmark
+    public List<Pedido> getPedidos(Estado e) {
+        return e.gerenciador.getPedidos();
+    }
+}
@@ -0,0 +1,67 @@
+package lanchonetelistas;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Modo concorrente com vários caixas no mesmo GerenciadorPedidos.
+// Mude o número de threads com -t (ex.: -t 1, -t 4, -t 8) para ver a escala.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class GerenciadorPedidosConcorrenteBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Compartilhado {
+        @Param({ "LISTA", "PILHA", "FILA", "LISTA_ENCADEADA" })
+        GerenciadorPedidos.TipoEstrutura tipo;
+
+        @Param({ "10", "1000", "100000", "1000000" })
+        int tamanho;
+
+        GerenciadorPedidos gerenciador;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            gerenciador = new GerenciadorPedidos(true);
+            gerenciador.setEstrutura(tipo);
+            for (int i = 0; i < tamanho; i++) {
+                gerenciador.adicionar(new Pedido("X-Burger", 1, 10.90));
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Caixa {
+        Pedido pedido;
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            pedido = new Pedido("Guaraná", 1, 4.50);
+        }
+    }
+
+    @Benchmark
+    @Group("intake")
+    @GroupThreads(7)
+    public void adicionarRemover(Compartilhado s, Caixa c) {
+        s.gerenciador.adicionar(c.pedido);
+        s.gerenciador.remover();
+    }
+
+    @Benchmark
+    @Group("intake")
+    @GroupThreads(1)
+    public List<Pedido> getPedidos(Compartilhado s) {
+        return s.gerenciador.getPedidos();
+    }
+
+    @Benchmark
+    public void adicionarRemoverSemLeitor(Compartilhado s, Caixa c) {
+        s.gerenciador.adicionar(c.pedido);
+        s.gerenciador.remover();
+    }
+}
@@ -0,0 +1,58 @@
+package lanchonetelistas;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Ida e volta pelo ServidorHttp em loopback, com vários tablets na mesma
+// conexão keep-alive. O POST por sku soma na linha aberta, então o número de
+// pedidos não cresce durante a medição; o GET lista essas poucas linhas.
+// Mude o número de tablets com -t para ver a escala.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class ServidorHttpBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Servidor {
+        MotorPedidos pedidos;
+        ServidorHttp servidor;
+        HttpClient cliente;
+        HttpRequest postSku;
+        HttpRequest getPedidos;
+
+        @Setup(Level.Trial)
+        public void preparar() throws IOException {
+            pedidos = new MotorPedidos();
+            servidor = ServidorHttp.local(pedidos, new MotorMesas(), 0);
+            cliente = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+            String base = "http://127.0.0.1:" + servidor.getPorta();
+            postSku = HttpRequest.newBuilder(URI.create(base + "/pedidos?sku=" + Cardapio.X_BURGER + "&quantidade=1"))
+                    .POST(HttpRequest.BodyPublishers.noBody()).build();
+            getPedidos = HttpRequest.newBuilder(URI.create(base + "/pedidos")).GET().build();
+        }
+
+        @TearDown(Level.Trial)
+        public void encerrar() {
+            servidor.close();
+            cliente.close();
+        }
+    }
+
+    @Benchmark
+    public int postPedido(Servidor s) throws IOException, InterruptedException {
+        return s.cliente.send(s.postSku, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @Benchmark
+    public String getPedidos(Servidor s) throws IOException, InterruptedException {
+        return s.cliente.send(s.getPedidos, HttpResponse.BodyHandlers.ofString()).body();
+    }
+}
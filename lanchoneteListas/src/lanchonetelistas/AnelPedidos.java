@@ -0,0 +1,609 @@
+package lanchonetelistas;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Anel de eventos de pedido entre os caixas e quem consome os pedidos
+// (cozinha, faturamento, análises), no estilo do Disruptor.
+//
+// Os slots são alocados uma vez e reaproveitados: publicar só preenche os
+// campos de um EventoPedido já existente, então nada é alocado por evento.
+// Cada consumidor roda na sua thread e tem a sua Sequencia (até onde já
+// leu); ele espera numa Barreira pelo cursor do anel e, se quiser, pelas
+// sequências de outros consumidores (ex.: faturamento só depois da cozinha).
+// Quando acorda, processa de uma vez tudo que já foi publicado (lote). O
+// produtor só reaproveita um slot depois que o consumidor mais atrasado
+// passou dele.
+//
+// Com um produtor (o padrão) o cursor é escrito por uma thread só. Vários
+// caixas publicando ao mesmo tempo precisam do modo multiplosProdutores, que
+// reserva com CAS e marca cada slot publicado.
+//
+// O último consumidor a passar por um slot solta a referência ao Pedido,
+// para o anel não segurar pedidos já atendidos até dar a volta.
+public class AnelPedidos {
+
+    private static final Logger logger = Logger.getLogger(AnelPedidos.class.getName());
+
+    // ---- evento ----
+
+    public static final class EventoPedido {
+        Pedido pedido;
+        String item;
+        int quantidade;
+        double valor;
+        int sku;
+        int terminal;
+        long publicadoEm;
+
+        void preencher(Pedido p, int terminal) {
+            this.pedido = p;
+            this.item = p.item;
+            this.quantidade = p.quantidade;
+            this.valor = p.valor;
+            this.sku = p.getSku();
+            this.terminal = terminal;
+            this.publicadoEm = System.nanoTime();
+        }
+
+        public Pedido getPedido() {
+            return pedido;
+        }
+
+        public String getItem() {
+            return item;
+        }
+
+        public int getQuantidade() {
+            return quantidade;
+        }
+
+        public double getValor() {
+            return valor;
+        }
+
+        public int getSku() {
+            return sku;
+        }
+
+        public int getTerminal() {
+            return terminal;
+        }
+
+        // System.nanoTime() da publicação
+        public long getPublicadoEm() {
+            return publicadoEm;
+        }
+    }
+
+    public interface Consumidor {
+        // fimDoLote: último evento disponível agora (bom momento para descarregar)
+        void aoEvento(EventoPedido e, long sequencia, boolean fimDoLote) throws Exception;
+    }
+
+    // ---- sequência com preenchimento, para não dividir linha de cache ----
+
+    static class PreenchimentoEsquerda {
+        long p1, p2, p3, p4, p5, p6, p7;
+    }
+
+    static class ValorSequencia extends PreenchimentoEsquerda {
+        volatile long valor;
+    }
+
+    public static final class Sequencia extends ValorSequencia {
+        long p9, p10, p11, p12, p13, p14, p15;
+
+        private static final VarHandle VALOR;
+
+        static {
+            try {
+                VALOR = MethodHandles.lookup().findVarHandle(ValorSequencia.class, "valor", long.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        public Sequencia(long inicial) {
+            VALOR.setRelease(this, inicial);
+        }
+
+        public long get() {
+            return (long) VALOR.getAcquire(this);
+        }
+
+        public void set(long v) {
+            VALOR.setRelease(this, v);
+        }
+
+        boolean compareAndSet(long esperado, long novo) {
+            return VALOR.compareAndSet(this, esperado, novo);
+        }
+    }
+
+    // ---- estratégias de espera ----
+
+    public interface EstrategiaEspera {
+        // Espera até a barreira ter seq disponível; devolve o maior disponível.
+        long aguardar(long seq, Barreira barreira) throws InterruptedException;
+
+        // chamado a cada publicação (só a estratégia bloqueante usa)
+        default void sinalizarTodos() {
+        }
+
+        // Menor latência, mas ocupa um núcleo por consumidor.
+        static EstrategiaEspera ocupada() {
+            return (seq, b) -> {
+                long d;
+                while ((d = b.disponivel()) < seq) {
+                    b.verificarAlerta();
+                    Thread.onSpinWait();
+                }
+                return d;
+            };
+        }
+
+        static EstrategiaEspera ceder() {
+            return (seq, b) -> {
+                long d;
+                int voltas = 100;
+                while ((d = b.disponivel()) < seq) {
+                    b.verificarAlerta();
+                    if (voltas > 0) {
+                        voltas--;
+                        Thread.onSpinWait();
+                    } else {
+                        Thread.yield();
+                    }
+                }
+                return d;
+            };
+        }
+
+        // Gira, cede e depois dorme: pouca CPU parada, latência de ~0,1 ms.
+        static EstrategiaEspera dormir() {
+            return (seq, b) -> {
+                long d;
+                int voltas = 200;
+                while ((d = b.disponivel()) < seq) {
+                    b.verificarAlerta();
+                    if (voltas > 100) Thread.onSpinWait();
+                    else if (voltas > 0) Thread.yield();
+                    else LockSupport.parkNanos(100_000);
+                    if (voltas > 0) voltas--;
+                }
+                return d;
+            };
+        }
+
+        // Dorme numa Condition até a próxima publicação. Para quando a CPU
+        // importa mais que a latência (o produtor paga um lock por publicação).
+        static EstrategiaEspera bloquear() {
+            return new EstrategiaEspera() {
+                private final ReentrantLock lock = new ReentrantLock();
+                private final Condition publicado = lock.newCondition();
+
+                @Override
+                public long aguardar(long seq, Barreira b) throws InterruptedException {
+                    if (b.anel.cursor.get() < seq) {
+                        lock.lock();
+                        try {
+                            while (b.anel.cursor.get() < seq) {
+                                b.verificarAlerta();
+                                publicado.await();
+                            }
+                        } finally {
+                            lock.unlock();
+                        }
+                    }
+                    long d;
+                    while ((d = b.disponivel()) < seq) {
+                        b.verificarAlerta();
+                        Thread.onSpinWait();
+                    }
+                    return d;
+                }
+
+                @Override
+                public void sinalizarTodos() {
+                    lock.lock();
+                    try {
+                        publicado.signalAll();
+                    } finally {
+                        lock.unlock();
+                    }
+                }
+            };
+        }
+    }
+
+    // Lançada dentro da espera quando o anel está parando.
+    static final class Parado extends RuntimeException {
+        static final Parado INSTANCIA = new Parado();
+
+        private Parado() {
+            super("Anel parado", null, false, false);
+        }
+    }
+
+    // ---- barreira ----
+
+    public static final class Barreira {
+        private final AnelPedidos anel;
+        private final Sequencia[] dependencias;
+        private volatile boolean alertada;
+
+        Barreira(AnelPedidos anel, Sequencia[] dependencias) {
+            this.anel = anel;
+            this.dependencias = dependencias;
+        }
+
+        // Maior sequência que o cursor e as dependências já liberaram.
+        long disponivel() {
+            long d = anel.cursor.get();
+            for (Sequencia s : dependencias) d = Math.min(d, s.get());
+            return d;
+        }
+
+        void verificarAlerta() {
+            if (alertada) throw Parado.INSTANCIA;
+        }
+
+        // Espera seq e devolve o maior publicado e contíguo a partir dele.
+        public long aguardar(long seq) throws InterruptedException {
+            verificarAlerta();
+            long d = anel.espera.aguardar(seq, this);
+            if (d < seq) return d;
+            return anel.maiorPublicado(seq, d);
+        }
+
+        void alertar() {
+            alertada = true;
+            anel.espera.sinalizarTodos();
+        }
+    }
+
+    // ---- consumidor em thread própria ----
+
+    public final class Processador implements Runnable {
+        private final String nome;
+        private final Consumidor consumidor;
+        private final Barreira barreira;
+        private final Sequencia sequencia = new Sequencia(-1);
+        private volatile Thread thread;
+        // último da cadeia: solta o pedido do slot depois de processar
+        private volatile boolean limpar;
+
+        Processador(String nome, Consumidor consumidor, Barreira barreira) {
+            this.nome = nome;
+            this.consumidor = consumidor;
+            this.barreira = barreira;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        // Para usar como dependência de outro consumidor.
+        public Sequencia getSequencia() {
+            return sequencia;
+        }
+
+        @Override
+        public void run() {
+            long proximo = sequencia.get() + 1;
+            while (true) {
+                try {
+                    long disponivel = barreira.aguardar(proximo);
+                    while (proximo <= disponivel) {
+                        EventoPedido e = slots[(int) (proximo & mascara)];
+                        try {
+                            consumidor.aoEvento(e, proximo, proximo == disponivel);
+                        } catch (Exception ex) {
+                            // um evento ruim não trava o anel
+                            logger.log(Level.WARNING, "Falha no consumidor " + nome + " na sequência " + proximo, ex);
+                        }
+                        // antes de avançar a sequência, então o produtor ainda não reusa o slot
+                        if (limpar) e.pedido = null;
+                        proximo++;
+                    }
+                    sequencia.set(disponivel);
+                } catch (Parado e) {
+                    return;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private final int tamanho;
+    private final int mascara;
+    private final EventoPedido[] slots;
+    private final boolean multiplosProdutores;
+    private final EstrategiaEspera espera;
+
+    // último publicado (um produtor) ou último reservado (vários)
+    final Sequencia cursor = new Sequencia(-1);
+    // vários produtores: volta do anel em que cada slot foi publicado
+    private final int[] publicadoNaVolta;
+    private static final VarHandle VOLTA = MethodHandles.arrayElementVarHandle(int[].class);
+    private final int deslocamentoVolta;
+
+    private final List<Processador> consumidores = new CopyOnWriteArrayList<>();
+    private volatile Sequencia[] controle = new Sequencia[0];
+    private final List<Entrada> entradas = new CopyOnWriteArrayList<>();
+    private boolean limpezaDefinida;
+    // só do produtor único
+    private long proximo = -1;
+    private long cacheControle = -1;
+
+    public AnelPedidos(int tamanho) {
+        this(tamanho, false, EstrategiaEspera.dormir());
+    }
+
+    // tamanho tem que ser potência de 2
+    public AnelPedidos(int tamanho, boolean multiplosProdutores, EstrategiaEspera espera) {
+        if (tamanho < 1 || Integer.bitCount(tamanho) != 1) {
+            throw new IllegalArgumentException("Tamanho deve ser potência de 2: " + tamanho);
+        }
+        this.tamanho = tamanho;
+        this.mascara = tamanho - 1;
+        this.multiplosProdutores = multiplosProdutores;
+        this.espera = espera;
+        this.slots = new EventoPedido[tamanho];
+        for (int i = 0; i < tamanho; i++) slots[i] = new EventoPedido();
+        this.deslocamentoVolta = Integer.numberOfTrailingZeros(tamanho);
+        this.publicadoNaVolta = multiplosProdutores ? new int[tamanho] : null;
+        if (publicadoNaVolta != null) Arrays.fill(publicadoNaVolta, -1);
+    }
+
+    public int getTamanho() {
+        return tamanho;
+    }
+
+    public long getCursor() {
+        return cursor.get();
+    }
+
+    // ---- consumidores ----
+
+    public Barreira novaBarreira(Sequencia... dependencias) {
+        return new Barreira(this, dependencias.clone());
+    }
+
+    // Registra um consumidor que lê depois das dependências (nenhuma: direto
+    // do cursor). Deve ser chamado antes de publicar o primeiro evento.
+    public Processador adicionarConsumidor(String nome, Consumidor consumidor, Sequencia... dependencias) {
+        Processador p = new Processador(nome, consumidor, novaBarreira(dependencias));
+        p.sequencia.set(cursor.get());
+        consumidores.add(p);
+        Sequencia[] novo = Arrays.copyOf(controle, controle.length + 1);
+        novo[novo.length - 1] = p.sequencia;
+        controle = novo;
+        return p;
+    }
+
+    public synchronized void iniciar() {
+        if (!limpezaDefinida) definirLimpeza();
+        for (Entrada e : entradas) e.iniciar();
+        for (Processador p : consumidores) {
+            if (p.thread != null) continue;
+            Thread t = new Thread(p, "anel-" + p.nome);
+            t.setDaemon(true);
+            p.thread = t;
+            t.start();
+        }
+    }
+
+    // Quem solta os pedidos: o único consumidor de que ninguém depende, ou,
+    // se há mais de um assim, um consumidor a mais que espera todos eles.
+    private void definirLimpeza() {
+        limpezaDefinida = true;
+        Set<Sequencia> dependidas = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Processador p : consumidores) dependidas.addAll(Arrays.asList(p.barreira.dependencias));
+        List<Processador> folhas = new ArrayList<>();
+        for (Processador p : consumidores) {
+            if (!dependidas.contains(p.sequencia)) folhas.add(p);
+        }
+        if (folhas.size() == 1) {
+            folhas.get(0).limpar = true;
+        } else if (folhas.size() > 1) {
+            Sequencia[] deps = new Sequencia[folhas.size()];
+            for (int i = 0; i < deps.length; i++) deps[i] = folhas.get(i).sequencia;
+            adicionarConsumidor("limpeza", (e, seq, fimDoLote) -> e.pedido = null, deps);
+        }
+    }
+
+    // Espera os consumidores chegarem ao que já foi publicado e encerra as threads.
+    public synchronized void parar() throws InterruptedException {
+        for (Entrada e : entradas) e.parar();
+        long fim = cursor.get();
+        for (Processador p : consumidores) {
+            while (p.thread != null && p.thread.isAlive() && p.sequencia.get() < fim) {
+                LockSupport.parkNanos(100_000);
+            }
+        }
+        for (Processador p : consumidores) p.barreira.alertar();
+        for (Processador p : consumidores) {
+            if (p.thread != null) p.thread.join();
+            p.thread = null;
+        }
+    }
+
+    // ---- produtor ----
+
+    public void publicar(Pedido p) {
+        publicar(p, 0);
+    }
+
+    public void publicar(Pedido p, int terminal) {
+        long seq = proximo(1);
+        slots[(int) (seq & mascara)].preencher(p, terminal);
+        publicar(seq, seq);
+    }
+
+    // Publica vários com uma reserva e um aviso só.
+    public void publicarLote(List<Pedido> pedidos, int terminal) {
+        int n = pedidos.size();
+        for (int de = 0; de < n; de += tamanho) {
+            int k = Math.min(tamanho, n - de);
+            long alto = proximo(k);
+            long baixo = alto - k + 1;
+            for (int i = 0; i < k; i++) slots[(int) ((baixo + i) & mascara)].preencher(pedidos.get(de + i), terminal);
+            publicar(baixo, alto);
+        }
+    }
+
+    // Liga o anel a um MotorPedidos: cada pedido que entra é publicado.
+    //
+    // O aviso chega com o monitor do motor preso, e publicar espera quando o
+    // anel está cheio; esperar ali pararia os caixas e a tela atrás da
+    // cozinha. Por isso o ouvinte só põe o pedido numa fila sem limite e uma
+    // thread da entrada publica em lotes, na ordem. A thread da entrada é o
+    // produtor do anel, então vários motores no mesmo anel exigem
+    // multiplosProdutores. Se o anel já foi iniciado, a thread começa agora;
+    // senão, em iniciar.
+    public Entrada conectar(MotorPedidos motor, int terminal) {
+        Entrada entrada = new Entrada(terminal);
+        entradas.add(entrada);
+        synchronized (this) {
+            if (consumidores.stream().anyMatch(p -> p.thread != null)) entrada.iniciar();
+        }
+        motor.addOuvinte(new MotorPedidos.Ouvinte() {
+            @Override
+            public void adicionado(Pedido p, int linha) {
+                entrada.pendentes.incrementAndGet();
+                entrada.fila.add(p);
+            }
+
+            @Override
+            public void removido(Pedido p, int linha) {
+            }
+
+            @Override
+            public void alterado(Pedido p, int linha) {
+            }
+
+            @Override
+            public void recarregado() {
+            }
+        });
+        return entrada;
+    }
+
+    // Fila entre um motor e o anel; getPendentes diz quanto a cozinha está
+    // atrasada além do que cabe no anel.
+    public final class Entrada implements Runnable {
+        private final int terminal;
+        private final LinkedBlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+        // na fila ou no lote sendo publicado
+        private final AtomicLong pendentes = new AtomicLong();
+        private Thread thread;
+
+        Entrada(int terminal) {
+            this.terminal = terminal;
+        }
+
+        public long getPendentes() {
+            return pendentes.get();
+        }
+
+        @Override
+        public void run() {
+            List<Pedido> lote = new ArrayList<>();
+            while (true) {
+                try {
+                    lote.add(fila.take());
+                } catch (InterruptedException e) {
+                    return;
+                }
+                fila.drainTo(lote, tamanho - 1);
+                publicarLote(lote, terminal);
+                pendentes.addAndGet(-lote.size());
+                lote.clear();
+            }
+        }
+
+        private void iniciar() {
+            if (thread != null) return;
+            thread = new Thread(this, "anel-entrada-" + terminal);
+            thread.setDaemon(true);
+            thread.start();
+        }
+
+        // Publica o que já entrou e encerra a thread.
+        private void parar() throws InterruptedException {
+            if (thread == null) return;
+            while (pendentes.get() > 0 && thread.isAlive()) LockSupport.parkNanos(100_000);
+            thread.interrupt();
+            thread.join();
+            thread = null;
+        }
+    }
+
+    // Reserva n slots e devolve a maior sequência reservada. Se o anel está
+    // cheio, espera o consumidor mais atrasado liberar espaço.
+    private long proximo(int n) {
+        if (n < 1 || n > tamanho) throw new IllegalArgumentException("n: " + n);
+        if (!multiplosProdutores) {
+            long alto = proximo + n;
+            long limite = alto - tamanho;
+            if (limite > cacheControle) {
+                long minimo;
+                while (limite > (minimo = minimo(controle, proximo))) LockSupport.parkNanos(1);
+                cacheControle = minimo;
+            }
+            proximo = alto;
+            return alto;
+        }
+        while (true) {
+            long atual = cursor.get();
+            long alto = atual + n;
+            long limite = alto - tamanho;
+            if (limite > minimo(controle, atual)) {
+                LockSupport.parkNanos(1);
+                continue;
+            }
+            if (cursor.compareAndSet(atual, alto)) return alto;
+        }
+    }
+
+    private void publicar(long baixo, long alto) {
+        if (multiplosProdutores) {
+            for (long s = baixo; s <= alto; s++) {
+                VOLTA.setRelease(publicadoNaVolta, (int) (s & mascara), (int) (s >>> deslocamentoVolta));
+            }
+        } else {
+            cursor.set(alto);
+        }
+        espera.sinalizarTodos();
+    }
+
+    // Vários produtores: o cursor anda na reserva, então só vale até o
+    // primeiro slot reservado que ainda não foi publicado.
+    long maiorPublicado(long de, long disponivel) {
+        if (!multiplosProdutores) return disponivel;
+        for (long s = de; s <= disponivel; s++) {
+            if ((int) VOLTA.getAcquire(publicadoNaVolta, (int) (s & mascara)) != (int) (s >>> deslocamentoVolta)) {
+                return s - 1;
+            }
+        }
+        return disponivel;
+    }
+
+    private static long minimo(Sequencia[] sequencias, long padrao) {
+        long m = padrao;
+        for (Sequencia s : sequencias) m = Math.min(m, s.get());
+        return m;
+    }
+}
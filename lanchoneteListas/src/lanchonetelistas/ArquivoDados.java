@@ -0,0 +1,438 @@
+package lanchonetelistas;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Consumer;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Importação e exportação de pedidos e mesas em CSV ou num binário compacto.
+//
+// Tudo é lido e escrito em fluxo por um FileChannel com um buffer fixo de
+// 64 KB: cada linha/registro vai para o destino assim que é lido, então a
+// memória usada não depende do tamanho do arquivo. O formato é escolhido
+// pela extensão na escrita (.csv ou qualquer outra para o binário) e pelo
+// cabeçalho na leitura.
+//
+// CSV (UTF-8, vírgula, aspas como no RFC 4180, cabeçalho opcional):
+//   pedidos: item,quantidade,valor
+//   mesas:   id,capacidade,ocupada,grupo
+// Binário: magic, versão e depois um registro atrás do outro até o fim.
+public final class ArquivoDados {
+
+    public enum Formato {
+        CSV, BINARIO;
+
+        public static Formato de(Path arquivo) {
+            return arquivo.getFileName().toString().toLowerCase(Locale.ROOT).endsWith(".csv") ? CSV : BINARIO;
+        }
+    }
+
+    private static final int MAGIC_PEDIDOS = 0x4C504558; // "LPEX"
+    private static final int MAGIC_MESAS = 0x4C4D4558;   // "LMEX"
+    private static final int VERSAO = 1;
+    private static final int BUFFER = 64 << 10;
+
+    private static final String CABECALHO_PEDIDOS = "item,quantidade,valor";
+    private static final String CABECALHO_MESAS = "id,capacidade,ocupada,grupo";
+
+    private ArquivoDados() {
+    }
+
+    // ---- pedidos ----
+
+    public static long importarPedidos(Path arquivo, GerenciadorPedidos destino) throws IOException {
+        return importarPedidos(arquivo, destino::adicionar);
+    }
+
+    // Entrega cada pedido lido ao destino, na ordem do arquivo; devolve quantos.
+    public static long importarPedidos(Path arquivo, Consumer<Pedido> destino) throws IOException {
+        try (Leitor in = new Leitor(arquivo)) {
+            long n = 0;
+            if (in.comecaCom(MAGIC_PEDIDOS)) {
+                in.cabecalhoBinario();
+                while (in.temMais()) {
+                    String item = in.texto();
+                    int quantidade = in.inteiro();
+                    destino.accept(Cardapio.padrao().pedido(item, quantidade, in.real()));
+                    n++;
+                }
+            } else {
+                ArrayList<String> campos = new ArrayList<>(3);
+                while (in.linhaCsv(campos)) {
+                    if (in.getLinha() == 1 && campos.equals(List.of(CABECALHO_PEDIDOS.split(",")))) continue;
+                    if (campos.size() == 1 && campos.get(0).isEmpty()) continue;
+                    if (campos.size() != 3) throw in.erro("esperado " + CABECALHO_PEDIDOS);
+                    try {
+                        destino.accept(Cardapio.padrao().pedido(campos.get(0), Integer.parseInt(campos.get(1).trim()),
+                                Double.parseDouble(campos.get(2).trim())));
+                    } catch (NumberFormatException e) {
+                        throw in.erro(e.getMessage());
+                    }
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    public static long exportarPedidos(Path arquivo, Iterable<Pedido> pedidos) throws IOException {
+        return exportarPedidos(arquivo, Formato.de(arquivo), pedidos);
+    }
+
+    public static long exportarPedidos(Path arquivo, Formato formato, Iterable<Pedido> pedidos) throws IOException {
+        try (Escritor out = new Escritor(arquivo)) {
+            long n = 0;
+            if (formato == Formato.BINARIO) {
+                out.inteiro(MAGIC_PEDIDOS);
+                out.inteiro(VERSAO);
+                for (Pedido p : pedidos) {
+                    out.texto(p.item);
+                    out.inteiro(p.quantidade);
+                    out.real(p.valor);
+                    n++;
+                }
+            } else {
+                out.linhaCsv(CABECALHO_PEDIDOS);
+                for (Pedido p : pedidos) {
+                    out.campoCsv(p.item == null ? "" : p.item);
+                    out.virgula();
+                    out.ascii(Integer.toString(p.quantidade));
+                    out.virgula();
+                    out.ascii(Double.toString(p.valor));
+                    out.fimDeLinha();
+                    n++;
+                }
+            }
+            out.confirmar();
+            return n;
+        }
+    }
+
+    // ---- mesas ----
+
+    // As mesas mantêm os ids do arquivo; o motor não deve já ter esses ids.
+    public static long importarMesas(Path arquivo, MotorMesas destino) throws IOException {
+        try (Leitor in = new Leitor(arquivo)) {
+            long n = 0;
+            if (in.comecaCom(MAGIC_MESAS)) {
+                in.cabecalhoBinario();
+                while (in.temMais()) {
+                    int id = in.inteiro();
+                    int capacidade = in.inteiro();
+                    boolean ocupada = in.inteiro() != 0;
+                    destino.restaurarMesa(id, capacidade, ocupada, in.texto());
+                    n++;
+                }
+            } else {
+                ArrayList<String> campos = new ArrayList<>(4);
+                while (in.linhaCsv(campos)) {
+                    if (in.getLinha() == 1 && campos.equals(List.of(CABECALHO_MESAS.split(",")))) continue;
+                    if (campos.size() == 1 && campos.get(0).isEmpty()) continue;
+                    if (campos.size() < 2 || campos.size() > 4) throw in.erro("esperado " + CABECALHO_MESAS);
+                    try {
+                        int id = Integer.parseInt(campos.get(0).trim());
+                        int capacidade = Integer.parseInt(campos.get(1).trim());
+                        boolean ocupada = campos.size() > 2 && Boolean.parseBoolean(campos.get(2).trim());
+                        String grupo = campos.size() > 3 ? campos.get(3) : "";
+                        destino.restaurarMesa(id, capacidade, ocupada, grupo);
+                    } catch (IllegalArgumentException e) {
+                        throw in.erro(e.getMessage());
+                    }
+                    n++;
+                }
+            }
+            return n;
+        }
+    }
+
+    public static long exportarMesas(Path arquivo, MotorMesas mesas) throws IOException {
+        return exportarMesas(arquivo, Formato.de(arquivo), mesas);
+    }
+
+    public static long exportarMesas(Path arquivo, Formato formato, MotorMesas mesas) throws IOException {
+        // o array é o cache compartilhado da TableList, não uma cópia
+        Table[] todas = mesas.toArray();
+        try (Escritor out = new Escritor(arquivo)) {
+            if (formato == Formato.BINARIO) {
+                out.inteiro(MAGIC_MESAS);
+                out.inteiro(VERSAO);
+                for (Table t : todas) {
+                    out.inteiro(t.id);
+                    out.inteiro(t.capacity);
+                    out.inteiro(t.occupied ? 1 : 0);
+                    out.texto(t.partyName);
+                }
+            } else {
+                out.linhaCsv(CABECALHO_MESAS);
+                for (Table t : todas) {
+                    out.ascii(Integer.toString(t.id));
+                    out.virgula();
+                    out.ascii(Integer.toString(t.capacity));
+                    out.virgula();
+                    out.ascii(Boolean.toString(t.occupied));
+                    out.virgula();
+                    out.campoCsv(t.partyName == null ? "" : t.partyName);
+                    out.fimDeLinha();
+                }
+            }
+            out.confirmar();
+            return todas.length;
+        }
+    }
+
+    // ---- leitura ----
+
+    private static final class Leitor implements Closeable {
+        private final Path arquivo;
+        private final FileChannel canal;
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+        private byte[] campo = new byte[256];
+        private long linha;
+
+        Leitor(Path arquivo) throws IOException {
+            this.arquivo = arquivo;
+            this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+            buf.flip();
+        }
+
+        long getLinha() {
+            return linha;
+        }
+
+        IOException erro(String motivo) {
+            return new IOException(arquivo + ", linha " + linha + ": " + motivo);
+        }
+
+        private boolean encher() throws IOException {
+            buf.compact();
+            int lidos;
+            do {
+                lidos = canal.read(buf);
+            } while (lidos == 0);
+            buf.flip();
+            return lidos > 0;
+        }
+
+        private boolean garantir(int n) throws IOException {
+            while (buf.remaining() < n) {
+                if (!encher()) return false;
+            }
+            return true;
+        }
+
+        // Olha os 4 primeiros bytes sem consumi-los se não forem o magic.
+        boolean comecaCom(int magic) throws IOException {
+            if (!garantir(4) || buf.getInt(buf.position()) != magic) return false;
+            buf.getInt();
+            return true;
+        }
+
+        void cabecalhoBinario() throws IOException {
+            int versao = inteiro();
+            if (versao != VERSAO) throw new IOException("Versão não suportada em " + arquivo + ": " + versao);
+        }
+
+        boolean temMais() throws IOException {
+            linha++;
+            return garantir(1);
+        }
+
+        int inteiro() throws IOException {
+            if (!garantir(4)) throw erro("arquivo truncado");
+            return buf.getInt();
+        }
+
+        double real() throws IOException {
+            if (!garantir(8)) throw erro("arquivo truncado");
+            return buf.getDouble();
+        }
+
+        String texto() throws IOException {
+            int n = inteiro();
+            if (n < 0) return null;
+            if (campo.length < n) campo = new byte[Math.max(n, campo.length * 2)];
+            int lidos = 0;
+            while (lidos < n) {
+                if (!garantir(1)) throw erro("arquivo truncado");
+                int k = Math.min(n - lidos, buf.remaining());
+                buf.get(campo, lidos, k);
+                lidos += k;
+            }
+            return new String(campo, 0, n, StandardCharsets.UTF_8);
+        }
+
+        // Próximo registro CSV em campos; false no fim do arquivo. Campos entre
+        // aspas podem ter vírgula, aspas dobradas e quebra de linha.
+        boolean linhaCsv(List<String> campos) throws IOException {
+            campos.clear();
+            if (!garantir(1)) return false;
+            linha++;
+            int n = 0;
+            boolean aspas = false;
+            boolean citado = false;
+            while (true) {
+                if (!garantir(1)) {
+                    if (aspas) throw erro("aspas sem fechar");
+                    campos.add(decodificar(n));
+                    return true;
+                }
+                byte b = buf.get();
+                if (aspas) {
+                    if (b == '"') {
+                        if (garantir(1) && buf.get(buf.position()) == '"') {
+                            buf.get();
+                            n = guardar(n, b);
+                        } else {
+                            aspas = false;
+                        }
+                    } else {
+                        n = guardar(n, b);
+                    }
+                } else if (b == '"' && n == 0 && !citado) {
+                    aspas = true;
+                    citado = true;
+                } else if (b == ',') {
+                    campos.add(decodificar(n));
+                    n = 0;
+                    citado = false;
+                } else if (b == '\n') {
+                    campos.add(decodificar(n));
+                    return true;
+                } else if (b != '\r') {
+                    n = guardar(n, b);
+                }
+            }
+        }
+
+        private int guardar(int n, byte b) {
+            if (n == campo.length) campo = Arrays.copyOf(campo, n * 2);
+            campo[n] = b;
+            return n + 1;
+        }
+
+        private String decodificar(int n) {
+            return new String(campo, 0, n, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void close() throws IOException {
+            canal.close();
+        }
+    }
+
+    // ---- escrita ----
+
+    // Escreve num arquivo temporário e só troca pelo destino em confirmar(),
+    // para uma exportação interrompida não deixar um arquivo pela metade.
+    private static final class Escritor implements Closeable {
+        private final Path destino;
+        private final Path tmp;
+        private final FileChannel canal;
+        private final ByteBuffer buf = ByteBuffer.allocate(BUFFER);
+        private boolean confirmado;
+
+        Escritor(Path destino) throws IOException {
+            this.destino = destino;
+            Path pasta = destino.toAbsolutePath().getParent();
+            this.tmp = pasta.resolve(destino.getFileName() + ".tmp");
+            this.canal = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        private void espaco(int n) throws IOException {
+            if (buf.remaining() >= n) return;
+            esvaziar();
+        }
+
+        private void esvaziar() throws IOException {
+            buf.flip();
+            while (buf.hasRemaining()) canal.write(buf);
+            buf.clear();
+        }
+
+        void inteiro(int v) throws IOException {
+            espaco(4);
+            buf.putInt(v);
+        }
+
+        void real(double v) throws IOException {
+            espaco(8);
+            buf.putDouble(v);
+        }
+
+        void bytes(byte[] b) throws IOException {
+            int escritos = 0;
+            while (escritos < b.length) {
+                if (!buf.hasRemaining()) esvaziar();
+                int k = Math.min(b.length - escritos, buf.remaining());
+                buf.put(b, escritos, k);
+                escritos += k;
+            }
+        }
+
+        void texto(String s) throws IOException {
+            if (s == null) {
+                inteiro(-1);
+                return;
+            }
+            byte[] b = s.getBytes(StandardCharsets.UTF_8);
+            inteiro(b.length);
+            bytes(b);
+        }
+
+        void ascii(String s) throws IOException {
+            espaco(s.length());
+            for (int i = 0; i < s.length(); i++) buf.put((byte) s.charAt(i));
+        }
+
+        void virgula() throws IOException {
+            espaco(1);
+            buf.put((byte) ',');
+        }
+
+        void fimDeLinha() throws IOException {
+            espaco(1);
+            buf.put((byte) '\n');
+        }
+
+        void linhaCsv(String linha) throws IOException {
+            ascii(linha);
+            fimDeLinha();
+        }
+
+        void campoCsv(String s) throws IOException {
+            boolean citar = false;
+            for (int i = 0; i < s.length() && !citar; i++) {
+                char c = s.charAt(i);
+                citar = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!citar) {
+                bytes(s.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            espaco(1);
+            buf.put((byte) '"');
+            bytes(s.replace("\"", "\"\"").getBytes(StandardCharsets.UTF_8));
+            espaco(1);
+            buf.put((byte) '"');
+        }
+
+        void confirmar() throws IOException {
+            esvaziar();
+            canal.force(false);
+            canal.close();
+            Files.move(tmp, destino, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            confirmado = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (confirmado) return;
+            canal.close();
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package lanchonetelistas;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.swing.SwingUtilities;
+
+// Junta as mudanças que chegam de fora da EDT (importação, réplica, HTTP,
+// outros terminais) e entrega à tela no máximo uma atualização por quadro.
+//
+// Cada aviso só acumula, sob um lock curto, o que mudou: um intervalo de
+// linhas ou "tudo" (inclusões e remoções mudam as posições). Uma thread de
+// fundo, compartilhada por todas as telas, fecha essa diferença a cada
+// quadro (~60 por segundo) e a publica com invokeLater. Enquanto a EDT não
+// aplicou a anterior, nada novo é postado; o que chegar nesse meio tempo vai
+// junto na próxima. Uma rajada de 10 mil pedidos vira poucas atualizações.
+//
+// Antes de postar, o alvo pode montar na própria thread de fundo o que a
+// tela vai mostrar (preparar); as tabelas usam isso para copiar as linhas e
+// calcular a diferença fora da EDT (ver ModeloTabelaFoto).
+public final class AtualizacaoTela {
+
+    public interface Alvo {
+        // Na thread de fundo, antes de ir para a EDT; nunca roda de novo
+        // antes de aplicar() terminar.
+        default void preparar() {
+        }
+
+        // Aplica a diferença na EDT: tudo, ou as linhas [de, ate].
+        void aplicar(boolean tudo, int de, int ate);
+    }
+
+    public static final long QUADRO_NANOS = 1_000_000_000L / 60;
+
+    public static final Metricas.Operacao PUBLICAR = Metricas.operacao("tela.atualizacao");
+
+    private static final ScheduledExecutorService AGENDADOR = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "tela-atualizacao");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private final Alvo alvo;
+    // medida da tela, além de PUBLICAR; pode ser null
+    private final Metricas.Operacao operacao;
+    // diferença acumulada desde a última publicação
+    private boolean tudo;
+    private int de = Integer.MAX_VALUE;
+    private int ate = -1;
+    // já há publicação agendada ou esperando a EDT
+    private boolean agendada;
+    private boolean naEdt;
+    private long ultimaPublicacao;
+
+    public AtualizacaoTela(Alvo alvo) {
+        this(alvo, null);
+    }
+
+    public AtualizacaoTela(Alvo alvo, Metricas.Operacao operacao) {
+        this.alvo = alvo;
+        this.operacao = operacao;
+    }
+
+    // Linhas [de, ate] mudaram de conteúdo.
+    public void linhas(int de, int ate) {
+        if (de < 0) {
+            tudo();
+            return;
+        }
+        synchronized (this) {
+            this.de = Math.min(this.de, de);
+            this.ate = Math.max(this.ate, ate);
+            agendar();
+        }
+    }
+
+    // Linhas entraram, saíram ou mudaram de lugar.
+    public synchronized void tudo() {
+        tudo = true;
+        agendar();
+    }
+
+    private void agendar() {
+        if (agendada) return;
+        agendada = true;
+        long espera = ultimaPublicacao + QUADRO_NANOS - System.nanoTime();
+        AGENDADOR.schedule(this::publicar, Math.max(0, espera), TimeUnit.NANOSECONDS);
+    }
+
+    // Na thread de fundo: fecha a diferença e manda para a EDT.
+    private void publicar() {
+        final boolean t;
+        final int d, a;
+        synchronized (this) {
+            if (naEdt) {
+                // a EDT ainda não aplicou a anterior: tenta no próximo quadro
+                AGENDADOR.schedule(this::publicar, QUADRO_NANOS, TimeUnit.NANOSECONDS);
+                return;
+            }
+            t = tudo;
+            d = de;
+            a = ate;
+            tudo = false;
+            de = Integer.MAX_VALUE;
+            ate = -1;
+            agendada = false;
+            naEdt = true;
+            ultimaPublicacao = System.nanoTime();
+        }
+        try {
+            alvo.preparar();
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                naEdt = false;
+            }
+            throw e;
+        }
+        SwingUtilities.invokeLater(() -> {
+            long t0 = Metricas.inicio();
+            try {
+                alvo.aplicar(t, d, a);
+            } finally {
+                synchronized (this) {
+                    naEdt = false;
+                }
+                PUBLICAR.fim(t0);
+                if (operacao != null) operacao.fim(t0);
+            }
+        });
+    }
+}
@@ -0,0 +1,62 @@
+package lanchonetelistas;
+import java.util.*;
+
+// Cardápio com SKUs inteiros. Cada SKU tem um único ItemCardapio, que é o
+// que os pedidos guardam; as telas pegam os itens daqui em vez de repetir
+// nome e preço.
+public final class Cardapio {
+
+    public static final int X_BURGER = 1;
+    public static final int CACHORRO_QUENTE = 2;
+    public static final int GUARANA = 3;
+    public static final int BATATA_FRITA = 4;
+    public static final int MILKSHAKE = 5;
+
+    private static final Cardapio PADRAO = new Cardapio(List.of(
+            new ItemCardapio(X_BURGER, "X-Burger", 10.90),
+            new ItemCardapio(CACHORRO_QUENTE, "Cachorro Quente", 5.50),
+            new ItemCardapio(GUARANA, "Guaraná", 4.50),
+            new ItemCardapio(BATATA_FRITA, "Batata-Frita", 7.50),
+            new ItemCardapio(MILKSHAKE, "MilkShake", 11.00)));
+
+    private final Map<Integer, ItemCardapio> porSku = new HashMap<>();
+    private final Map<String, ItemCardapio> porNome = new HashMap<>();
+    private final List<ItemCardapio> itens;
+
+    public Cardapio(Collection<ItemCardapio> itens) {
+        for (ItemCardapio i : itens) {
+            if (porSku.putIfAbsent(i.getSku(), i) != null) {
+                throw new IllegalArgumentException("SKU repetido: " + i.getSku());
+            }
+            if (porNome.putIfAbsent(i.getNome(), i) != null) {
+                throw new IllegalArgumentException("Item repetido: " + i.getNome());
+            }
+        }
+        this.itens = List.copyOf(itens);
+    }
+
+    public static Cardapio padrao() {
+        return PADRAO;
+    }
+
+    // null se o SKU não está no cardápio.
+    public ItemCardapio porSku(int sku) {
+        return porSku.get(sku);
+    }
+
+    public ItemCardapio porNome(String nome) {
+        return porNome.get(nome);
+    }
+
+    public List<ItemCardapio> itens() {
+        return itens;
+    }
+
+    // Pedido ligado ao item do cardápio quando nome e preço batem (dados que
+    // chegam de fora, como arquivos e réplicas); senão, um pedido avulso.
+    public Pedido pedido(String item, int quantidade, double valor) {
+        ItemCardapio c = item == null ? null : porNome.get(item);
+        if (c != null && c.getPreco() == valor) return new Pedido(c, quantidade);
+        return new Pedido(item, quantidade, valor);
+    }
+}
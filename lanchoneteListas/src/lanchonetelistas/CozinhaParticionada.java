@@ -0,0 +1,168 @@
+package lanchonetelistas;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Pedidos divididos por estação da cozinha: cada estação tem seu próprio
+// GerenciadorPedidos concorrente em modo FILA, então chapa, fritadeira e
+// bebidas não disputam a mesma estrutura.
+//
+// Quem prepara é um ForkJoinPool. Cada estação com pedidos tem uma tarefa de
+// drenagem que pega um lote e, se ainda sobrar, faz fork de outra tarefa da
+// mesma estação antes de preparar o lote. Threads ociosas roubam essas
+// tarefas, e assim uma estação cheia recebe ajuda das que estão paradas.
+// Com mais de uma thread numa estação a ordem de preparo é só aproximadamente
+// a de chegada.
+public class CozinhaParticionada implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(CozinhaParticionada.class.getName());
+    private static final int LOTE = 32;
+
+    public enum Estacao {
+        CHAPA, FRITADEIRA, BEBIDAS;
+
+        private static final Map<String, Estacao> POR_ITEM = Map.of(
+                "X-Burger", CHAPA,
+                "Cachorro Quente", CHAPA,
+                "Batata-Frita", FRITADEIRA,
+                "Guaraná", BEBIDAS,
+                "MilkShake", BEBIDAS);
+
+        // Item fora do cardápio vai para a chapa.
+        public static Estacao de(String item) {
+            return item == null ? CHAPA : POR_ITEM.getOrDefault(item, CHAPA);
+        }
+    }
+
+    public interface Preparo {
+        void preparar(Estacao estacao, Pedido p);
+    }
+
+    private static final Estacao[] ESTACOES = Estacao.values();
+
+    private final Preparo preparo;
+    private final ForkJoinPool pool;
+    private final GerenciadorPedidos[] estacoes = new GerenciadorPedidos[ESTACOES.length];
+    // pode ficar negativo por um instante: o pedido sai antes do incremento de quem o colocou
+    private final AtomicInteger[] pendentes = new AtomicInteger[ESTACOES.length];
+    private final AtomicBoolean[] agendada = new AtomicBoolean[ESTACOES.length];
+    private final LongAdder[] preparados = new LongAdder[ESTACOES.length];
+    // o mesmo objeto no registro e na remoção (close)
+    private final LongSupplier medidorPendentes = this::totalPendentes;
+
+    public CozinhaParticionada(Preparo preparo) {
+        this(preparo, Runtime.getRuntime().availableProcessors());
+    }
+
+    public CozinhaParticionada(Preparo preparo, int cozinheiros) {
+        this.preparo = preparo;
+        this.pool = new ForkJoinPool(cozinheiros);
+        for (int e = 0; e < ESTACOES.length; e++) {
+            estacoes[e] = new GerenciadorPedidos(true);
+            estacoes[e].setEstrutura(GerenciadorPedidos.TipoEstrutura.FILA);
+            pendentes[e] = new AtomicInteger();
+            agendada[e] = new AtomicBoolean();
+            preparados[e] = new LongAdder();
+        }
+        Metricas.medidor("cozinha.pendentes", medidorPendentes);
+    }
+
+    public void submeter(Pedido p) {
+        int e = Estacao.de(p.item).ordinal();
+        estacoes[e].adicionar(p);
+        pendentes[e].incrementAndGet();
+        agendar(e);
+    }
+
+    public void submeterLote(Collection<Pedido> pedidos) {
+        for (Pedido p : pedidos) submeter(p);
+    }
+
+    public int pendentes(Estacao estacao) {
+        return Math.max(0, pendentes[estacao.ordinal()].get());
+    }
+
+    public long totalPendentes() {
+        long total = 0;
+        for (Estacao e : ESTACOES) total += pendentes(e);
+        return total;
+    }
+
+    public long preparados(Estacao estacao) {
+        return preparados[estacao.ordinal()].sum();
+    }
+
+    public int getCozinheiros() {
+        return pool.getParallelism();
+    }
+
+    // Espera até não haver pedido pendente nem cozinheiro trabalhando.
+    public boolean aguardarOciosa(long tempo, TimeUnit unidade) throws InterruptedException {
+        long limite = System.nanoTime() + unidade.toNanos(tempo);
+        while (true) {
+            long resta = limite - System.nanoTime();
+            if (pool.awaitQuiescence(resta, TimeUnit.NANOSECONDS) && totalPendentes() == 0) return true;
+            if (System.nanoTime() >= limite) return false;
+            if (Thread.interrupted()) throw new InterruptedException();
+            Thread.onSpinWait();
+        }
+    }
+
+    @Override
+    public void close() {
+        Metricas.removerMedidor("cozinha.pendentes", medidorPendentes);
+        pool.shutdown();
+        try {
+            pool.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void agendar(int e) {
+        if (agendada[e].compareAndSet(false, true)) pool.execute(new Drenagem(e));
+    }
+
+    private final class Drenagem extends RecursiveAction {
+        private final int estacao;
+
+        Drenagem(int estacao) {
+            this.estacao = estacao;
+        }
+
+        @Override
+        protected void compute() {
+            GerenciadorPedidos g = estacoes[estacao];
+            Pedido[] lote = new Pedido[LOTE];
+            int n = 0;
+            Pedido p;
+            while (n < LOTE && (p = g.retirar()) != null) lote[n++] = p;
+
+            if (pendentes[estacao].addAndGet(-n) > 0) {
+                // o resto fica numa tarefa que outro cozinheiro pode roubar
+                new Drenagem(estacao).fork();
+            } else {
+                agendada[estacao].set(false);
+                // quem acabou de adicionar pode ter visto agendada ainda true
+                if (pendentes[estacao].get() > 0) agendar(estacao);
+            }
+
+            Estacao e = ESTACOES[estacao];
+            for (int i = 0; i < n; i++) {
+                try {
+                    preparo.preparar(e, lote[i]);
+                } catch (RuntimeException ex) {
+                    logger.log(Level.WARNING, "Falha ao preparar " + lote[i].item, ex);
+                }
+            }
+            preparados[estacao].add(n);
+        }
+    }
+}
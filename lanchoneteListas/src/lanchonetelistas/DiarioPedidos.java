@@ -0,0 +1,588 @@
+package lanchonetelistas;
+import java.io.*;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.locks.LockSupport;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// Diário (write-ahead log) do GerenciadorPedidos.
+//
+// Cada alteração (adicionar, remover, setEstrutura, e no modo normal também
+// remover/reinserir um pedido, mudar quantidade, trocar de estrutura) vira um registro [tamanho][crc32][dados]
+// escrito num arquivo mapeado em memória (pedidos-<geração>.log) antes de a
+// estrutura mudar: se o registro falha, a operação não acontece. Uma thread
+// faz o fsync em grupo a cada intervalo, então quem adiciona só paga a cópia
+// para o mapeamento. De tempos em tempos o estado inteiro vai para
+// pedidos.snap e um novo log é iniciado; na abertura o snapshot é carregado e
+// os logs seguintes são reaplicados na ordem, refazendo pilha e fila como estavam.
+// O heap da PRIORIDADE é gravado na ordem do array, com as chaves e a ordem de
+// chegada de cada pedido, e por isso volta com o mesmo layout (e os mesmos
+// desempates); repriorizar/cancelar são registrados pela posição, assim como
+// remover um pedido do meio e mudar a quantidade. Os pedidos voltam com a
+// ordem de chegada que tinham.
+public class DiarioPedidos implements Closeable {
+
+    private static final int SEGMENTO = 16 << 20;
+    private static final int SALTO = -1;
+    private static final int MAGIC_SNAPSHOT = 0x4C504544;
+    private static final int VERSAO = 4;
+
+    private static final byte ADICIONAR = 1;
+    private static final byte REMOVER = 2;
+    private static final byte ESTRUTURA = 3;
+    private static final byte ADICIONAR_PRIORIDADE = 4;
+    private static final byte REPRIORIZAR = 5;
+    private static final byte CANCELAR = 6;
+    private static final byte REMOVER_PEDIDO = 7;
+    private static final byte REINSERIR = 8;
+    private static final byte QUANTIDADE = 9;
+    private static final byte TROCAR = 10;
+    private static final byte LIMPAR = 11;
+
+    private static final GerenciadorPedidos.TipoEstrutura PRIORIDADE = GerenciadorPedidos.TipoEstrutura.PRIORIDADE;
+
+    private static final String SNAPSHOT = "pedidos.snap";
+    private static final String PREFIXO_LOG = "pedidos-";
+    private static final String SUFIXO_LOG = ".log";
+
+    private final Path pasta;
+    private final GerenciadorPedidos gerenciador;
+    private final long intervaloSyncNanos;
+    private final long limiteLog;
+
+    private long geracao;
+    private FileChannel canal;
+    private MappedByteBuffer segmento;
+    private long baseSegmento;
+    private final List<MappedByteBuffer> pendentes = new ArrayList<>();
+
+    // bytes escritos desde a abertura (todas as gerações) e quantos já passaram por fsync
+    private long escrito;
+    private volatile long duravel;
+    private long inicioGeracao;
+    private final Object aviso = new Object();
+    private final Object snapshotLock = new Object();
+
+    private final byte[] rascunho = new byte[4096];
+    private final CRC32 crc = new CRC32();
+
+    private final Thread sincronizador;
+    private volatile boolean fechado;
+
+    private DiarioPedidos(Path pasta, GerenciadorPedidos gerenciador, long intervaloSyncMicros, long limiteLog) {
+        this.pasta = pasta;
+        this.gerenciador = gerenciador;
+        this.intervaloSyncNanos = intervaloSyncMicros * 1000;
+        this.limiteLog = limiteLog;
+        this.sincronizador = new Thread(this::laco, "diario-pedidos-sync");
+        this.sincronizador.setDaemon(true);
+    }
+
+    public static DiarioPedidos abrir(Path pasta, GerenciadorPedidos gerenciador) throws IOException {
+        return abrir(pasta, gerenciador, 2000, 64L << 20);
+    }
+
+    // Recupera o estado gravado em pasta para dentro do gerenciador (que deve
+    // estar vazio) e passa a registrar as alterações dele.
+    public static DiarioPedidos abrir(Path pasta, GerenciadorPedidos gerenciador,
+                                      long intervaloSyncMicros, long limiteLog) throws IOException {
+        Files.createDirectories(pasta);
+        DiarioPedidos d = new DiarioPedidos(pasta, gerenciador, intervaloSyncMicros, limiteLog);
+        d.recuperar();
+        d.snapshot();
+        gerenciador.setDiario(d);
+        d.sincronizador.start();
+        return d;
+    }
+
+    // Espera o fsync de tudo o que foi registrado até agora.
+    public void sincronizar() throws InterruptedException {
+        long alvo;
+        synchronized (this) {
+            alvo = escrito;
+        }
+        synchronized (aviso) {
+            while (duravel < alvo && !fechado) aviso.wait();
+        }
+    }
+
+    // Grava o estado inteiro e começa um log novo; os logs anteriores são apagados.
+    public void snapshot() throws IOException {
+        synchronized (snapshotLock) {
+            long gen;
+            long proximaOrdem;
+            GerenciadorPedidos.TipoEstrutura ativo;
+            EnumMap<GerenciadorPedidos.TipoEstrutura, List<Pedido>> estado =
+                    new EnumMap<>(GerenciadorPedidos.TipoEstrutura.class);
+            Pedido[] heap;
+            long[] chaves;
+            long[] sequencias;
+            synchronized (this) {
+                forcarTudo();
+                gen = geracao + 1;
+                abrirLog(gen);
+                ativo = gerenciador.getEstrutura();
+                proximaOrdem = gerenciador.getProximaOrdem();
+                for (GerenciadorPedidos.TipoEstrutura t : GerenciadorPedidos.TipoEstrutura.values()) {
+                    if (t != PRIORIDADE) estado.put(t, gerenciador.getPedidos(t));
+                }
+                HeapIndexado<Pedido> h = gerenciador.heapPrioridade();
+                synchronized (h) {
+                    heap = new Pedido[h.size()];
+                    chaves = new long[heap.length];
+                    sequencias = new long[heap.length];
+                    for (int i = 0; i < heap.length; i++) {
+                        heap[i] = h.elemento(i);
+                        chaves[i] = h.chaveEm(i);
+                        sequencias[i] = h.sequenciaEm(i);
+                    }
+                }
+            }
+            escreverSnapshot(gen, ativo, proximaOrdem, estado, heap, chaves, sequencias);
+            try (DirectoryStream<Path> logs = Files.newDirectoryStream(pasta, PREFIXO_LOG + "*" + SUFIXO_LOG)) {
+                for (Path log : logs) {
+                    long g = geracaoDoLog(log);
+                    if (g < 0 || g >= gen) continue;
+                    try {
+                        Files.deleteIfExists(log);
+                    } catch (IOException e) {
+                        // ainda mapeado (Windows); é ignorado na recuperação e apagado no próximo snapshot
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        gerenciador.setDiario(null);
+        fechado = true;
+        LockSupport.unpark(sincronizador);
+        try {
+            sincronizador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            forcarTudo();
+            canal.close();
+        }
+        synchronized (aviso) {
+            aviso.notifyAll();
+        }
+    }
+
+    // ---- registro (chamado pelo GerenciadorPedidos com o lock do diário) ----
+
+    void registrarAdicionar(GerenciadorPedidos.TipoEstrutura tipo, Pedido p) {
+        registrarPedido(ADICIONAR, tipo, p, 0);
+    }
+
+    void registrarAdicionarPrioridade(Pedido p, long chave) {
+        registrarPedido(ADICIONAR_PRIORIDADE, PRIORIDADE, p, chave);
+    }
+
+    void registrarRepriorizar(int posicao, long chave) {
+        rascunho[0] = REPRIORIZAR;
+        rascunho[1] = (byte) PRIORIDADE.ordinal();
+        putLong(rascunho, putInt(rascunho, 2, posicao), chave);
+        escreverRegistro(rascunho, 14);
+    }
+
+    void registrarCancelar(int posicao) {
+        rascunho[0] = CANCELAR;
+        rascunho[1] = (byte) PRIORIDADE.ordinal();
+        putInt(rascunho, 2, posicao);
+        escreverRegistro(rascunho, 6);
+    }
+
+    void registrarReinserir(GerenciadorPedidos.TipoEstrutura tipo, Pedido p, long chave) {
+        registrarPedido(REINSERIR, tipo, p, chave);
+    }
+
+    void registrarRemoverPedido(GerenciadorPedidos.TipoEstrutura tipo, int indice) {
+        rascunho[0] = REMOVER_PEDIDO;
+        rascunho[1] = (byte) tipo.ordinal();
+        putInt(rascunho, 2, indice);
+        escreverRegistro(rascunho, 6);
+    }
+
+    void registrarQuantidade(GerenciadorPedidos.TipoEstrutura tipo, int posicao, int quantidade) {
+        rascunho[0] = QUANTIDADE;
+        rascunho[1] = (byte) tipo.ordinal();
+        putInt(rascunho, putInt(rascunho, 2, posicao), quantidade);
+        escreverRegistro(rascunho, 10);
+    }
+
+    void registrarTroca(GerenciadorPedidos.TipoEstrutura de, GerenciadorPedidos.TipoEstrutura para) {
+        rascunho[0] = TROCAR;
+        rascunho[1] = (byte) para.ordinal();
+        rascunho[2] = (byte) de.ordinal();
+        escreverRegistro(rascunho, 3);
+    }
+
+    void registrarLimpar() {
+        rascunho[0] = LIMPAR;
+        rascunho[1] = 0;
+        escreverRegistro(rascunho, 2);
+    }
+
+    // REINSERIR leva também a ordem de chegada e a chave (usada só na PRIORIDADE).
+    private void registrarPedido(byte operacao, GerenciadorPedidos.TipoEstrutura tipo, Pedido p, long chave) {
+        byte[] item = p.item == null ? null : p.item.getBytes(StandardCharsets.UTF_8);
+        int extra = operacao == ADICIONAR_PRIORIDADE ? 8 : operacao == REINSERIR ? 16 : 0;
+        int n = 2 + 4 + (item == null ? 0 : item.length) + 4 + 8 + extra;
+        if (n > SEGMENTO / 2) throw new IllegalArgumentException("Item grande demais para o diário");
+        byte[] b = n <= rascunho.length ? rascunho : new byte[n];
+        int i = 0;
+        b[i++] = operacao;
+        b[i++] = (byte) tipo.ordinal();
+        i = putInt(b, i, item == null ? -1 : item.length);
+        if (item != null) {
+            System.arraycopy(item, 0, b, i, item.length);
+            i += item.length;
+        }
+        i = putInt(b, i, p.quantidade);
+        putLong(b, i, Double.doubleToLongBits(p.valor));
+        if (operacao == ADICIONAR_PRIORIDADE) putLong(b, i + 8, chave);
+        if (operacao == REINSERIR) {
+            putLong(b, i + 8, p.ordem);
+            putLong(b, i + 16, chave);
+        }
+        escreverRegistro(b, n);
+    }
+
+    void registrarRemover(GerenciadorPedidos.TipoEstrutura tipo) {
+        rascunho[0] = REMOVER;
+        rascunho[1] = (byte) tipo.ordinal();
+        escreverRegistro(rascunho, 2);
+    }
+
+    void registrarEstrutura(GerenciadorPedidos.TipoEstrutura tipo) {
+        rascunho[0] = ESTRUTURA;
+        rascunho[1] = (byte) tipo.ordinal();
+        escreverRegistro(rascunho, 2);
+    }
+
+    private void escreverRegistro(byte[] dados, int n) {
+        crc.reset();
+        crc.update(dados, 0, n);
+        try {
+            if (segmento.remaining() < n + 8 + 4) proximoSegmento();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        segmento.putInt(n);
+        segmento.putInt((int) crc.getValue());
+        segmento.put(dados, 0, n);
+        escrito += n + 8;
+    }
+
+    private void proximoSegmento() throws IOException {
+        long usado = segmento.position();
+        if (segmento.remaining() >= 4) segmento.putInt(SALTO);
+        escrito += SEGMENTO - usado;
+        pendentes.add(segmento);
+        baseSegmento += SEGMENTO;
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, baseSegmento, SEGMENTO);
+    }
+
+    // ---- fsync em grupo ----
+
+    private void laco() {
+        while (!fechado) {
+            LockSupport.parkNanos(intervaloSyncNanos);
+            sincronizarAgora();
+            boolean grande;
+            synchronized (this) {
+                grande = escrito - inicioGeracao > limiteLog;
+            }
+            if (grande && !fechado) {
+                try {
+                    snapshot();
+                } catch (IOException e) {
+                    // fica para a próxima volta; o log continua válido
+                }
+            }
+        }
+    }
+
+    private void sincronizarAgora() {
+        long alvo;
+        MappedByteBuffer atual;
+        List<MappedByteBuffer> antigos;
+        synchronized (this) {
+            alvo = escrito;
+            if (alvo == duravel) return;
+            atual = segmento;
+            antigos = new ArrayList<>(pendentes);
+            pendentes.clear();
+        }
+        for (MappedByteBuffer b : antigos) b.force();
+        atual.force();
+        marcarDuravel(alvo);
+    }
+
+    private void forcarTudo() {
+        if (segmento == null) return;
+        for (MappedByteBuffer b : pendentes) b.force();
+        pendentes.clear();
+        segmento.force();
+        marcarDuravel(escrito);
+    }
+
+    private void marcarDuravel(long alvo) {
+        synchronized (aviso) {
+            if (alvo > duravel) duravel = alvo;
+            aviso.notifyAll();
+        }
+    }
+
+    private void abrirLog(long gen) throws IOException {
+        if (canal != null) canal.close();
+        geracao = gen;
+        canal = FileChannel.open(arquivoLog(gen), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        baseSegmento = 0;
+        segmento = canal.map(FileChannel.MapMode.READ_WRITE, 0, SEGMENTO);
+        inicioGeracao = escrito;
+    }
+
+    // ---- recuperação ----
+
+    private void recuperar() throws IOException {
+        long genSnapshot = 0;
+        Path snap = pasta.resolve(SNAPSHOT);
+        if (Files.exists(snap)) genSnapshot = lerSnapshot(snap);
+
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        try (DirectoryStream<Path> ds = Files.newDirectoryStream(pasta, PREFIXO_LOG + "*" + SUFIXO_LOG)) {
+            for (Path log : ds) {
+                long g = geracaoDoLog(log);
+                if (g >= genSnapshot) logs.put(g, log);
+            }
+        }
+        GerenciadorPedidos.TipoEstrutura ativo = gerenciador.getEstrutura();
+        for (Path log : logs.values()) {
+            ativo = reaplicar(log, ativo);
+        }
+        gerenciador.setEstrutura(ativo);
+        geracao = Math.max(genSnapshot, logs.isEmpty() ? 0 : logs.lastKey());
+    }
+
+    private GerenciadorPedidos.TipoEstrutura reaplicar(Path log, GerenciadorPedidos.TipoEstrutura ativo) throws IOException {
+        GerenciadorPedidos.TipoEstrutura[] tipos = GerenciadorPedidos.TipoEstrutura.values();
+        CRC32 verificador = new CRC32();
+        try (FileChannel c = FileChannel.open(log, StandardOpenOption.READ)) {
+            long tamanho = c.size();
+            for (long base = 0; base < tamanho; base += SEGMENTO) {
+                MappedByteBuffer b = c.map(FileChannel.MapMode.READ_ONLY, base, Math.min(SEGMENTO, tamanho - base));
+                while (true) {
+                    if (b.remaining() < 4) break;
+                    int n = b.getInt();
+                    if (n == SALTO) break;
+                    // 0 é o fim do que foi escrito; o resto é registro cortado por queda
+                    if (n <= 0 || n > b.remaining() - 4) return ativo;
+                    int esperado = b.getInt();
+                    byte[] d = new byte[n];
+                    b.get(d);
+                    verificador.reset();
+                    verificador.update(d, 0, n);
+                    if ((int) verificador.getValue() != esperado) return ativo;
+
+                    GerenciadorPedidos.TipoEstrutura tipo = tipos[d[1]];
+                    switch (d[0]) {
+                        case ADICIONAR, ADICIONAR_PRIORIDADE, REINSERIR -> {
+                            int i = 2;
+                            int len = getInt(d, i);
+                            i += 4;
+                            String item = len < 0 ? null : new String(d, i, len, StandardCharsets.UTF_8);
+                            i += Math.max(len, 0);
+                            int quantidade = getInt(d, i);
+                            double valor = Double.longBitsToDouble(getLong(d, i + 4));
+                            Pedido p = new Pedido(item, quantidade, valor);
+                            if (d[0] == ADICIONAR_PRIORIDADE) {
+                                gerenciador.adicionarComPrioridade(p, getLong(d, i + 12));
+                            } else if (d[0] == REINSERIR) {
+                                p.ordem = getLong(d, i + 12);
+                                gerenciador.aplicarReinserir(tipo, p, getLong(d, i + 20));
+                            } else {
+                                gerenciador.setEstrutura(tipo);
+                                gerenciador.adicionar(p);
+                            }
+                        }
+                        case REPRIORIZAR -> {
+                            HeapIndexado<Pedido> h = gerenciador.heapPrioridade();
+                            gerenciador.repriorizar(h.elemento(getInt(d, 2)), getLong(d, 6));
+                        }
+                        case CANCELAR -> {
+                            HeapIndexado<Pedido> h = gerenciador.heapPrioridade();
+                            gerenciador.cancelar(h.elemento(getInt(d, 2)));
+                        }
+                        case REMOVER -> {
+                            gerenciador.setEstrutura(tipo);
+                            gerenciador.remover();
+                        }
+                        case REMOVER_PEDIDO -> gerenciador.removerEm(tipo, getInt(d, 2));
+                        case QUANTIDADE -> gerenciador.elementoEm(tipo, getInt(d, 2)).quantidade = getInt(d, 6);
+                        case TROCAR -> {
+                            gerenciador.setEstrutura(tipos[d[2]]);
+                            gerenciador.trocarEstrutura(tipo);
+                            ativo = tipo;
+                        }
+                        case LIMPAR -> gerenciador.limpar();
+                        case ESTRUTURA -> ativo = tipo;
+                        default -> {
+                            return ativo;
+                        }
+                    }
+                }
+            }
+        }
+        return ativo;
+    }
+
+    // ---- snapshot ----
+
+    private void escreverSnapshot(long gen, GerenciadorPedidos.TipoEstrutura ativo, long proximaOrdem,
+                                  EnumMap<GerenciadorPedidos.TipoEstrutura, List<Pedido>> estado,
+                                  Pedido[] heap, long[] chaves, long[] sequencias) throws IOException {
+        Path tmp = pasta.resolve(SNAPSHOT + ".tmp");
+        try (FileOutputStream fos = new FileOutputStream(tmp.toFile())) {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(fos, 1 << 16), new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC_SNAPSHOT);
+            out.writeInt(VERSAO);
+            out.writeLong(gen);
+            out.writeByte(ativo.ordinal());
+            out.writeLong(proximaOrdem);
+            for (List<Pedido> pedidos : estado.values()) {
+                out.writeInt(pedidos.size());
+                for (Pedido p : pedidos) escreverPedido(out, p);
+            }
+            out.writeInt(heap.length);
+            for (int i = 0; i < heap.length; i++) {
+                escreverPedido(out, heap[i]);
+                out.writeLong(chaves[i]);
+                out.writeLong(sequencias[i]);
+            }
+            out.flush();
+            long soma = checked.getChecksum().getValue();
+            out.writeLong(soma);
+            out.flush();
+            fos.getFD().sync();
+        }
+        Files.move(tmp, pasta.resolve(SNAPSHOT), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void escreverPedido(DataOutputStream out, Pedido p) throws IOException {
+        out.writeBoolean(p.item != null);
+        if (p.item != null) out.writeUTF(p.item);
+        out.writeInt(p.quantidade);
+        out.writeDouble(p.valor);
+        out.writeLong(p.ordem);
+    }
+
+    // Antes da versão 4 não havia a ordem de chegada: ela é dada na leitura.
+    private static Pedido lerPedido(DataInputStream in, int versao, long[] ordem) throws IOException {
+        String item = in.readBoolean() ? in.readUTF() : null;
+        Pedido p = new Pedido(item, in.readInt(), in.readDouble());
+        p.ordem = versao >= 4 ? in.readLong() : ordem[0]++;
+        return p;
+    }
+
+    private long lerSnapshot(Path snap) throws IOException {
+        try (InputStream fis = Files.newInputStream(snap)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(fis, 1 << 16), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            if (in.readInt() != MAGIC_SNAPSHOT) throw new IOException("Snapshot inválido: " + snap);
+            int versao = in.readInt();
+            // a versão 1 não tinha a PRIORIDADE; a 2 não tinha a ordem de chegada no
+            // heap; a 3 não tinha a ordem de chegada dos pedidos
+            if (versao < 1 || versao > VERSAO) throw new IOException("Versão de snapshot não suportada: " + versao);
+            long gen = in.readLong();
+            GerenciadorPedidos.TipoEstrutura ativo = GerenciadorPedidos.TipoEstrutura.values()[in.readByte()];
+            long proximaOrdem = versao >= 4 ? in.readLong() : 0;
+            long[] ordem = { 0 };
+            // tudo é lido antes de tocar no gerenciador: um snapshot corrompido
+            // não deixa nada pela metade
+            EnumMap<GerenciadorPedidos.TipoEstrutura, List<Pedido>> estado =
+                    new EnumMap<>(GerenciadorPedidos.TipoEstrutura.class);
+            for (GerenciadorPedidos.TipoEstrutura t : GerenciadorPedidos.TipoEstrutura.values()) {
+                if (t == PRIORIDADE) continue;
+                int n = in.readInt();
+                if (n < 0) throw new IOException("Snapshot corrompido: " + snap);
+                ArrayList<Pedido> pedidos = new ArrayList<>(Math.min(n, 1 << 16));
+                for (int i = 0; i < n; i++) pedidos.add(lerPedido(in, versao, ordem));
+                estado.put(t, pedidos);
+            }
+            ArrayList<Pedido> heap = new ArrayList<>();
+            long[] chaves = new long[0];
+            long[] sequencias = new long[0];
+            if (versao >= 2) {
+                int n = in.readInt();
+                if (n < 0) throw new IOException("Snapshot corrompido: " + snap);
+                chaves = new long[Math.min(n, 1 << 16)];
+                sequencias = new long[chaves.length];
+                for (int i = 0; i < n; i++) {
+                    if (i == chaves.length) {
+                        chaves = Arrays.copyOf(chaves, Math.min(n, chaves.length * 2));
+                        sequencias = Arrays.copyOf(sequencias, chaves.length);
+                    }
+                    heap.add(lerPedido(in, versao, ordem));
+                    chaves[i] = in.readLong();
+                    sequencias[i] = versao >= 3 ? in.readLong() : i;
+                }
+            }
+            long calculado = checked.getChecksum().getValue();
+            if (in.readLong() != calculado) throw new IOException("Snapshot corrompido: " + snap);
+            for (Map.Entry<GerenciadorPedidos.TipoEstrutura, List<Pedido>> e : estado.entrySet()) {
+                for (Pedido p : e.getValue()) gerenciador.restaurar(e.getKey(), p, 0, 0);
+            }
+            // na ordem do array: cada um já entra na posição que tinha
+            for (int i = 0; i < heap.size(); i++) gerenciador.restaurar(PRIORIDADE, heap.get(i), chaves[i], sequencias[i]);
+            gerenciador.setProximaOrdem(Math.max(proximaOrdem, gerenciador.getProximaOrdem()));
+            gerenciador.setEstrutura(ativo);
+            return gen;
+        }
+    }
+
+    private Path arquivoLog(long gen) {
+        return pasta.resolve(PREFIXO_LOG + gen + SUFIXO_LOG);
+    }
+
+    private static long geracaoDoLog(Path log) {
+        String nome = log.getFileName().toString();
+        try {
+            return Long.parseLong(nome.substring(PREFIXO_LOG.length(), nome.length() - SUFIXO_LOG.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static int putInt(byte[] b, int i, int v) {
+        b[i] = (byte) (v >>> 24);
+        b[i + 1] = (byte) (v >>> 16);
+        b[i + 2] = (byte) (v >>> 8);
+        b[i + 3] = (byte) v;
+        return i + 4;
+    }
+
+    private static void putLong(byte[] b, int i, long v) {
+        putInt(b, i, (int) (v >>> 32));
+        putInt(b, i + 4, (int) v);
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return ((b[i] & 0xFF) << 24) | ((b[i + 1] & 0xFF) << 16) | ((b[i + 2] & 0xFF) << 8) | (b[i + 3] & 0xFF);
+    }
+
+    private static long getLong(byte[] b, int i) {
+        return ((long) getInt(b, i) << 32) | (getInt(b, i + 4) & 0xFFFFFFFFL);
+    }
+}
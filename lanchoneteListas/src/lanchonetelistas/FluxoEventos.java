@@ -0,0 +1,318 @@
+package lanchonetelistas;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Fluxo de eventos de tudo que muda nos pedidos (MotorPedidos) e nas mesas
+// (MotorMesas), para ser enviado a uma réplica pela ReplicacaoPrimaria.
+//
+// Os eventos são gravados já codificados num log em memória, em blocos de
+// 1 MB. A posição de um evento é o deslocamento em bytes desde o início do
+// fluxo, então a réplica retoma pedindo "a partir do byte X". Os blocos mais
+// antigos são descartados quando o log passa do limite de retenção; quem
+// pede uma posição que já saiu recebe o estado inteiro (estado()) e segue dali.
+//
+// Cada evento é [tamanho int][tipo byte][dados]; textos vão como [presente
+// boolean][tamanho int][UTF-8], sem o limite de 64 KB do writeUTF. Os pedidos não têm id, então
+// o fluxo dá um a cada pedido que entra e a réplica usa esse id para remover.
+// Inclusões levam a posição: o pedido vai com a ordem de chegada que tem na
+// primária e a mesa com o id da mesa seguinte na cadeia, então o que volta no
+// meio (desfazer) entra no mesmo lugar na réplica em vez de ir para o fim.
+// Posições só valem para o mesmo fluxo: cada instância tem um id aleatório,
+// e a réplica que traz posição de outro fluxo também recebe o estado inteiro.
+public class FluxoEventos {
+
+    static final byte PEDIDO_ADICIONADO = 1;
+    static final byte PEDIDO_REMOVIDO = 2;
+    static final byte PEDIDOS_RECARREGADOS = 3;
+    static final byte MESA_CRIADA = 4;
+    static final byte MESA_REMOVIDA = 5;
+    static final byte MESA_ALTERADA = 6;
+    static final byte MESAS_LIMPAS = 7;
+    // fora do log: só vai para a réplica que precisa recomeçar do zero
+    static final byte ESTADO = 8;
+    static final byte PEDIDO_ALTERADO = 9;
+
+    private static final int BLOCO = 1 << 20;
+
+    private final MotorPedidos pedidos;
+    private final MotorMesas mesas;
+    private final long limiteRetencao;
+    private final long id = new Random().nextLong() & Long.MAX_VALUE;
+
+    private final ArrayList<byte[]> blocos = new ArrayList<>();
+    private long inicio;
+    private long fim;
+
+    private final IdentityHashMap<Pedido, Long> ids = new IdentityHashMap<>();
+    private long proximoIdPedido = 1;
+    private final Codificador rascunhoPedidos = new Codificador();
+    private final Codificador rascunhoMesas = new Codificador();
+
+    public FluxoEventos(MotorPedidos pedidos, MotorMesas mesas) {
+        this(pedidos, mesas, 64L << 20);
+    }
+
+    public FluxoEventos(MotorPedidos pedidos, MotorMesas mesas, long limiteRetencao) {
+        this.pedidos = pedidos;
+        this.mesas = mesas;
+        this.limiteRetencao = Math.max(limiteRetencao, 2L * BLOCO);
+        synchronized (pedidos) {
+            for (Pedido p : pedidos.listarNaOrdemDeChegada()) ids.put(p, proximoIdPedido++);
+            pedidos.addOuvinte(new OuvintePedidos());
+        }
+        mesas.addOuvinte(new OuvinteMesas());
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    // Posição logo depois do último evento gravado.
+    public synchronized long getFim() {
+        return fim;
+    }
+
+    // Posição mais antiga que ainda pode ser lida.
+    public synchronized long getInicio() {
+        return inicio;
+    }
+
+    // Espera até haver bytes depois de posicao (ou o tempo acabar) e devolve o fim.
+    public synchronized long aguardar(long posicao, long timeoutMillis) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMillis;
+        while (fim <= posicao) {
+            long resta = limite - System.currentTimeMillis();
+            if (resta <= 0) break;
+            wait(resta);
+        }
+        return fim;
+    }
+
+    // Copia para destino os bytes a partir de posicao, até max; devolve quantos.
+    // -1 se a posição já saiu da retenção (ou nunca existiu).
+    public synchronized int ler(long posicao, byte[] destino, int max) {
+        if (posicao < inicio || posicao > fim) return -1;
+        int n = (int) Math.min(max, fim - posicao);
+        int copiados = 0;
+        while (copiados < n) {
+            long rel = posicao + copiados - inicio;
+            byte[] bloco = blocos.get((int) (rel / BLOCO));
+            int off = (int) (rel % BLOCO);
+            int k = Math.min(n - copiados, BLOCO - off);
+            System.arraycopy(bloco, off, destino, copiados, k);
+            copiados += k;
+        }
+        return n;
+    }
+
+    // Evento ESTADO com tudo que existe agora e a posição do log a partir da
+    // qual a réplica deve continuar. Os dois motores ficam travados enquanto
+    // o estado é lido, então nenhum evento escapa entre a foto e a posição.
+    public byte[] estado() {
+        synchronized (pedidos) {
+            synchronized (mesas) {
+                synchronized (this) {
+                    Codificador c = new Codificador();
+                    c.inicio(ESTADO);
+                    c.longo(id);
+                    c.longo(fim);
+                    c.byte_(pedidos.getVisao().ordinal());
+                    List<Pedido> lista = pedidos.listarNaOrdemDeChegada();
+                    c.inteiro(lista.size());
+                    for (Pedido p : lista) {
+                        c.longo(ids.get(p));
+                        c.longo(p.ordem);
+                        c.pedido(p);
+                    }
+                    Table[] todas = mesas.toArray();
+                    c.inteiro(todas.length);
+                    for (Table t : todas) c.mesa(t);
+                    c.inteiro(mesas.getProximoId());
+                    return Arrays.copyOf(c.fechar(), c.size());
+                }
+            }
+        }
+    }
+
+    private synchronized void gravar(Codificador c) {
+        byte[] dados = c.fechar();
+        int n = c.size();
+        int copiados = 0;
+        while (copiados < n) {
+            long rel = fim - inicio;
+            int b = (int) (rel / BLOCO);
+            if (b == blocos.size()) blocos.add(new byte[BLOCO]);
+            int off = (int) (rel % BLOCO);
+            int k = Math.min(n - copiados, BLOCO - off);
+            System.arraycopy(dados, copiados, blocos.get(b), off, k);
+            copiados += k;
+            fim += k;
+        }
+        while (fim - inicio > limiteRetencao) {
+            blocos.remove(0);
+            inicio += BLOCO;
+        }
+        notifyAll();
+    }
+
+    // Os avisos chegam com o lock do motor, na ordem das alterações.
+    private final class OuvintePedidos implements MotorPedidos.Ouvinte {
+        @Override
+        public void adicionado(Pedido p, int linha) {
+            long idPedido = proximoIdPedido++;
+            ids.put(p, idPedido);
+            Codificador c = rascunhoPedidos;
+            c.inicio(PEDIDO_ADICIONADO);
+            c.longo(idPedido);
+            c.longo(p.ordem);
+            c.pedido(p);
+            gravar(c);
+        }
+
+        @Override
+        public void removido(Pedido p, int linha) {
+            Long idPedido = ids.remove(p);
+            if (idPedido == null) return;
+            Codificador c = rascunhoPedidos;
+            c.inicio(PEDIDO_REMOVIDO);
+            c.longo(idPedido);
+            gravar(c);
+        }
+
+        @Override
+        public void alterado(Pedido p, int linha) {
+            Long idPedido = ids.get(p);
+            if (idPedido == null) return;
+            Codificador c = rascunhoPedidos;
+            c.inicio(PEDIDO_ALTERADO);
+            c.longo(idPedido);
+            c.inteiro(p.quantidade);
+            gravar(c);
+        }
+
+        @Override
+        public void recarregado() {
+            boolean vazio = pedidos.isEmpty();
+            if (vazio) ids.clear();
+            Codificador c = rascunhoPedidos;
+            c.inicio(PEDIDOS_RECARREGADOS);
+            c.byte_(pedidos.getVisao().ordinal());
+            c.booleano(vazio);
+            gravar(c);
+        }
+    }
+
+    private final class OuvinteMesas implements MotorMesas.Ouvinte {
+        @Override
+        public void criada(Table t, int linha) {
+            // o aviso vem com o lock do motor: a seguinte ainda é a da cadeia
+            Table seguinte = mesas.get(linha + 1);
+            Codificador c = rascunhoMesas;
+            c.inicio(MESA_CRIADA);
+            c.mesa(t);
+            c.inteiro(seguinte == null ? -1 : seguinte.id);
+            gravar(c);
+        }
+
+        @Override
+        public void removida(Table t, int linha) {
+            Codificador c = rascunhoMesas;
+            c.inicio(MESA_REMOVIDA);
+            c.inteiro(t.id);
+            gravar(c);
+        }
+
+        @Override
+        public void alterada(Table t, int linha) {
+            Codificador c = rascunhoMesas;
+            c.inicio(MESA_ALTERADA);
+            c.inteiro(t.id);
+            c.booleano(t.occupied);
+            c.texto(t.partyName);
+            gravar(c);
+        }
+
+        @Override
+        public void recarregado() {
+            Codificador c = rascunhoMesas;
+            c.inicio(MESAS_LIMPAS);
+            gravar(c);
+        }
+    }
+
+    // Monta um evento [tamanho][tipo][dados] sem alocar por evento.
+    static final class Codificador extends ByteArrayOutputStream {
+        private final DataOutputStream out = new DataOutputStream(this);
+
+        Codificador() {
+            super(256);
+        }
+
+        void inicio(byte tipo) {
+            reset();
+            inteiro(0);
+            byte_(tipo);
+        }
+
+        byte[] fechar() {
+            int n = count - 4;
+            buf[0] = (byte) (n >>> 24);
+            buf[1] = (byte) (n >>> 16);
+            buf[2] = (byte) (n >>> 8);
+            buf[3] = (byte) n;
+            return buf;
+        }
+
+        void byte_(int v) {
+            write(v);
+        }
+
+        void booleano(boolean v) {
+            write(v ? 1 : 0);
+        }
+
+        void inteiro(int v) {
+            try {
+                out.writeInt(v);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void longo(long v) {
+            try {
+                out.writeLong(v);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void texto(String s) {
+            try {
+                out.writeBoolean(s != null);
+                if (s != null) {
+                    byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(b.length);
+                    out.write(b);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void pedido(Pedido p) {
+            texto(p.item);
+            inteiro(p.quantidade);
+            longo(Double.doubleToLongBits(p.valor));
+        }
+
+        void mesa(Table t) {
+            inteiro(t.id);
+            inteiro(t.capacity);
+            booleano(t.occupied);
+            texto(t.partyName);
+        }
+    }
+}
@@ -0,0 +1,314 @@
+package lanchonetelistas;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.zip.CRC32C;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Foto binária das mesas e dos pedidos abertos, para abrir o sistema já com
+// o salão e os pedidos do jeito que estavam, sem reprocessar nada.
+//
+// Formato (big-endian), versão 2:
+//   cabeçalho: magic "LFOT", versão, tamanho do corpo (long), CRC32C do corpo
+//   textos:    n, e para cada um [bytes UTF-8 com o tamanho na frente]
+//   produtos:  n, e para cada um [texto do item][valor (double)]
+//   mesas:     próximo id, n, e para cada uma [id][capacidade][grupo+1 ou 0 se livre]
+//   pedidos:   visão, n, e para cada um [produto][quantidade], na ordem de chegada;
+//              na visão PRIORIDADE cada um leva ainda [chave][chegada] do heap
+// Inteiros vão em varint e nomes/preços repetidos viram índices, então um
+// pedido costuma ocupar 2 ou 3 bytes e uma mesa uns 4. A versão 1 não tinha
+// chave nem chegada: lida hoje, a PRIORIDADE volta com a chave padrão.
+//
+// gravar() monta tudo em memória sob os locks dos motores (pedidos e depois
+// mesas, a mesma ordem do FluxoEventos), grava num .tmp, sincroniza e troca
+// pelo arquivo final com ATOMIC_MOVE: quem lê vê a foto antiga ou a nova,
+// nunca uma pela metade. carregar() mapeia o arquivo (FileChannel.map) e lê
+// direto do mapeamento.
+public final class FotoEstado {
+
+    private static final int MAGIC = 0x4C464F54; // "LFOT"
+    private static final int VERSAO = 2;
+    private static final int CABECALHO = 20;
+    private static final GerenciadorPedidos.TipoEstrutura[] VISOES = GerenciadorPedidos.TipoEstrutura.values();
+
+    private FotoEstado() {
+    }
+
+    // ---- gravação ----
+
+    // item e preço de uma linha de pedido
+    private static final class Produto {
+        final int texto;
+        final double valor;
+
+        Produto(int texto, double valor) {
+            this.texto = texto;
+            this.valor = valor;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Produto p && p.texto == texto && Double.compare(p.valor, valor) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return texto * 31 + Double.hashCode(valor);
+        }
+    }
+
+    // Devolve o tamanho do arquivo gravado.
+    public static long gravar(Path arquivo, MotorPedidos pedidos, MotorMesas mesas) throws IOException {
+        Saida textos = new Saida(4 << 10);
+        Saida produtos = new Saida(1 << 10);
+        Saida corpo = new Saida(64 << 10);
+        HashMap<String, Integer> indiceTexto = new HashMap<>();
+        HashMap<Produto, Integer> indiceProduto = new HashMap<>();
+
+        synchronized (pedidos) {
+            synchronized (mesas) {
+                Table[] todas = mesas.toArray();
+                corpo.varint(mesas.getProximoId());
+                corpo.varint(todas.length);
+                for (Table t : todas) {
+                    corpo.varint(t.id);
+                    corpo.varint(t.capacity);
+                    corpo.varint(t.occupied ? texto(t.partyName, textos, indiceTexto) + 1 : 0);
+                }
+
+                List<Pedido> abertos = pedidos.listarNaOrdemDeChegada();
+                GerenciadorPedidos.TipoEstrutura visao = pedidos.getVisao();
+                HeapIndexado<Pedido> heap = visao == GerenciadorPedidos.TipoEstrutura.PRIORIDADE
+                        ? pedidos.getGerenciador().heapPrioridade()
+                        : null;
+                corpo.varint(visao.ordinal());
+                corpo.varint(abertos.size());
+                for (Pedido p : abertos) {
+                    Produto chave = new Produto(texto(p.item, textos, indiceTexto), p.valor);
+                    Integer indice = indiceProduto.get(chave);
+                    if (indice == null) {
+                        indice = indiceProduto.size();
+                        indiceProduto.put(chave, indice);
+                        produtos.varint(chave.texto);
+                        produtos.real(chave.valor);
+                    }
+                    corpo.varint(indice);
+                    corpo.zigzag(p.quantidade);
+                    if (heap != null) {
+                        synchronized (heap) {
+                            corpo.zigzag(heap.chave(p));
+                            corpo.varint(heap.sequenciaEm(heap.posicao(p)));
+                        }
+                    }
+                }
+            }
+        }
+
+        Saida inicio = new Saida(64);
+        inicio.varint(indiceTexto.size());
+        Saida meio = new Saida(16);
+        meio.varint(indiceProduto.size());
+        ByteBuffer[] partes = { null, inicio.buffer(), textos.buffer(), meio.buffer(), produtos.buffer(), corpo.buffer() };
+
+        CRC32C crc = new CRC32C();
+        long tamanho = 0;
+        for (int i = 1; i < partes.length; i++) {
+            tamanho += partes[i].remaining();
+            crc.update(partes[i].duplicate());
+        }
+        ByteBuffer cabecalho = ByteBuffer.allocate(CABECALHO);
+        cabecalho.putInt(MAGIC).putInt(VERSAO).putLong(tamanho).putInt((int) crc.getValue()).flip();
+        partes[0] = cabecalho;
+
+        Path tmp = arquivo.resolveSibling(arquivo.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (hasRemaining(partes)) ch.write(partes);
+            ch.force(true);
+        }
+        Files.move(tmp, arquivo, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return CABECALHO + tamanho;
+    }
+
+    private static int texto(String s, Saida textos, HashMap<String, Integer> indice) {
+        String chave = s == null ? "" : s;
+        Integer i = indice.get(chave);
+        if (i != null) return i;
+        i = indice.size();
+        indice.put(chave, i);
+        byte[] bytes = chave.getBytes(StandardCharsets.UTF_8);
+        textos.varint(bytes.length);
+        textos.bytes(bytes);
+        return i;
+    }
+
+    private static boolean hasRemaining(ByteBuffer[] partes) {
+        for (ByteBuffer b : partes) {
+            if (b.hasRemaining()) return true;
+        }
+        return false;
+    }
+
+    // byte[] que cresce, com varint
+    private static final class Saida {
+        private byte[] dados;
+        private int tamanho;
+
+        Saida(int inicial) {
+            dados = new byte[inicial];
+        }
+
+        void varint(long v) {
+            garantir(10);
+            while ((v & ~0x7FL) != 0) {
+                dados[tamanho++] = (byte) ((v & 0x7F) | 0x80);
+                v >>>= 7;
+            }
+            dados[tamanho++] = (byte) v;
+        }
+
+        void zigzag(long v) {
+            varint((v << 1) ^ (v >> 63));
+        }
+
+        void real(double v) {
+            garantir(8);
+            long bits = Double.doubleToRawLongBits(v);
+            for (int s = 56; s >= 0; s -= 8) dados[tamanho++] = (byte) (bits >>> s);
+        }
+
+        void bytes(byte[] b) {
+            garantir(b.length);
+            System.arraycopy(b, 0, dados, tamanho, b.length);
+            tamanho += b.length;
+        }
+
+        ByteBuffer buffer() {
+            return ByteBuffer.wrap(dados, 0, tamanho);
+        }
+
+        private void garantir(int n) {
+            if (tamanho + n > dados.length) dados = Arrays.copyOf(dados, Math.max(dados.length * 2, tamanho + n));
+        }
+    }
+
+    // ---- leitura ----
+
+    // Troca o conteúdo dos motores pelo da foto. Devolve quantos pedidos vieram.
+    public static int carregar(Path arquivo, MotorPedidos pedidos, MotorMesas mesas) throws IOException {
+        try (FileChannel ch = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            long tamanhoArquivo = ch.size();
+            if (tamanhoArquivo < CABECALHO) throw new IOException("Foto inválida: " + arquivo);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, tamanhoArquivo);
+            if (buf.getInt() != MAGIC) throw new IOException("Foto inválida: " + arquivo);
+            int versao = buf.getInt();
+            if (versao < 1 || versao > VERSAO) throw new IOException("Versão de foto não suportada: " + versao);
+            long tamanho = buf.getLong();
+            int crcGravado = buf.getInt();
+            if (tamanho != tamanhoArquivo - CABECALHO) throw new IOException("Foto incompleta: " + arquivo);
+            CRC32C crc = new CRC32C();
+            crc.update(buf.duplicate());
+            if ((int) crc.getValue() != crcGravado) throw new IOException("Foto corrompida: " + arquivo);
+            try {
+                return ler(buf, versao, pedidos, mesas);
+            } catch (RuntimeException e) {
+                // índice fora da faixa, varint cortado...
+                throw new IOException("Foto inválida: " + arquivo, e);
+            }
+        }
+    }
+
+    private static int ler(ByteBuffer buf, int versao, MotorPedidos pedidos, MotorMesas mesas) {
+        String[] textos = new String[(int) varint(buf)];
+        for (int i = 0; i < textos.length; i++) {
+            int n = (int) varint(buf);
+            if (buf.hasArray()) {
+                textos[i] = new String(buf.array(), buf.arrayOffset() + buf.position(), n, StandardCharsets.UTF_8);
+                buf.position(buf.position() + n);
+            } else {
+                byte[] b = new byte[n];
+                buf.get(b);
+                textos[i] = new String(b, StandardCharsets.UTF_8);
+            }
+        }
+
+        // um ItemCardapio por produto, resolvido uma vez só
+        Cardapio cardapio = Cardapio.padrao();
+        int nProdutos = (int) varint(buf);
+        String[] nomes = new String[nProdutos];
+        double[] valores = new double[nProdutos];
+        ItemCardapio[] itens = new ItemCardapio[nProdutos];
+        for (int i = 0; i < nProdutos; i++) {
+            nomes[i] = textos[(int) varint(buf)];
+            valores[i] = buf.getDouble();
+            ItemCardapio c = cardapio.porNome(nomes[i]);
+            if (c != null && c.getPreco() == valores[i]) itens[i] = c;
+        }
+
+        int proximoId = (int) varint(buf);
+        int nMesas = (int) varint(buf);
+        int[] ids = new int[nMesas];
+        int[] capacidades = new int[nMesas];
+        int[] grupos = new int[nMesas];
+        for (int i = 0; i < nMesas; i++) {
+            ids[i] = (int) varint(buf);
+            capacidades[i] = (int) varint(buf);
+            grupos[i] = (int) varint(buf);
+        }
+
+        GerenciadorPedidos.TipoEstrutura visao = VISOES[(int) varint(buf)];
+        int nPedidos = (int) varint(buf);
+        boolean comChave = versao >= 2 && visao == GerenciadorPedidos.TipoEstrutura.PRIORIDADE;
+        ArrayList<Pedido> lidos = new ArrayList<>(nPedidos);
+        long[] chaves = comChave ? new long[nPedidos] : null;
+        long[] chegadas = comChave ? new long[nPedidos] : null;
+        for (int i = 0; i < nPedidos; i++) {
+            int p = (int) varint(buf);
+            int quantidade = (int) zigzag(varint(buf));
+            lidos.add(itens[p] != null ? new Pedido(itens[p], quantidade) : new Pedido(nomes[p], quantidade, valores[p]));
+            if (comChave) {
+                chaves[i] = zigzag(varint(buf));
+                chegadas[i] = varint(buf);
+            }
+        }
+        if (buf.hasRemaining()) throw new IllegalStateException("Sobraram " + buf.remaining() + " bytes");
+
+        // tudo lido e validado: só agora mexe nos motores
+        synchronized (pedidos) {
+            synchronized (mesas) {
+                mesas.limpar();
+                for (int i = 0; i < nMesas; i++) {
+                    boolean ocupada = grupos[i] > 0;
+                    mesas.restaurarMesa(ids[i], capacidades[i], ocupada, ocupada ? textos[grupos[i] - 1] : "");
+                }
+                mesas.setProximoId(proximoId);
+                pedidos.limpar();
+                pedidos.setVisao(visao);
+                if (comChave) {
+                    for (int i = 0; i < nPedidos; i++) pedidos.restaurarPrioridade(lidos.get(i), chaves[i], chegadas[i]);
+                } else {
+                    pedidos.submeterLote(lidos);
+                }
+            }
+        }
+        return nPedidos;
+    }
+
+    private static long varint(ByteBuffer buf) {
+        long v = 0;
+        for (int s = 0; s < 64; s += 7) {
+            byte b = buf.get();
+            v |= (long) (b & 0x7F) << s;
+            if (b >= 0) return v;
+        }
+        throw new IllegalStateException("Varint longo demais");
+    }
+
+    private static long zigzag(long v) {
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
@@ -1,58 +1,651 @@
 package lanchonetelistas;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.ToLongFunction;
 
 public class GerenciadorPedidos {
 
     public enum TipoEstrutura {
-        LISTA, PILHA, FILA, LISTA_ENCADEADA
+        LISTA, PILHA, FILA, LISTA_ENCADEADA, PRIORIDADE
     }
 
-    private TipoEstrutura atual = TipoEstrutura.LISTA;
-    private List<Pedido> lista = new ArrayList<>();
-    private Stack<Pedido> pilha = new Stack<>();
-    private Queue<Pedido> fila = new LinkedList<>();
-    private LinkedList<Pedido> listaEncadeada = new LinkedList<>();
+    // Tempo de preparo (segundos) usado pela chave padrão da PRIORIDADE.
+    private static final Map<String, Long> TEMPO_DE_PREPARO = Map.of(
+            "Cachorro Quente", 300L,
+            "X-Burger", 480L,
+            "Batata-Frita", 360L,
+            "Guaraná", 30L,
+            "MilkShake", 180L);
+    private static final long PREPARO_PADRAO = 240L;
+
+    // Chave padrão: quem demora mais para ficar pronto sai primeiro.
+    public static final ToLongFunction<Pedido> MAIS_DEMORADO_PRIMEIRO = p -> -tempoDePreparo(p.item);
+
+    // Modo concorrente: vários caixas chamando adicionar/remover ao mesmo tempo, sem locks.
+    private final boolean concorrente;
+
+    private volatile TipoEstrutura atual = TipoEstrutura.LISTA;
+    // No modo normal as quatro estruturas dão fotos imutáveis em O(1) (getPedidos).
+    // A pilha empilha/desempilha pelo fim e a fila sai pelo início.
+    private SequenciaPersistente<Pedido> lista = new SequenciaPersistente<>();
+    private SequenciaPersistente<Pedido> pilha = new SequenciaPersistente<>();
+    private SequenciaPersistente<Pedido> fila = new SequenciaPersistente<>();
+    private SequenciaPersistente<Pedido> listaEncadeada = new SequenciaPersistente<>();
+
+    private ConcurrentLinkedDeque<Pedido> listaConcorrente;
+    private PilhaTreiber<Pedido> pilhaConcorrente;
+    private ConcurrentLinkedQueue<Pedido> filaConcorrente;
+    private ConcurrentLinkedDeque<Pedido> listaEncadeadaConcorrente;
+
+    // PRIORIDADE: menor chave sai primeiro. No modo concorrente é protegido pelo próprio heap.
+    private final HeapIndexado<Pedido> prioridade = new HeapIndexado<>();
+    private volatile ToLongFunction<Pedido> chavePrioridade = MAIS_DEMORADO_PRIMEIRO;
+
+    // Quando presente, toda alteração é gravada no diário junto com a operação.
+    private volatile DiarioPedidos diario;
+
+    // No modo normal cada pedido que entra ganha a próxima ordem de chegada
+    // (Pedido.getOrdem) e as sequências ficam sempre nessa ordem: lista e
+    // pilha crescem pelo fim, a fila sai pelo começo. Assim um pedido é achado
+    // por busca binária, sem percorrer nada, e volta ao mesmo lugar quando é
+    // reinserido. No heap a ordem de chegada desempata chaves iguais.
+    private long proximaOrdem;
+
+    public GerenciadorPedidos() {
+        this(false);
+    }
+
+    public GerenciadorPedidos(boolean concorrente) {
+        this.concorrente = concorrente;
+        if (concorrente) {
+            listaConcorrente = new ConcurrentLinkedDeque<>();
+            pilhaConcorrente = new PilhaTreiber<>();
+            filaConcorrente = new ConcurrentLinkedQueue<>();
+            listaEncadeadaConcorrente = new ConcurrentLinkedDeque<>();
+        }
+    }
+
+    public boolean isConcorrente() {
+        return concorrente;
+    }
+
+    public TipoEstrutura getEstrutura() {
+        return atual;
+    }
+
+    void setDiario(DiarioPedidos diario) {
+        this.diario = diario;
+    }
+
+    HeapIndexado<Pedido> heapPrioridade() {
+        return prioridade;
+    }
+
+    // Como adicionar(Pedido) calcula a chave no modo PRIORIDADE (ex.: prazo de entrega).
+    public void setChavePrioridade(ToLongFunction<Pedido> chave) {
+        this.chavePrioridade = chave;
+    }
+
+    public static long tempoDePreparo(String item) {
+        return TEMPO_DE_PREPARO.getOrDefault(item, PREPARO_PADRAO);
+    }
 
     public void setEstrutura(TipoEstrutura tipo) {
-        this.atual = tipo;
+        DiarioPedidos d = diario;
+        if (d == null) {
+            this.atual = tipo;
+            return;
+        }
+        synchronized (d) {
+            d.registrarEstrutura(tipo);
+            this.atual = tipo;
+        }
     }
 
     public void adicionar(Pedido p) {
-        switch(atual) {
-            case LISTA -> lista.add(p);
-            case PILHA -> pilha.push(p);
-            case FILA -> fila.add(p);
-            case LISTA_ENCADEADA -> listaEncadeada.add(p);
+        DiarioPedidos d = diario;
+        if (d == null) {
+            if (atual == TipoEstrutura.PRIORIDADE) {
+                adicionarComPrioridade(p, chavePrioridade.applyAsLong(p));
+                return;
+            }
+            long t0 = Metricas.inicio();
+            aplicarAdicionar(p);
+            Metricas.ADICIONAR.fim(t0);
+        } else {
+            // operação e registro juntos, para o diário ter a mesma ordem da
+            // estrutura; o registro vai antes, então se ele falhar a memória
+            // não fica à frente do log. A estrutura é lida com o lock, que é
+            // o mesmo do setEstrutura: uma troca no meio não faz um pedido da
+            // PRIORIDADE ser registrado como inclusão comum.
+            synchronized (d) {
+                if (atual == TipoEstrutura.PRIORIDADE) {
+                    adicionarComPrioridade(p, chavePrioridade.applyAsLong(p));
+                    return;
+                }
+                long t0 = Metricas.inicio();
+                d.registrarAdicionar(atual, p);
+                aplicarAdicionar(p);
+                Metricas.ADICIONAR.fim(t0);
+            }
         }
     }
 
     public void remover() {
+        retirar();
+    }
+
+    // Como remover(), mas devolve o pedido que saiu (null se estava vazio).
+    public Pedido retirar() {
+        long t0 = Metricas.inicio();
+        DiarioPedidos d = diario;
+        Pedido p;
+        if (d == null) {
+            p = aplicarRemover();
+        } else {
+            synchronized (d) {
+                TipoEstrutura tipo = atual;
+                d.registrarRemover(tipo);
+                p = aplicarRemover();
+            }
+        }
+        Metricas.REMOVER.fim(t0);
+        return p;
+    }
+
+    // Coloca o pedido na estrutura PRIORIDADE com a chave dada (menor sai antes),
+    // seja qual for a estrutura ativa.
+    public void adicionarComPrioridade(Pedido p, long chave) {
+        long t0 = Metricas.inicio();
+        DiarioPedidos d = diario;
+        if (d == null) {
+            synchronized (prioridade) {
+                colocarNoHeap(p, chave);
+            }
+        } else {
+            synchronized (d) {
+                synchronized (prioridade) {
+                    if (prioridade.contains(p)) throw new IllegalStateException("Elemento já está no heap");
+                    d.registrarAdicionarPrioridade(p, chave);
+                    colocarNoHeap(p, chave);
+                }
+            }
+        }
+        Metricas.ADICIONAR.fim(t0);
+    }
+
+    // Chamado com o lock do heap.
+    private void colocarNoHeap(Pedido p, long chave) {
+        if (concorrente) {
+            prioridade.add(p, chave);
+            return;
+        }
+        if (prioridade.contains(p)) throw new IllegalStateException("Elemento já está no heap");
+        p.ordem = proximaOrdem++;
+        prioridade.add(p, chave, p.ordem);
+    }
+
+    // Muda a chave de um pedido que está na PRIORIDADE. O(log n).
+    public boolean repriorizar(Pedido p, long chave) {
+        DiarioPedidos d = diario;
+        if (d == null) {
+            synchronized (prioridade) {
+                return prioridade.update(p, chave);
+            }
+        }
+        synchronized (d) {
+            synchronized (prioridade) {
+                int posicao = prioridade.posicao(p);
+                if (posicao < 0) return false;
+                d.registrarRepriorizar(posicao, chave);
+                prioridade.update(p, chave);
+            }
+            return true;
+        }
+    }
+
+    // Tira um pedido da PRIORIDADE antes da vez dele. O(log n).
+    public boolean cancelar(Pedido p) {
+        DiarioPedidos d = diario;
+        if (d == null) {
+            synchronized (prioridade) {
+                return prioridade.remove(p);
+            }
+        }
+        synchronized (d) {
+            synchronized (prioridade) {
+                int posicao = prioridade.posicao(p);
+                if (posicao < 0) return false;
+                d.registrarCancelar(posicao);
+                prioridade.remove(p);
+            }
+            return true;
+        }
+    }
+
+    // Próximo pedido da PRIORIDADE sem retirá-lo.
+    public Pedido proximoPorPrioridade() {
+        synchronized (prioridade) {
+            return prioridade.peek();
+        }
+    }
+
+    private void aplicarAdicionar(Pedido p) {
+        if (concorrente) {
+            adicionarConcorrente(atual, p);
+            return;
+        }
+        p.ordem = proximaOrdem++;
         switch(atual) {
-            case LISTA, LISTA_ENCADEADA -> {
-                if (!lista.isEmpty()) lista.remove(lista.size() - 1);
+            case PRIORIDADE -> prioridade.add(p, chavePrioridade.applyAsLong(p), p.ordem);
+            case LISTA -> lista.addLast(p);
+            case PILHA -> pilha.addLast(p);
+            case FILA -> fila.addLast(p);
+            case LISTA_ENCADEADA -> listaEncadeada.addLast(p);
+        }
+    }
+
+    private Pedido aplicarRemover() {
+        if (concorrente) {
+            return removerConcorrente();
+        }
+        switch(atual) {
+            case LISTA -> {
+                return lista.isEmpty() ? null : lista.removeLast();
+            }
+            case LISTA_ENCADEADA -> {
+                return listaEncadeada.isEmpty() ? null : listaEncadeada.removeLast();
             }
             case PILHA -> {
-                if (!pilha.isEmpty()) pilha.pop();
+                return pilha.isEmpty() ? null : pilha.removeLast();
             }
             case FILA -> {
-                if (!fila.isEmpty()) fila.remove();
+                return fila.isEmpty() ? null : fila.removeFirst();
+            }
+            case PRIORIDADE -> {
+                return prioridade.poll();
             }
         }
+        return null;
     }
 
     public List<Pedido> getPedidos() {
+        long t0 = Metricas.inicio();
+        List<Pedido> pedidos = getPedidos(atual);
+        Metricas.GET_PEDIDOS.fim(t0);
+        return pedidos;
+    }
+
+    // No modo normal devolve uma foto imutável em O(1), sem copiar nada; ela
+    // continua valendo enquanto o gerenciador recebe novas alterações.
+    // No modo concorrente devolve uma cópia. PRIORIDADE sempre devolve uma
+    // cópia na ordem em que os pedidos vão sair (O(n log n)).
+    public List<Pedido> getPedidos(TipoEstrutura tipo) {
+        if (tipo == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                return prioridade.toListOrdenada();
+            }
+        }
+        if (concorrente) {
+            return getPedidosConcorrente(tipo);
+        }
+        DiarioPedidos d = diario;
+        if (d == null) return sequencia(tipo).snapshot();
+        // o diário também tira fotos, na thread dele
+        synchronized (d) {
+            return sequencia(tipo).snapshot();
+        }
+    }
+
+    // ---- pedido a pedido (só no modo normal) ----
+
+    public int tamanho() {
+        if (atual == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                return prioridade.size();
+            }
+        }
+        if (concorrente) return getPedidosConcorrente(atual).size();
+        return sequencia(atual).size();
+    }
+
+    public boolean contem(Pedido p) {
+        exigirModoNormal();
+        return posicaoNaAtiva(p) >= 0;
+    }
+
+    // Posição do pedido na ordem de chegada da estrutura ativa, ou -1 se não
+    // está nela. Na PRIORIDADE a posição depende das chaves: sempre -1.
+    public int indiceDe(Pedido p) {
+        exigirModoNormal();
+        return atual == TipoEstrutura.PRIORIDADE ? -1 : indice(sequencia(atual), p);
+    }
+
+    // Tira um pedido qualquer da estrutura ativa: O(log n) para achar e
+    // O(min(i, n - i)) para fechar o buraco; na PRIORIDADE, O(log n).
+    // Não é O(1) como na antiga lista ligada (LivroPedidos): as sequências
+    // são blocos contíguos para que getPedidos dê fotos imutáveis em O(1) e a
+    // linha de um pedido saia por índice. O deslocamento copia no máximo
+    // n / 2 referências, sem alocar.
+    public boolean remover(Pedido p) {
+        exigirModoNormal();
+        if (atual == TipoEstrutura.PRIORIDADE) return cancelar(p);
+        long t0 = Metricas.inicio();
+        DiarioPedidos d = diario;
+        if (d == null) {
+            int i = indice(sequencia(atual), p);
+            if (i < 0) return false;
+            sequencia(atual).remove(i);
+        } else {
+            synchronized (d) {
+                int i = indice(sequencia(atual), p);
+                if (i < 0) return false;
+                d.registrarRemoverPedido(atual, i);
+                sequencia(atual).remove(i);
+            }
+        }
+        Metricas.REMOVER.fim(t0);
+        return true;
+    }
+
+    // Devolve à estrutura ativa um pedido que saiu, com a mesma ordem de
+    // chegada e portanto no lugar que tinha: O(log n + n - i).
+    public void reinserir(Pedido p) {
+        exigirModoNormal();
+        TipoEstrutura tipo = atual;
+        long chave = tipo == TipoEstrutura.PRIORIDADE ? chavePrioridade.applyAsLong(p) : 0;
+        DiarioPedidos d = diario;
+        if (d == null) {
+            if (contem(p)) throw new IllegalStateException("Pedido já está aberto");
+            aplicarReinserir(tipo, p, chave);
+            return;
+        }
+        synchronized (d) {
+            if (contem(p)) throw new IllegalStateException("Pedido já está aberto");
+            d.registrarReinserir(tipo, p, chave);
+            aplicarReinserir(tipo, p, chave);
+        }
+    }
+
+    public boolean alterarQuantidade(Pedido p, int quantidade) {
+        exigirModoNormal();
+        DiarioPedidos d = diario;
+        if (d == null) {
+            if (posicaoNaAtiva(p) < 0) return false;
+            p.quantidade = quantidade;
+            return true;
+        }
+        synchronized (d) {
+            int posicao = posicaoNaAtiva(p);
+            if (posicao < 0) return false;
+            d.registrarQuantidade(atual, posicao, quantidade);
+            p.quantidade = quantidade;
+            return true;
+        }
+    }
+
+    // Passa os pedidos da estrutura ativa para tipo, que vira a ativa. Entre
+    // sequências só as referências trocam (O(1)); de ou para a PRIORIDADE o
+    // conteúdo é refeito em O(n log n), com a chave de prioridade atual.
+    public void trocarEstrutura(TipoEstrutura tipo) {
+        exigirModoNormal();
+        DiarioPedidos d = diario;
+        if (d == null) {
+            aplicarTroca(tipo);
+            return;
+        }
+        synchronized (d) {
+            d.registrarTroca(atual, tipo);
+            aplicarTroca(tipo);
+        }
+    }
+
+    // Esvazia todas as estruturas; a ordem de chegada continua de onde estava.
+    public void limpar() {
+        exigirModoNormal();
+        DiarioPedidos d = diario;
+        if (d == null) {
+            aplicarLimpar();
+            return;
+        }
+        synchronized (d) {
+            d.registrarLimpar();
+            aplicarLimpar();
+        }
+    }
+
+    // ---- usados pelo diário na recuperação (não registram) ----
+
+    long getProximaOrdem() {
+        return proximaOrdem;
+    }
+
+    void setProximaOrdem(long ordem) {
+        proximaOrdem = ordem;
+    }
+
+    // Coloca no fim da sequência (ou no heap, com chave e sequência) mantendo
+    // p.ordem; no modo concorrente, na estrutura concorrente do tipo.
+    void restaurar(TipoEstrutura tipo, Pedido p, long chave, long sequencia) {
+        if (tipo == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                prioridade.add(p, chave, sequencia);
+            }
+        } else if (concorrente) {
+            adicionarConcorrente(tipo, p);
+        } else {
+            sequencia(tipo).addLast(p);
+        }
+        proximaOrdem = Math.max(proximaOrdem, p.ordem + 1);
+    }
+
+    // Coloca na PRIORIDADE com a chave e a chegada que o pedido tinha (foto
+    // do estado), então ele sai na mesma vez. A chegada vira p.ordem; com
+    // diário, vai como reinserção, que guarda as duas.
+    void restaurarPrioridade(Pedido p, long chave, long sequencia) {
+        p.ordem = sequencia;
+        DiarioPedidos d = diario;
+        if (d == null) {
+            restaurar(TipoEstrutura.PRIORIDADE, p, chave, sequencia);
+            return;
+        }
+        synchronized (d) {
+            synchronized (prioridade) {
+                if (prioridade.contains(p)) throw new IllegalStateException("Elemento já está no heap");
+                d.registrarReinserir(TipoEstrutura.PRIORIDADE, p, chave);
+                restaurar(TipoEstrutura.PRIORIDADE, p, chave, sequencia);
+            }
+        }
+    }
+
+    void removerEm(TipoEstrutura tipo, int indice) {
+        sequencia(tipo).remove(indice);
+    }
+
+    // Posição na sequência, ou no array do heap na PRIORIDADE.
+    Pedido elementoEm(TipoEstrutura tipo, int posicao) {
+        if (tipo == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                return prioridade.elemento(posicao);
+            }
+        }
+        return sequencia(tipo).get(posicao);
+    }
+
+    void aplicarReinserir(TipoEstrutura tipo, Pedido p, long chave) {
+        if (tipo == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                prioridade.add(p, chave, p.ordem);
+            }
+        } else {
+            SequenciaPersistente<Pedido> s = sequencia(tipo);
+            int i = lugar(s, p.ordem);
+            if (i < s.size() && s.get(i).ordem == p.ordem) {
+                throw new IllegalStateException("Já há um pedido com a ordem " + p.ordem);
+            }
+            s.add(i, p);
+        }
+        proximaOrdem = Math.max(proximaOrdem, p.ordem + 1);
+    }
+
+    private void aplicarTroca(TipoEstrutura tipo) {
+        TipoEstrutura de = atual;
+        if (tipo == de) return;
+        if (de != TipoEstrutura.PRIORIDADE && tipo != TipoEstrutura.PRIORIDADE && sequencia(tipo).isEmpty()) {
+            SequenciaPersistente<Pedido> s = sequencia(de);
+            trocarSequencia(de, sequencia(tipo));
+            trocarSequencia(tipo, s);
+        } else {
+            // o destino pode já ter pedidos (setEstrutura sem troca): junta pela chegada
+            ArrayList<Pedido> todos = new ArrayList<>();
+            esvaziar(de, todos);
+            esvaziar(tipo, todos);
+            todos.sort(Comparator.comparingLong(Pedido::getOrdem));
+            if (tipo == TipoEstrutura.PRIORIDADE) {
+                synchronized (prioridade) {
+                    for (Pedido p : todos) prioridade.add(p, chavePrioridade.applyAsLong(p), p.ordem);
+                }
+            } else {
+                SequenciaPersistente<Pedido> s = sequencia(tipo);
+                for (Pedido p : todos) s.addLast(p);
+            }
+        }
+        atual = tipo;
+    }
+
+    private void esvaziar(TipoEstrutura tipo, List<Pedido> destino) {
+        if (tipo == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                for (int i = 0; i < prioridade.size(); i++) destino.add(prioridade.elemento(i));
+                prioridade.clear();
+            }
+            return;
+        }
+        SequenciaPersistente<Pedido> s = sequencia(tipo);
+        for (int i = 0; i < s.size(); i++) destino.add(s.get(i));
+        trocarSequencia(tipo, new SequenciaPersistente<>());
+    }
+
+    private void aplicarLimpar() {
+        lista = new SequenciaPersistente<>();
+        pilha = new SequenciaPersistente<>();
+        fila = new SequenciaPersistente<>();
+        listaEncadeada = new SequenciaPersistente<>();
+        synchronized (prioridade) {
+            prioridade.clear();
+        }
+    }
+
+    private int posicaoNaAtiva(Pedido p) {
+        if (atual == TipoEstrutura.PRIORIDADE) {
+            synchronized (prioridade) {
+                return prioridade.posicao(p);
+            }
+        }
+        return indice(sequencia(atual), p);
+    }
+
+    // Primeira posição com ordem >= a dada: onde o pedido com essa ordem
+    // está, ou entraria.
+    private static int lugar(SequenciaPersistente<Pedido> s, long ordem) {
+        int lo = 0;
+        int hi = s.size();
+        while (lo < hi) {
+            int m = (lo + hi) >>> 1;
+            if (s.get(m).ordem < ordem) lo = m + 1;
+            else hi = m;
+        }
+        return lo;
+    }
+
+    private static int indice(SequenciaPersistente<Pedido> s, Pedido p) {
+        int i = lugar(s, p.ordem);
+        return i < s.size() && s.get(i) == p ? i : -1;
+    }
+
+    private SequenciaPersistente<Pedido> sequencia(TipoEstrutura tipo) {
+        switch(tipo) {
+            case LISTA -> {
+                return lista;
+            }
+            case PILHA -> {
+                return pilha;
+            }
+            case FILA -> {
+                return fila;
+            }
+            case LISTA_ENCADEADA -> {
+                return listaEncadeada;
+            }
+        }
+        throw new IllegalArgumentException("Não é uma sequência: " + tipo);
+    }
+
+    private void trocarSequencia(TipoEstrutura tipo, SequenciaPersistente<Pedido> s) {
+        switch(tipo) {
+            case LISTA -> lista = s;
+            case PILHA -> pilha = s;
+            case FILA -> fila = s;
+            case LISTA_ENCADEADA -> listaEncadeada = s;
+            default -> throw new IllegalArgumentException("Não é uma sequência: " + tipo);
+        }
+    }
+
+    private void exigirModoNormal() {
+        if (concorrente) throw new UnsupportedOperationException("Operação só existe no modo normal");
+    }
+
+    private void adicionarConcorrente(TipoEstrutura tipo, Pedido p) {
+        switch(tipo) {
+            case LISTA -> listaConcorrente.addLast(p);
+            case PILHA -> pilhaConcorrente.push(p);
+            case FILA -> filaConcorrente.offer(p);
+            case LISTA_ENCADEADA -> listaEncadeadaConcorrente.addLast(p);
+            case PRIORIDADE -> {
+                synchronized (prioridade) {
+                    prioridade.add(p, chavePrioridade.applyAsLong(p));
+                }
+            }
+        }
+    }
+
+    private Pedido removerConcorrente() {
         switch(atual) {
             case LISTA -> {
-                return new ArrayList<>(lista);
+                return listaConcorrente.pollLast();
             }
             case PILHA -> {
-                return new ArrayList<>(pilha);
+                return pilhaConcorrente.pop();
             }
             case FILA -> {
-                return new ArrayList<>(fila);
+                return filaConcorrente.poll();
             }
             case LISTA_ENCADEADA -> {
-                return new ArrayList<>(listaEncadeada);
+                return listaEncadeadaConcorrente.pollLast();
+            }
+            case PRIORIDADE -> {
+                synchronized (prioridade) {
+                    return prioridade.poll();
+                }
+            }
+        }
+        return null;
+    }
+
+    private List<Pedido> getPedidosConcorrente(TipoEstrutura tipo) {
+        switch(tipo) {
+            case LISTA -> {
+                return new ArrayList<>(listaConcorrente);
+            }
+            case PILHA -> {
+                return pilhaConcorrente.toList();
+            }
+            case FILA -> {
+                return new ArrayList<>(filaConcorrente);
+            }
+            case LISTA_ENCADEADA -> {
+                return new ArrayList<>(listaEncadeadaConcorrente);
             }
         }
         return null;
@@ -72,8 +665,10 @@ public class GerenciadorPedidos {
             case LISTA_ENCADEADA -> {
                 return "Lista Encadeada";
             }
+            case PRIORIDADE -> {
+                return "Prioridade";
+            }
         }
         return "";
     }
 }
-
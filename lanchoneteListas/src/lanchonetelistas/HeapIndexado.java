@@ -0,0 +1,191 @@
+package lanchonetelistas;
+import java.util.*;
+
+// Heap d-ário (d = 4) de mínimo, com índice elemento -> posição, para que
+// inserir, tirar o mínimo, mudar a prioridade e cancelar sejam O(log n).
+// Menor chave sai primeiro; em empate, quem entrou antes (cada elemento leva
+// um número de chegada, comparado depois da chave). Elementos são comparados
+// por identidade e não podem se repetir.
+public class HeapIndexado<E> {
+
+    private static final int D = 4;
+
+    private Object[] elementos = new Object[16];
+    private long[] chaves = new long[16];
+    // ordem de chegada, para desempatar chaves iguais
+    private long[] sequencias = new long[16];
+    private long proximaSequencia;
+    private final IdentityHashMap<E, Integer> posicoes = new IdentityHashMap<>();
+    private int tamanho;
+
+    public int size() {
+        return tamanho;
+    }
+
+    public boolean isEmpty() {
+        return tamanho == 0;
+    }
+
+    public boolean contains(E e) {
+        return posicoes.containsKey(e);
+    }
+
+    public void add(E e, long chave) {
+        add(e, chave, proximaSequencia);
+    }
+
+    // Com o número de chegada dado (restauração do diário, na ordem do array).
+    void add(E e, long chave, long sequencia) {
+        if (posicoes.containsKey(e)) throw new IllegalStateException("Elemento já está no heap");
+        if (tamanho == elementos.length) {
+            elementos = Arrays.copyOf(elementos, tamanho * 2);
+            chaves = Arrays.copyOf(chaves, tamanho * 2);
+            sequencias = Arrays.copyOf(sequencias, tamanho * 2);
+        }
+        proximaSequencia = Math.max(proximaSequencia, sequencia + 1);
+        colocar(tamanho, e, chave, sequencia);
+        subir(tamanho++);
+    }
+
+    public E peek() {
+        return tamanho == 0 ? null : el(0);
+    }
+
+    public E poll() {
+        if (tamanho == 0) return null;
+        E topo = el(0);
+        removerEm(0);
+        return topo;
+    }
+
+    // Troca a chave de um elemento já presente.
+    public boolean update(E e, long chave) {
+        Integer i = posicoes.get(e);
+        if (i == null) return false;
+        long antiga = chaves[i];
+        chaves[i] = chave;
+        // a chegada não muda: entre chaves iguais continua valendo quem veio antes
+        if (chave < antiga) subir(i);
+        else descer(i);
+        return true;
+    }
+
+    public boolean remove(E e) {
+        Integer i = posicoes.get(e);
+        if (i == null) return false;
+        removerEm(i);
+        return true;
+    }
+
+    // -1 se o elemento não está no heap.
+    public int posicao(E e) {
+        Integer i = posicoes.get(e);
+        return i == null ? -1 : i;
+    }
+
+    public long chave(E e) {
+        Integer i = posicoes.get(e);
+        if (i == null) throw new NoSuchElementException();
+        return chaves[i];
+    }
+
+    // Acesso pela posição no array do heap (usado pelo diário).
+    @SuppressWarnings("unchecked")
+    public E elemento(int posicao) {
+        Objects.checkIndex(posicao, tamanho);
+        return (E) elementos[posicao];
+    }
+
+    public long chaveEm(int posicao) {
+        Objects.checkIndex(posicao, tamanho);
+        return chaves[posicao];
+    }
+
+    long sequenciaEm(int posicao) {
+        Objects.checkIndex(posicao, tamanho);
+        return sequencias[posicao];
+    }
+
+    // Cópia na ordem em que os elementos vão sair: O(n log n).
+    public List<E> toListOrdenada() {
+        Integer[] ordem = new Integer[tamanho];
+        for (int i = 0; i < tamanho; i++) ordem[i] = i;
+        Arrays.sort(ordem, (a, b) -> antes(a, b) ? -1 : antes(b, a) ? 1 : 0);
+        ArrayList<E> lista = new ArrayList<>(tamanho);
+        for (Integer i : ordem) lista.add(el(i));
+        return lista;
+    }
+
+    public void clear() {
+        Arrays.fill(elementos, 0, tamanho, null);
+        posicoes.clear();
+        tamanho = 0;
+    }
+
+    private void removerEm(int i) {
+        E e = el(i);
+        posicoes.remove(e);
+        int ultimo = --tamanho;
+        if (i != ultimo) {
+            colocar(i, el(ultimo), chaves[ultimo], sequencias[ultimo]);
+            elementos[ultimo] = null;
+            subir(i);
+            descer(i);
+        } else {
+            elementos[ultimo] = null;
+        }
+    }
+
+    private void subir(int i) {
+        E e = el(i);
+        long chave = chaves[i];
+        long sequencia = sequencias[i];
+        while (i > 0) {
+            int pai = (i - 1) / D;
+            if (!antes(chave, sequencia, chaves[pai], sequencias[pai])) break;
+            colocar(i, el(pai), chaves[pai], sequencias[pai]);
+            i = pai;
+        }
+        colocar(i, e, chave, sequencia);
+    }
+
+    private void descer(int i) {
+        E e = el(i);
+        long chave = chaves[i];
+        long sequencia = sequencias[i];
+        while (true) {
+            int primeiro = i * D + 1;
+            if (primeiro >= tamanho) break;
+            int menor = primeiro;
+            int limite = Math.min(primeiro + D, tamanho);
+            for (int f = primeiro + 1; f < limite; f++) {
+                if (antes(f, menor)) menor = f;
+            }
+            if (!antes(chaves[menor], sequencias[menor], chave, sequencia)) break;
+            colocar(i, el(menor), chaves[menor], sequencias[menor]);
+            i = menor;
+        }
+        colocar(i, e, chave, sequencia);
+    }
+
+    // (chave, chegada) da posição a vem antes da de b
+    private boolean antes(int a, int b) {
+        return antes(chaves[a], sequencias[a], chaves[b], sequencias[b]);
+    }
+
+    private static boolean antes(long chaveA, long seqA, long chaveB, long seqB) {
+        return chaveA < chaveB || (chaveA == chaveB && seqA < seqB);
+    }
+
+    @SuppressWarnings("unchecked")
+    private E el(int i) {
+        return (E) elementos[i];
+    }
+
+    private void colocar(int i, E e, long chave, long sequencia) {
+        elementos[i] = e;
+        chaves[i] = chave;
+        sequencias[i] = sequencia;
+        posicoes.put(e, i);
+    }
+}
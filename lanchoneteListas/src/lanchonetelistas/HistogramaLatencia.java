@@ -0,0 +1,120 @@
+package lanchonetelistas;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Histograma de latências em nanos no estilo HDR: cada potência de 2 é
+// dividida em 16 baldes, o que dá erro máximo de ~6% em qualquer faixa.
+// registrar() só incrementa contadores pré-alocados, sem alocar nada.
+//
+// Os contadores são divididos em faixas por thread (o dobro de núcleos,
+// criadas no primeiro uso): cada produtor do modo concorrente escreve na sua
+// faixa e eles não disputam as mesmas linhas de cache. As leituras somam as
+// faixas (e pegam o maior máximo), então custam mais que o registro.
+public class HistogramaLatencia {
+
+    private static final int SUB = 16;
+    private static final int BITS_SUB = 4;
+    private static final int BALDES = SUB * 64;
+    // depois dos baldes, na mesma faixa
+    private static final int CONTAGEM = BALDES;
+    private static final int SOMA = BALDES + 1;
+    private static final int MAXIMO = BALDES + 2;
+    private static final int FAIXAS = Math.min(64, Integer.highestOneBit(Runtime.getRuntime().availableProcessors()) * 2);
+
+    private final AtomicReferenceArray<AtomicLongArray> faixas = new AtomicReferenceArray<>(FAIXAS);
+
+    public void registrar(long nanos) {
+        if (nanos < 0) nanos = 0;
+        AtomicLongArray f = faixa();
+        f.incrementAndGet(indice(nanos));
+        f.incrementAndGet(CONTAGEM);
+        f.addAndGet(SOMA, nanos);
+        long m = f.get(MAXIMO);
+        while (nanos > m && !f.compareAndSet(MAXIMO, m, nanos)) m = f.get(MAXIMO);
+    }
+
+    public long getContagem() {
+        return somar(CONTAGEM);
+    }
+
+    public long getMaximo() {
+        long m = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            AtomicLongArray f = faixas.get(i);
+            if (f != null) m = Math.max(m, f.get(MAXIMO));
+        }
+        return m;
+    }
+
+    public double getMedia() {
+        long n = getContagem();
+        return n == 0 ? 0 : (double) somar(SOMA) / n;
+    }
+
+    // Limite superior do balde onde cai o percentil p (0 a 100).
+    public long percentil(double p) {
+        long[] baldes = new long[BALDES];
+        long total = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            AtomicLongArray f = faixas.get(i);
+            if (f == null) continue;
+            for (int b = 0; b < BALDES; b++) {
+                long n = f.get(b);
+                baldes[b] += n;
+                total += n;
+            }
+        }
+        long maximo = getMaximo();
+        if (total == 0) return 0;
+        long alvo = Math.max(1, (long) Math.ceil(total * p / 100.0));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += baldes[i];
+            if (acumulado >= alvo) return Math.min(limiteSuperior(i), maximo);
+        }
+        return maximo;
+    }
+
+    public void zerar() {
+        for (int i = 0; i < FAIXAS; i++) {
+            AtomicLongArray f = faixas.get(i);
+            if (f == null) continue;
+            for (int b = 0; b < f.length(); b++) f.set(b, 0);
+        }
+    }
+
+    private AtomicLongArray faixa() {
+        // espalha ids seguidos pelas faixas
+        int i = (int) ((Thread.currentThread().threadId() * 0x9E3779B97F4A7C15L) >>> 32) & (FAIXAS - 1);
+        AtomicLongArray f = faixas.get(i);
+        if (f == null) {
+            faixas.compareAndSet(i, null, new AtomicLongArray(BALDES + 3));
+            f = faixas.get(i);
+        }
+        return f;
+    }
+
+    private long somar(int posicao) {
+        long s = 0;
+        for (int i = 0; i < FAIXAS; i++) {
+            AtomicLongArray f = faixas.get(i);
+            if (f != null) s += f.get(posicao);
+        }
+        return s;
+    }
+
+    private static int indice(long v) {
+        if (v < SUB) return (int) v;
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int deslocamento = msb - BITS_SUB;
+        int sub = (int) (v >>> deslocamento) & (SUB - 1);
+        return (deslocamento + 1) * SUB + sub;
+    }
+
+    private static long limiteSuperior(int i) {
+        if (i < SUB) return i;
+        int deslocamento = i / SUB - 1;
+        long inferior = (long) (SUB + i % SUB) << deslocamento;
+        return inferior + (1L << deslocamento) - 1;
+    }
+}
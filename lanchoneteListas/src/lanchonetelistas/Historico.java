@@ -0,0 +1,362 @@
+package lanchonetelistas;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Desfazer/refazer para pedidos e mesas.
+//
+// O historico acompanha os motores pelos Ouvintes e guarda o estado em
+// MapaPersistente: pedidos pela ordem de chegada e mesas pela posição na
+// cadeia. Cada mudança gera uma versão nova em O(log n), compartilhando com a
+// anterior tudo o que não mudou; nunca se copiam lista/pilha/fila nem a cadeia
+// de Node. As versões ficam num anel de tamanho fixo (as mais antigas caem).
+//
+// Desfazer e refazer só andam uma posição no anel e levam o motor da versão
+// atual para a vizinha, mexendo apenas na chave que aquela ação mudou. Um
+// "Limpar" desfeito recoloca os pedidos/mesas que a versão anterior guardava.
+//
+// Use um historico por tela: o da tela de pedidos não deve desfazer mesas.
+public class Historico {
+
+    public static final int LIMITE_PADRAO = 100;
+
+    private enum Acao {
+        INICIAL, PEDIDO, PEDIDOS_LIMPOS, MESA, MESAS_LIMPAS
+    }
+
+    // um pedido como estava na versão (a quantidade pode mudar depois)
+    private static final class Linha {
+        final Pedido pedido;
+        final int quantidade;
+
+        Linha(Pedido pedido) {
+            this.pedido = pedido;
+            this.quantidade = pedido.quantidade;
+        }
+    }
+
+    // Table é mutável; a versão guarda uma cópia do que importa
+    private static final class MesaSalva {
+        final int id;
+        final int capacidade;
+        final boolean ocupada;
+        final String nome;
+
+        MesaSalva(Table t) {
+            this.id = t.id;
+            this.capacidade = t.capacity;
+            this.ocupada = t.occupied;
+            this.nome = t.partyName;
+        }
+    }
+
+    private static final class Versao {
+        final MapaPersistente<Linha> pedidos;
+        final MapaPersistente<MesaSalva> mesas;
+        final MapaPersistente<Long> posicaoPorId;
+        final int proximoIdMesa;
+        // ação que levou da versão anterior a esta, e a chave que ela mudou
+        final Acao acao;
+        final long chave;
+
+        Versao(Historico h, Acao acao, long chave) {
+            this.pedidos = h.pedidosAtual;
+            this.mesas = h.mesasAtual;
+            this.posicaoPorId = h.posicaoPorIdAtual;
+            this.proximoIdMesa = h.proximoIdMesa;
+            this.acao = acao;
+            this.chave = chave;
+        }
+    }
+
+    private final MotorPedidos pedidos;
+    private final MotorMesas mesas;
+    private final Versao[] versoes;
+    // versões válidas: [inicio, fim]; atual entre elas
+    private long inicio;
+    private long atual;
+    private long fim;
+
+    // estado que os motores têm agora
+    private MapaPersistente<Linha> pedidosAtual = MapaPersistente.vazio();
+    private MapaPersistente<MesaSalva> mesasAtual = MapaPersistente.vazio();
+    private MapaPersistente<Long> posicaoPorIdAtual = MapaPersistente.vazio();
+    private long proximaPosicao;
+    // o limpar da TableList volta os ids para 1; desfazer precisa do anterior
+    private int proximoIdMesa = 1;
+
+    // enquanto desfaz/refaz, os avisos atualizam o estado mas não viram versão
+    private boolean aplicando;
+    private long posicaoRestaurada = -1;
+
+    public Historico(MotorPedidos pedidos) {
+        this(pedidos, null, LIMITE_PADRAO);
+    }
+
+    public Historico(MotorMesas mesas) {
+        this(null, mesas, LIMITE_PADRAO);
+    }
+
+    // limite: quantas ações podem ser desfeitas
+    public Historico(MotorPedidos pedidos, MotorMesas mesas, int limite) {
+        if (limite < 1) throw new IllegalArgumentException("Limite inválido: " + limite);
+        this.pedidos = pedidos;
+        this.mesas = mesas;
+        this.versoes = new Versao[limite + 1];
+        synchronized (lockPedidos()) {
+            synchronized (lockMesas()) {
+                synchronized (this) {
+                    if (pedidos != null) {
+                        for (Pedido p : pedidos.listarNaOrdemDeChegada()) pedidosAtual = pedidosAtual.com(p.ordem, new Linha(p));
+                        pedidos.addOuvinte(new OuvintePedidos());
+                    }
+                    if (mesas != null) {
+                        for (Table t : mesas.toArray()) incluirMesa(t, proximaPosicao++);
+                        proximoIdMesa = mesas.getProximoId();
+                        mesas.addOuvinte(new OuvinteMesas());
+                    }
+                    versoes[0] = new Versao(this, Acao.INICIAL, 0);
+                }
+            }
+        }
+    }
+
+    public synchronized boolean podeDesfazer() {
+        return atual > inicio;
+    }
+
+    public synchronized boolean podeRefazer() {
+        return atual < fim;
+    }
+
+    // Ações que ainda dá para desfazer.
+    public synchronized int getDesfazeres() {
+        return (int) (atual - inicio);
+    }
+
+    public boolean desfazer() {
+        synchronized (lockPedidos()) {
+            synchronized (lockMesas()) {
+                synchronized (this) {
+                    if (atual == inicio) return false;
+                    Versao desfeita = versao(atual);
+                    Versao alvo = versao(atual - 1);
+                    aplicar(desfeita.acao, desfeita.chave, alvo);
+                    atual--;
+                    // guarda o que os motores ficaram de fato (ex.: a lista de
+                    // espera pode ter sentado alguém numa mesa que voltou)
+                    versoes[slot(atual)] = new Versao(this, alvo.acao, alvo.chave);
+                    return true;
+                }
+            }
+        }
+    }
+
+    public boolean refazer() {
+        synchronized (lockPedidos()) {
+            synchronized (lockMesas()) {
+                synchronized (this) {
+                    if (atual == fim) return false;
+                    Versao alvo = versao(atual + 1);
+                    aplicar(alvo.acao, alvo.chave, alvo);
+                    atual++;
+                    versoes[slot(atual)] = new Versao(this, alvo.acao, alvo.chave);
+                    return true;
+                }
+            }
+        }
+    }
+
+    // Esquece o que havia para desfazer e refazer.
+    public synchronized void esquecer() {
+        versoes[slot(atual)] = new Versao(this, Acao.INICIAL, 0);
+        inicio = atual;
+        fim = atual;
+    }
+
+    // ---- aplicar uma versão ----
+
+    // Leva os motores do estado atual ao do alvo, só no que a ação mudou.
+    private void aplicar(Acao acao, long chave, Versao alvo) {
+        aplicando = true;
+        try {
+            switch (acao) {
+                case PEDIDO -> aplicarPedido(chave, alvo);
+                case PEDIDOS_LIMPOS -> {
+                    if (alvo.pedidos.isEmpty()) pedidos.limpar();
+                    else for (Linha l : alvo.pedidos) reinserir(l);
+                }
+                case MESA -> aplicarMesa(chave, alvo);
+                case MESAS_LIMPAS -> {
+                    if (alvo.mesas.isEmpty()) {
+                        mesas.limpar();
+                    } else {
+                        for (MesaSalva m : alvo.mesas) restaurar(m, posicaoNoAlvo(alvo, m.id), null);
+                        mesas.setProximoId(alvo.proximoIdMesa);
+                    }
+                }
+                default -> {
+                }
+            }
+        } finally {
+            aplicando = false;
+            posicaoRestaurada = -1;
+        }
+    }
+
+    private void aplicarPedido(long ordem, Versao alvo) {
+        Linha agora = pedidosAtual.get(ordem);
+        Linha depois = alvo.pedidos.get(ordem);
+        if (depois == null) {
+            if (agora != null) pedidos.remover(agora.pedido);
+        } else if (agora == null) {
+            reinserir(depois);
+        } else {
+            pedidos.alterarQuantidade(depois.pedido, depois.quantidade);
+        }
+    }
+
+    // O motor devolve o pedido ao lugar dele pela ordem de chegada.
+    private void reinserir(Linha l) {
+        l.pedido.quantidade = l.quantidade;
+        pedidos.reinserir(l.pedido);
+    }
+
+    private void aplicarMesa(long posicao, Versao alvo) {
+        MesaSalva agora = mesasAtual.get(posicao);
+        MesaSalva depois = alvo.mesas.get(posicao);
+        if (depois == null) {
+            if (agora != null) mesas.removerMesa(agora.id);
+        } else if (agora == null) {
+            restaurar(depois, posicao, mesasAtual.seguinte(posicao));
+        } else if (depois.ocupada) {
+            if (!agora.ocupada) mesas.ocupar(depois.id, depois.nome);
+        } else {
+            mesas.liberar(depois.id);
+        }
+    }
+
+    private void restaurar(MesaSalva m, long posicao, MesaSalva seguinte) {
+        posicaoRestaurada = posicao;
+        mesas.restaurarMesa(m.id, m.capacidade, m.ocupada, m.nome, seguinte == null ? -1 : seguinte.id);
+    }
+
+    private static long posicaoNoAlvo(Versao alvo, int id) {
+        Long p = alvo.posicaoPorId.get(id);
+        return p == null ? -1 : p;
+    }
+
+    // ---- versões ----
+
+    private void registrar(Acao acao, long chave) {
+        if (aplicando) return;
+        // ação nova descarta o que havia para refazer
+        atual++;
+        fim = atual;
+        if (atual - inicio >= versoes.length) inicio++;
+        versoes[slot(atual)] = new Versao(this, acao, chave);
+    }
+
+    private Versao versao(long n) {
+        return versoes[slot(n)];
+    }
+
+    private int slot(long n) {
+        return (int) (n % versoes.length);
+    }
+
+    private Object lockPedidos() {
+        return pedidos != null ? pedidos : this;
+    }
+
+    private Object lockMesas() {
+        return mesas != null ? mesas : this;
+    }
+
+    private void incluirMesa(Table t, long posicao) {
+        mesasAtual = mesasAtual.com(posicao, new MesaSalva(t));
+        posicaoPorIdAtual = posicaoPorIdAtual.com(t.id, posicao);
+    }
+
+    // ---- avisos dos motores (já com o lock de cada um) ----
+
+    private final class OuvintePedidos implements MotorPedidos.Ouvinte {
+        @Override
+        public void adicionado(Pedido p, int linha) {
+            synchronized (Historico.this) {
+                pedidosAtual = pedidosAtual.com(p.ordem, new Linha(p));
+                registrar(Acao.PEDIDO, p.ordem);
+            }
+        }
+
+        @Override
+        public void removido(Pedido p, int linha) {
+            synchronized (Historico.this) {
+                if (!pedidosAtual.contem(p.ordem)) return;
+                pedidosAtual = pedidosAtual.sem(p.ordem);
+                registrar(Acao.PEDIDO, p.ordem);
+            }
+        }
+
+        @Override
+        public void alterado(Pedido p, int linha) {
+            synchronized (Historico.this) {
+                pedidosAtual = pedidosAtual.com(p.ordem, new Linha(p));
+                registrar(Acao.PEDIDO, p.ordem);
+            }
+        }
+
+        // troca de visão não muda o estado; limpeza sim
+        @Override
+        public void recarregado() {
+            synchronized (Historico.this) {
+                if (!pedidos.isEmpty() || pedidosAtual.isEmpty()) return;
+                pedidosAtual = MapaPersistente.vazio();
+                registrar(Acao.PEDIDOS_LIMPOS, 0);
+            }
+        }
+    }
+
+    private final class OuvinteMesas implements MotorMesas.Ouvinte {
+        @Override
+        public void criada(Table t, int linha) {
+            synchronized (Historico.this) {
+                long posicao = posicaoRestaurada >= 0 ? posicaoRestaurada : proximaPosicao;
+                proximaPosicao = Math.max(proximaPosicao, posicao + 1);
+                incluirMesa(t, posicao);
+                proximoIdMesa = Math.max(proximoIdMesa, t.id + 1);
+                registrar(Acao.MESA, posicao);
+            }
+        }
+
+        @Override
+        public void removida(Table t, int linha) {
+            synchronized (Historico.this) {
+                Long posicao = posicaoPorIdAtual.get(t.id);
+                if (posicao == null) return;
+                mesasAtual = mesasAtual.sem(posicao);
+                posicaoPorIdAtual = posicaoPorIdAtual.sem(t.id);
+                registrar(Acao.MESA, posicao);
+            }
+        }
+
+        @Override
+        public void alterada(Table t, int linha) {
+            synchronized (Historico.this) {
+                Long posicao = posicaoPorIdAtual.get(t.id);
+                if (posicao == null) return;
+                mesasAtual = mesasAtual.com(posicao, new MesaSalva(t));
+                registrar(Acao.MESA, posicao);
+            }
+        }
+
+        @Override
+        public void recarregado() {
+            synchronized (Historico.this) {
+                if (mesas.tamanho() > 0 || mesasAtual.isEmpty()) return;
+                mesasAtual = MapaPersistente.vazio();
+                posicaoPorIdAtual = MapaPersistente.vazio();
+                proximoIdMesa = 1;
+                registrar(Acao.MESAS_LIMPAS, 0);
+            }
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package lanchonetelistas;
+import java.util.*;
+
+// Histórico do dia em colunas: em vez de guardar um Pedido por linha, cada
+// campo fica num array primitivo. O item vira um id de dicionário e o valor
+// vira centavos (long), então as somas são laços sobre int[]/long[].
+//
+// Ligado a um MotorPedidos, registra cada pedido atendido (removerProximo).
+// Se um atendido volta por desfazer, o registro dele fica com quantidade 0;
+// para isso guarda os últimos atendidos, tantos quanto o Historico desfaz.
+public class HistoricoPedidos implements MotorPedidos.Ouvinte {
+
+    private static final int RECENTES = Historico.LIMITE_PADRAO;
+
+    private final HashMap<String, Integer> idPorItem = new HashMap<>();
+    private final ArrayList<String> itens = new ArrayList<>();
+
+    private int[] item = new int[1024];
+    private int[] quantidade = new int[1024];
+    // valor unitário em centavos
+    private long[] centavos = new long[1024];
+    private int tamanho;
+    // anel dos últimos atendidos e a posição do registro de cada um
+    private final Pedido[] recentes = new Pedido[RECENTES];
+    private final int[] posicaoRecente = new int[RECENTES];
+    private int proximoRecente;
+
+    public HistoricoPedidos() {
+    }
+
+    public HistoricoPedidos(MotorPedidos motor) {
+        motor.addOuvinte(this);
+    }
+
+    public synchronized int registrar(Pedido p) {
+        return registrar(p.item, p.quantidade, p.valor);
+    }
+
+    // Devolve a posição do registro no histórico.
+    public synchronized int registrar(String nome, int qtd, double valor) {
+        if (tamanho == item.length) crescer();
+        item[tamanho] = idDoItemOuNovo(nome);
+        quantidade[tamanho] = qtd;
+        centavos[tamanho] = paraCentavos(valor);
+        return tamanho++;
+    }
+
+    public synchronized int tamanho() {
+        return tamanho;
+    }
+
+    public synchronized int quantidadeDeItens() {
+        return itens.size();
+    }
+
+    public synchronized String nomeDoItem(int id) {
+        return itens.get(id);
+    }
+
+    // -1 se o item nunca apareceu.
+    public synchronized int idDoItem(String nome) {
+        Integer id = idPorItem.get(nome);
+        return id == null ? -1 : id;
+    }
+
+    public synchronized Pedido getPedido(int posicao) {
+        Objects.checkIndex(posicao, tamanho);
+        return new Pedido(itens.get(item[posicao]), quantidade[posicao], centavos[posicao] / 100.0);
+    }
+
+    // Receita (valor x quantidade) em centavos, indexada pelo id do item.
+    public synchronized long[] receitaPorItem() {
+        long[] soma = new long[itens.size()];
+        for (int i = 0; i < tamanho; i++) {
+            soma[item[i]] += centavos[i] * quantidade[i];
+        }
+        return soma;
+    }
+
+    // Soma das quantidades, indexada pelo id do item.
+    public synchronized long[] quantidadePorItem() {
+        long[] soma = new long[itens.size()];
+        for (int i = 0; i < tamanho; i++) {
+            soma[item[i]] += quantidade[i];
+        }
+        return soma;
+    }
+
+    // Número de registros (linhas de pedido), indexado pelo id do item; os
+    // desfeitos (quantidade 0) não contam.
+    public synchronized int[] contagemPorItem() {
+        int[] soma = new int[itens.size()];
+        for (int i = 0; i < tamanho; i++) {
+            if (quantidade[i] != 0) soma[item[i]]++;
+        }
+        return soma;
+    }
+
+    public synchronized long receitaDoItem(String nome) {
+        int id = idDoItem(nome);
+        if (id < 0) return 0;
+        long soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (item[i] == id) soma += centavos[i] * quantidade[i];
+        }
+        return soma;
+    }
+
+    public synchronized long receitaTotal() {
+        long soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            soma += centavos[i] * quantidade[i];
+        }
+        return soma;
+    }
+
+    public synchronized long quantidadeTotal() {
+        long soma = 0;
+        for (int i = 0; i < tamanho; i++) {
+            soma += quantidade[i];
+        }
+        return soma;
+    }
+
+    public synchronized void limpar() {
+        tamanho = 0;
+        Arrays.fill(recentes, null);
+    }
+
+    // ---- avisos do motor ----
+
+    @Override
+    public synchronized void servido(Pedido p, int linha) {
+        int posicao = registrar(p);
+        recentes[proximoRecente] = p;
+        posicaoRecente[proximoRecente] = posicao;
+        proximoRecente = (proximoRecente + 1) % RECENTES;
+    }
+
+    // Atendido e desfeito: não conta mais (se atender de novo, é registrado de novo).
+    @Override
+    public synchronized void reinserido(Pedido p, int linha) {
+        for (int i = 0; i < RECENTES; i++) {
+            if (recentes[i] == p) {
+                quantidade[posicaoRecente[i]] = 0;
+                recentes[i] = null;
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void adicionado(Pedido p, int linha) {
+    }
+
+    @Override
+    public void removido(Pedido p, int linha) {
+    }
+
+    @Override
+    public void alterado(Pedido p, int linha) {
+    }
+
+    @Override
+    public void recarregado() {
+    }
+
+    public static long paraCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
+
+    private int idDoItemOuNovo(String nome) {
+        Integer id = idPorItem.get(nome);
+        if (id == null) {
+            id = itens.size();
+            itens.add(nome);
+            idPorItem.put(nome, id);
+        }
+        return id;
+    }
+
+    private void crescer() {
+        int novo = item.length * 2;
+        item = Arrays.copyOf(item, novo);
+        quantidade = Arrays.copyOf(quantidade, novo);
+        centavos = Arrays.copyOf(centavos, novo);
+    }
+}
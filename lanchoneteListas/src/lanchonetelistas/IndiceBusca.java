@@ -0,0 +1,239 @@
+package lanchonetelistas;
+import java.util.*;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Busca por digitação nos itens e nos nomes de grupo, alimentada pelos
+// avisos dos motores.
+//
+// Dois IndicePrefixo: o de itens começa com o cardápio e ganha frequência a
+// cada unidade pedida (o dia todo, inclusive pedidos já entregues); o de
+// grupos ganha uma a cada vez que um nome senta. Os pedidos abertos e as
+// mesas ocupadas ficam ligados aos textos, então "bat" devolve os pedidos de
+// Batata-Frita sem percorrer os pedidos.
+//
+// Os avisos chegam com o lock do motor e entram aqui com o lock do índice
+// (sempre nessa ordem); as buscas só pegam o lock do índice, então a tela
+// não espera o motor.
+public class IndiceBusca {
+
+    public static final Metricas.Operacao BUSCA = Metricas.operacao("busca.prefixo");
+
+    private final IndicePrefixo<Pedido> itens = new IndicePrefixo<>();
+    private final IndicePrefixo<Table> grupos = new IndicePrefixo<>();
+    // item e quantidade com que cada pedido aberto foi indexado
+    private final HashMap<Pedido, String> itemIndexado = new HashMap<>();
+    private final HashMap<Pedido, Integer> quantidadeIndexada = new HashMap<>();
+    // nome com que cada mesa ocupada foi indexada, por id
+    private final HashMap<Integer, String> grupoIndexado = new HashMap<>();
+    private MotorPedidos pedidos;
+    private MotorMesas mesas;
+
+    public IndiceBusca(Cardapio cardapio) {
+        for (ItemCardapio i : cardapio.itens()) itens.adicionar(i.getNome(), 0);
+    }
+
+    public IndiceBusca(Cardapio cardapio, MotorPedidos pedidos, MotorMesas mesas) {
+        this(cardapio);
+        if (pedidos != null) conectar(pedidos);
+        if (mesas != null) conectar(mesas);
+    }
+
+    // Indexa o que já está aberto e passa a ouvir o motor.
+    public void conectar(MotorPedidos motor) {
+        synchronized (motor) {
+            synchronized (this) {
+                this.pedidos = motor;
+                recarregarPedidos();
+            }
+            motor.addOuvinte(new OuvintePedidos());
+        }
+    }
+
+    public void conectar(MotorMesas motor) {
+        synchronized (motor) {
+            synchronized (this) {
+                this.mesas = motor;
+                recarregarMesas();
+            }
+            motor.addOuvinte(new OuvinteMesas());
+        }
+    }
+
+    // ---- buscas ----
+
+    // Até k itens que começam com o prefixo, dos mais pedidos para os menos.
+    public List<String> completarItem(String prefixo, int k) {
+        long t0 = Metricas.inicio();
+        synchronized (this) {
+            List<String> r = itens.completar(prefixo, k);
+            BUSCA.fim(t0);
+            return r;
+        }
+    }
+
+    // Até k nomes de grupo que começam com o prefixo, dos mais frequentes
+    // (clientes da casa) para os menos.
+    public List<String> completarGrupo(String prefixo, int k) {
+        long t0 = Metricas.inicio();
+        synchronized (this) {
+            List<String> r = grupos.completar(prefixo, k);
+            BUSCA.fim(t0);
+            return r;
+        }
+    }
+
+    // Pedidos abertos cujo item começa com o prefixo, na ordem de chegada.
+    public List<Pedido> buscarPedidos(String prefixo) {
+        long t0 = Metricas.inicio();
+        ArrayList<Pedido> achados = new ArrayList<>();
+        synchronized (this) {
+            itens.valores(prefixo, achados::add);
+        }
+        achados.sort(Comparator.comparingLong(Pedido::getOrdem));
+        BUSCA.fim(t0);
+        return achados;
+    }
+
+    // Mesas ocupadas por grupos cujo nome começa com o prefixo, por id.
+    public List<Table> buscarMesas(String prefixo) {
+        long t0 = Metricas.inicio();
+        ArrayList<Table> achadas = new ArrayList<>();
+        synchronized (this) {
+            grupos.valores(prefixo, achadas::add);
+        }
+        achadas.sort(Comparator.comparingInt(t -> t.id));
+        BUSCA.fim(t0);
+        return achadas;
+    }
+
+    public synchronized long frequenciaItem(String item) {
+        return itens.frequencia(item);
+    }
+
+    public synchronized long frequenciaGrupo(String nome) {
+        return grupos.frequencia(nome);
+    }
+
+    // ---- avisos dos motores ----
+
+    private final class OuvintePedidos implements MotorPedidos.Ouvinte {
+        @Override
+        public void adicionado(Pedido p, int linha) {
+            synchronized (IndiceBusca.this) {
+                indexar(p, true);
+            }
+        }
+
+        @Override
+        public void removido(Pedido p, int linha) {
+            synchronized (IndiceBusca.this) {
+                String item = itemIndexado.remove(p);
+                quantidadeIndexada.remove(p);
+                if (item != null) itens.desanexar(item, p);
+            }
+        }
+
+        // Item repetido somado na linha aberta: conta só o que aumentou.
+        @Override
+        public void alterado(Pedido p, int linha) {
+            synchronized (IndiceBusca.this) {
+                String item = itemIndexado.get(p);
+                Integer antes = quantidadeIndexada.get(p);
+                if (item == null || antes == null) {
+                    indexar(p, true);
+                    return;
+                }
+                if (!Objects.equals(item, p.item)) {
+                    itens.desanexar(item, p);
+                    itemIndexado.put(p, p.item);
+                    itens.anexar(p.item, p);
+                }
+                if (p.quantidade > antes) itens.adicionar(p.item, p.quantidade - antes);
+                quantidadeIndexada.put(p, p.quantidade);
+            }
+        }
+
+        @Override
+        public void recarregado() {
+            synchronized (IndiceBusca.this) {
+                recarregarPedidos();
+            }
+        }
+    }
+
+    private final class OuvinteMesas implements MotorMesas.Ouvinte {
+        @Override
+        public void criada(Table t, int linha) {
+            synchronized (IndiceBusca.this) {
+                atualizarMesa(t, true);
+            }
+        }
+
+        @Override
+        public void removida(Table t, int linha) {
+            synchronized (IndiceBusca.this) {
+                String nome = grupoIndexado.remove(t.id);
+                if (nome != null) grupos.desanexar(nome, t);
+            }
+        }
+
+        @Override
+        public void alterada(Table t, int linha) {
+            synchronized (IndiceBusca.this) {
+                atualizarMesa(t, true);
+            }
+        }
+
+        @Override
+        public void recarregado() {
+            synchronized (IndiceBusca.this) {
+                recarregarMesas();
+            }
+        }
+    }
+
+    // ---- interno ----
+
+    // Troca de visão ou limpeza: refaz a ligação com os pedidos abertos. As
+    // frequências são do dia e ficam; só pedidos que o índice ainda não tinha
+    // visto (lote restaurado de uma foto, por exemplo) somam.
+    private void recarregarPedidos() {
+        HashMap<Pedido, Integer> vistos = new HashMap<>(quantidadeIndexada);
+        itens.desanexarTodos();
+        itemIndexado.clear();
+        quantidadeIndexada.clear();
+        for (Pedido p : pedidos.listarNaOrdemDeChegada()) indexar(p, !vistos.containsKey(p));
+    }
+
+    // Mesas que continuam com o mesmo grupo não contam de novo.
+    private void recarregarMesas() {
+        HashMap<Integer, String> vistos = new HashMap<>(grupoIndexado);
+        grupos.desanexarTodos();
+        grupoIndexado.clear();
+        for (Table t : mesas.toArray()) {
+            atualizarMesa(t, !(t.occupied && Objects.equals(vistos.get(t.id), t.partyName)));
+        }
+    }
+
+    private void indexar(Pedido p, boolean contar) {
+        itemIndexado.put(p, p.item);
+        quantidadeIndexada.put(p, p.quantidade);
+        itens.anexar(p.item, p);
+        if (contar && p.quantidade > 0) itens.adicionar(p.item, p.quantidade);
+    }
+
+    private void atualizarMesa(Table t, boolean contar) {
+        String antes = grupoIndexado.get(t.id);
+        String agora = t.occupied ? t.partyName : null;
+        if (Objects.equals(antes, agora)) return;
+        if (antes != null) {
+            grupos.desanexar(antes, t);
+            grupoIndexado.remove(t.id);
+        }
+        if (agora != null && !agora.isBlank()) {
+            grupoIndexado.put(t.id, agora);
+            grupos.anexar(agora, t);
+            if (contar) grupos.adicionar(agora, 1);
+        }
+    }
+}
@@ -0,0 +1,292 @@
+package lanchonetelistas;
+import java.text.Normalizer;
+import java.util.*;
+import java.util.function.Consumer;
+
+// Árvore de prefixos compactada (radix trie) de textos com frequência, para
+// completar o que o caixa está digitando.
+//
+// Cada aresta guarda um pedaço inteiro do texto em vez de uma letra, então a
+// altura é a do maior texto em pedaços, não em letras, e um cardápio de
+// milhares de itens cabe em poucos milhares de nós. As chaves são
+// normalizadas (minúsculas, sem acento): "gua" acha "Guaraná".
+//
+// Cada nó guarda a maior frequência da sua subárvore. completar() desce até o
+// prefixo e abre os nós pela maior frequência primeiro (melhor-primeiro com
+// uma fila de prioridade), parando nos k primeiros: o custo depende de k e do
+// tamanho do prefixo, não de quantos textos começam com ele.
+//
+// Um texto também pode carregar valores (pedidos abertos, mesas ocupadas),
+// que valores() junta para todos os textos com o prefixo.
+//
+// Não é sincronizada; quem usa de várias threads guarda com um lock (ver
+// IndiceBusca).
+public class IndicePrefixo<V> {
+
+    private static final char[] SEM_LETRAS = new char[0];
+
+    private static final class No<V> {
+        // pedaço da chave na aresta que chega neste nó
+        String rotulo;
+        // filhos ordenados pela primeira letra do rótulo
+        char[] letras = SEM_LETRAS;
+        No<V>[] filhos;
+        int nFilhos;
+        // texto original, se algum texto termina aqui
+        String texto;
+        long frequencia;
+        // maior frequência deste nó e dos descendentes
+        long maximo;
+        LinkedHashSet<V> valores;
+
+        No(String rotulo) {
+            this.rotulo = rotulo;
+        }
+
+        No<V> filho(char c) {
+            int i = Arrays.binarySearch(letras, 0, nFilhos, c);
+            return i >= 0 ? filhos[i] : null;
+        }
+
+        @SuppressWarnings("unchecked")
+        void colocar(No<V> filho) {
+            char c = filho.rotulo.charAt(0);
+            int i = Arrays.binarySearch(letras, 0, nFilhos, c);
+            if (i >= 0) {
+                filhos[i] = filho;
+                return;
+            }
+            i = -i - 1;
+            if (nFilhos == letras.length) {
+                int novo = Math.max(2, nFilhos * 2);
+                letras = Arrays.copyOf(letras, novo);
+                filhos = filhos == null ? (No<V>[]) new No<?>[novo] : Arrays.copyOf(filhos, novo);
+            }
+            System.arraycopy(letras, i, letras, i + 1, nFilhos - i);
+            System.arraycopy(filhos, i, filhos, i + 1, nFilhos - i);
+            letras[i] = c;
+            filhos[i] = filho;
+            nFilhos++;
+        }
+    }
+
+    private No<V> raiz = new No<>("");
+    private int textos;
+
+    // Forma usada nas chaves: minúsculas e sem acentos.
+    public static String normalizar(String s) {
+        if (s == null) return "";
+        String semAcento = Normalizer.normalize(s.trim(), Normalizer.Form.NFD);
+        StringBuilder sb = new StringBuilder(semAcento.length());
+        for (int i = 0; i < semAcento.length(); i++) {
+            char c = semAcento.charAt(i);
+            if (Character.getType(c) != Character.NON_SPACING_MARK) sb.append(Character.toLowerCase(c));
+        }
+        return sb.toString();
+    }
+
+    // Quantos textos distintos (pela forma normalizada) estão no índice.
+    public int tamanho() {
+        return textos;
+    }
+
+    public void limpar() {
+        raiz = new No<>("");
+        textos = 0;
+    }
+
+    // Soma peso à frequência do texto, criando-o se não existe. Peso 0 só
+    // registra o texto (itens do cardápio ainda não pedidos).
+    public void adicionar(String texto, long peso) {
+        if (peso < 0) throw new IllegalArgumentException("Peso negativo: " + peso);
+        No<V> n = no(texto);
+        if (n == null) return;
+        n.frequencia += peso;
+        atualizarMaximos(normalizar(texto));
+    }
+
+    public long frequencia(String texto) {
+        No<V> n = exato(normalizar(texto));
+        return n == null || n.texto == null ? 0 : n.frequencia;
+    }
+
+    // Liga um valor ao texto (criando o texto com frequência 0 se preciso).
+    public void anexar(String texto, V valor) {
+        No<V> n = no(texto);
+        if (n == null) return;
+        if (n.valores == null) n.valores = new LinkedHashSet<>();
+        n.valores.add(valor);
+    }
+
+    // false se o valor não estava ligado ao texto.
+    public boolean desanexar(String texto, V valor) {
+        No<V> n = exato(normalizar(texto));
+        if (n == null || n.valores == null || !n.valores.remove(valor)) return false;
+        if (n.valores.isEmpty()) n.valores = null;
+        return true;
+    }
+
+    // Solta todos os valores, mantendo textos e frequências.
+    public void desanexarTodos() {
+        ArrayDeque<No<V>> pilha = new ArrayDeque<>();
+        pilha.push(raiz);
+        while (!pilha.isEmpty()) {
+            No<V> n = pilha.pop();
+            n.valores = null;
+            for (int i = 0; i < n.nFilhos; i++) pilha.push(n.filhos[i]);
+        }
+    }
+
+    // Até k textos que começam com o prefixo, da maior frequência para a
+    // menor (empate em ordem alfabética da chave).
+    public List<String> completar(String prefixo, int k) {
+        ArrayList<String> achados = new ArrayList<>(Math.min(k, 16));
+        No<V> inicio = subarvore(normalizar(prefixo));
+        if (inicio == null || k <= 0) return achados;
+
+        // entradas de nó valem o máximo da subárvore; as de texto, a própria
+        // frequência. Com a mesma nota, o texto sai antes de abrir mais nós.
+        PriorityQueue<Entrada<V>> fila = new PriorityQueue<>();
+        fila.add(new Entrada<>(inicio, inicio.maximo, false, ""));
+        while (!fila.isEmpty() && achados.size() < k) {
+            Entrada<V> e = fila.poll();
+            if (e.texto) {
+                achados.add(e.no.texto);
+                continue;
+            }
+            No<V> n = e.no;
+            if (n.texto != null) fila.add(new Entrada<>(n, n.frequencia, true, e.chave));
+            for (int i = 0; i < n.nFilhos; i++) {
+                No<V> f = n.filhos[i];
+                fila.add(new Entrada<>(f, f.maximo, false, e.chave + f.rotulo));
+            }
+        }
+        return achados;
+    }
+
+    // Passa a consumidor os valores de todos os textos com o prefixo.
+    public void valores(String prefixo, Consumer<? super V> consumidor) {
+        No<V> inicio = subarvore(normalizar(prefixo));
+        if (inicio == null) return;
+        ArrayDeque<No<V>> pilha = new ArrayDeque<>();
+        pilha.push(inicio);
+        while (!pilha.isEmpty()) {
+            No<V> n = pilha.pop();
+            if (n.valores != null) n.valores.forEach(consumidor);
+            for (int i = n.nFilhos - 1; i >= 0; i--) pilha.push(n.filhos[i]);
+        }
+    }
+
+    // ---- interno ----
+
+    private static final class Entrada<V> implements Comparable<Entrada<V>> {
+        final No<V> no;
+        final long nota;
+        final boolean texto;
+        // chave do começo da busca até este nó, para o desempate
+        final String chave;
+
+        Entrada(No<V> no, long nota, boolean texto, String chave) {
+            this.no = no;
+            this.nota = nota;
+            this.texto = texto;
+            this.chave = chave;
+        }
+
+        @Override
+        public int compareTo(Entrada<V> o) {
+            if (nota != o.nota) return Long.compare(o.nota, nota);
+            if (texto != o.texto) return texto ? -1 : 1;
+            return chave.compareTo(o.chave);
+        }
+    }
+
+    // Nó terminal do texto, criado (e partindo arestas) se preciso; null
+    // para texto vazio.
+    private No<V> no(String texto) {
+        String chave = normalizar(texto);
+        if (chave.isEmpty()) return null;
+        No<V> n = raiz;
+        int i = 0;
+        while (i < chave.length()) {
+            No<V> f = n.filho(chave.charAt(i));
+            if (f == null) {
+                f = new No<>(chave.substring(i));
+                n.colocar(f);
+                n = f;
+                break;
+            }
+            int m = comum(f.rotulo, chave, i);
+            if (m < f.rotulo.length()) {
+                // parte a aresta: n -> meio -> f
+                No<V> meio = new No<>(f.rotulo.substring(0, m));
+                f.rotulo = f.rotulo.substring(m);
+                meio.colocar(f);
+                meio.maximo = f.maximo;
+                n.colocar(meio);
+                f = meio;
+            }
+            n = f;
+            i += m;
+        }
+        if (n.texto == null) {
+            n.texto = texto.trim();
+            textos++;
+        }
+        return n;
+    }
+
+    // Depois de mudar uma frequência: recalcula os máximos no caminho.
+    private void atualizarMaximos(String chave) {
+        ArrayList<No<V>> caminho = new ArrayList<>();
+        No<V> n = raiz;
+        int i = 0;
+        caminho.add(n);
+        while (i < chave.length()) {
+            n = n.filho(chave.charAt(i));
+            caminho.add(n);
+            i += n.rotulo.length();
+        }
+        for (int j = caminho.size() - 1; j >= 0; j--) {
+            No<V> c = caminho.get(j);
+            long max = c.texto != null ? c.frequencia : 0;
+            for (int f = 0; f < c.nFilhos; f++) max = Math.max(max, c.filhos[f].maximo);
+            c.maximo = max;
+        }
+    }
+
+    private No<V> exato(String chave) {
+        No<V> n = raiz;
+        int i = 0;
+        while (i < chave.length()) {
+            n = n.filho(chave.charAt(i));
+            if (n == null || !chave.startsWith(n.rotulo, i)) return null;
+            i += n.rotulo.length();
+        }
+        return n;
+    }
+
+    // Nó em que ficam todos os textos com o prefixo (o prefixo pode acabar no
+    // meio da aresta que chega nele), ou null se nenhum começa assim.
+    private No<V> subarvore(String prefixo) {
+        No<V> n = raiz;
+        int i = 0;
+        while (i < prefixo.length()) {
+            n = n.filho(prefixo.charAt(i));
+            if (n == null) return null;
+            int m = comum(n.rotulo, prefixo, i);
+            if (i + m == prefixo.length()) return n;
+            if (m < n.rotulo.length()) return null;
+            i += m;
+        }
+        return n;
+    }
+
+    // Tamanho do começo em comum entre rotulo e chave[de..].
+    private static int comum(String rotulo, String chave, int de) {
+        int max = Math.min(rotulo.length(), chave.length() - de);
+        int m = 0;
+        while (m < max && rotulo.charAt(m) == chave.charAt(de + m)) m++;
+        return m;
+    }
+}
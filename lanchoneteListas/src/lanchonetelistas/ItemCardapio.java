@@ -0,0 +1,34 @@
+package lanchonetelistas;
+
+// Item do cardápio. Imutável e único por SKU: todos os pedidos do mesmo item
+// apontam para a mesma instância (flyweight), inclusive para o nome.
+public final class ItemCardapio {
+
+    private final int sku;
+    private final String nome;
+    private final double preco;
+
+    public ItemCardapio(int sku, String nome, double preco) {
+        if (sku <= 0) throw new IllegalArgumentException("SKU inválido: " + sku);
+        this.sku = sku;
+        this.nome = nome;
+        this.preco = preco;
+    }
+
+    public int getSku() {
+        return sku;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public double getPreco() {
+        return preco;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
@@ -0,0 +1,260 @@
+package lanchonetelistas;
+import java.util.*;
+import java.util.function.LongSupplier;
+
+// Vendas da última 1, 15 e 60 minutos, por item e no total, atualizadas a
+// cada pedido que entra ou sai em vez de recalculadas sobre getPedidos().
+//
+// Cada item tem um anel de 3600 baldes de um segundo (quantidade e valor em
+// centavos) e uma soma corrente por janela. Quando o relógio avança um
+// segundo, o balde que sai de cada janela é descontado da soma dela; assim as
+// consultas só leem a soma, O(1) seja qual for o volume, e o custo de
+// avançar depende do número de itens, não do de pedidos.
+//
+// Um pedido conta no segundo em que entrou e continua contando depois de
+// atendido (removerProximo). Se for cancelado (removido pelo próprio pedido,
+// ou a inclusão desfeita) ou mudar de quantidade enquanto esse segundo ainda
+// está no anel, o ajuste vai para o mesmo balde; depois disso ele já não
+// aparece em janela nenhuma. Um pedido atendido que volta (desfazer) não
+// conta de novo, desde que tenha entrado há menos de uma hora.
+public class JanelaVendas implements MotorPedidos.Ouvinte {
+
+    public enum Janela {
+        UM_MINUTO(60), QUINZE_MINUTOS(900), UMA_HORA(3600);
+
+        final int segundos;
+
+        Janela(int segundos) {
+            this.segundos = segundos;
+        }
+    }
+
+    private static final int ANEL = 3600;
+    private static final Janela[] JANELAS = Janela.values();
+
+    private static final class Serie {
+        final int[] quantidade = new int[ANEL];
+        final long[] centavos = new long[ANEL];
+        final long[] somaQuantidade = new long[JANELAS.length];
+        final long[] somaCentavos = new long[JANELAS.length];
+    }
+
+    private final LongSupplier relogio;
+    private final MotorPedidos motor;
+    private final HashMap<String, Serie> porItem = new HashMap<>();
+    private final Serie total = new Serie();
+    // segundo e quantidade já contados de cada pedido aberto, e 1 se ele já
+    // foi atendido uma vez (voltou por desfazer)
+    private final IdentityHashMap<Pedido, long[]> contados = new IdentityHashMap<>();
+    // o mesmo dos já atendidos, para um desfazer não contar duas vezes; os
+    // que já saíram do anel são podados quando o mapa dobra de tamanho
+    private final IdentityHashMap<Pedido, long[]> atendidos = new IdentityHashMap<>();
+    private int podarEm = 1024;
+    private long agora;
+
+    public JanelaVendas() {
+        this(null, System::currentTimeMillis);
+    }
+
+    public JanelaVendas(MotorPedidos motor) {
+        this(motor, System::currentTimeMillis);
+    }
+
+    // relogio em milissegundos (para testes, um relógio controlado)
+    public JanelaVendas(MotorPedidos motor, LongSupplier relogio) {
+        this.relogio = relogio;
+        this.motor = motor;
+        this.agora = relogio.getAsLong() / 1000;
+        if (motor != null) motor.addOuvinte(this);
+    }
+
+    // ---- alimentação ----
+
+    public synchronized void registrar(Pedido p) {
+        avancar();
+        if (contados.containsKey(p)) return;
+        contados.put(p, new long[] { agora, p.quantidade, 0 });
+        somar(p, agora, p.quantidade);
+    }
+
+    // Um pedido que já tinha sido atendido e voltou por desfazer não é
+    // cancelado quando sai de novo (refazer): a venda fica.
+    public synchronized void cancelar(Pedido p) {
+        avancar();
+        long[] c = contados.get(p);
+        if (c != null && c[2] == 1) {
+            servido(p);
+            return;
+        }
+        contados.remove(p);
+        if (c != null) somar(p, c[0], -c[1]);
+    }
+
+    // Atendido: a venda fica, só deixa de acompanhar o pedido.
+    public synchronized void servido(Pedido p) {
+        avancar();
+        long[] c = contados.remove(p);
+        if (c == null) return;
+        atendidos.put(p, c);
+        if (atendidos.size() >= podarEm) {
+            atendidos.values().removeIf(a -> a[0] <= agora - ANEL);
+            podarEm = Math.max(1024, atendidos.size() * 2);
+        }
+    }
+
+    // Voltou depois de atendido: já está nas janelas. Senão (cancelado e
+    // desfeito), conta como venda agora.
+    public synchronized void reinserido(Pedido p) {
+        long[] c = atendidos.remove(p);
+        if (c == null) {
+            registrar(p);
+            return;
+        }
+        avancar();
+        c[2] = 1;
+        contados.put(p, c);
+        quantidadeMudou(p);
+    }
+
+    public synchronized void quantidadeMudou(Pedido p) {
+        avancar();
+        long[] c = contados.get(p);
+        if (c == null) return;
+        somar(p, c[0], p.quantidade - c[1]);
+        c[1] = p.quantidade;
+    }
+
+    @Override
+    public void adicionado(Pedido p, int linha) {
+        registrar(p);
+    }
+
+    @Override
+    public void removido(Pedido p, int linha) {
+        cancelar(p);
+    }
+
+    @Override
+    public void servido(Pedido p, int linha) {
+        servido(p);
+    }
+
+    @Override
+    public void reinserido(Pedido p, int linha) {
+        reinserido(p);
+    }
+
+    @Override
+    public void alterado(Pedido p, int linha) {
+        quantidadeMudou(p);
+    }
+
+    // Troca de visão não muda nada; na limpeza os pedidos saem, mas o que foi
+    // vendido fica nas janelas.
+    @Override
+    public void recarregado() {
+        if (motor != null && !motor.isEmpty()) return;
+        synchronized (this) {
+            // desfazer a limpeza os traz de volta, sem contar de novo
+            for (Map.Entry<Pedido, long[]> e : contados.entrySet()) atendidos.put(e.getKey(), e.getValue());
+            contados.clear();
+        }
+    }
+
+    // ---- consultas (O(1)) ----
+
+    public synchronized long receitaCentavos(Janela janela) {
+        avancar();
+        return total.somaCentavos[janela.ordinal()];
+    }
+
+    public double receita(Janela janela) {
+        return receitaCentavos(janela) / 100.0;
+    }
+
+    public synchronized long quantidade(Janela janela) {
+        avancar();
+        return total.somaQuantidade[janela.ordinal()];
+    }
+
+    public synchronized long receitaCentavos(String item, Janela janela) {
+        avancar();
+        Serie s = porItem.get(item);
+        return s == null ? 0 : s.somaCentavos[janela.ordinal()];
+    }
+
+    public synchronized long quantidade(String item, Janela janela) {
+        avancar();
+        Serie s = porItem.get(item);
+        return s == null ? 0 : s.somaQuantidade[janela.ordinal()];
+    }
+
+    // Quantidade por item na janela, só dos itens com movimento.
+    public synchronized Map<String, Long> quantidadePorItem(Janela janela) {
+        avancar();
+        TreeMap<String, Long> mapa = new TreeMap<>();
+        int j = janela.ordinal();
+        for (Map.Entry<String, Serie> e : porItem.entrySet()) {
+            long q = e.getValue().somaQuantidade[j];
+            if (q != 0) mapa.put(e.getKey(), q);
+        }
+        return mapa;
+    }
+
+    // ---- interno ----
+
+    private void somar(Pedido p, long segundo, long quantidade) {
+        if (quantidade == 0 || segundo <= agora - ANEL) return;
+        long centavos = HistoricoPedidos.paraCentavos(p.valor) * quantidade;
+        String item = p.item == null ? "" : p.item;
+        somar(porItem.computeIfAbsent(item, k -> new Serie()), segundo, quantidade, centavos);
+        somar(total, segundo, quantidade, centavos);
+    }
+
+    private void somar(Serie s, long segundo, long quantidade, long centavos) {
+        int slot = Math.floorMod(segundo, ANEL);
+        s.quantidade[slot] += (int) quantidade;
+        s.centavos[slot] += centavos;
+        for (int j = 0; j < JANELAS.length; j++) {
+            if (segundo > agora - JANELAS[j].segundos) {
+                s.somaQuantidade[j] += quantidade;
+                s.somaCentavos[j] += centavos;
+            }
+        }
+    }
+
+    private void avancar() {
+        long novo = relogio.getAsLong() / 1000;
+        if (novo <= agora) return;
+        if (novo - agora >= ANEL) {
+            // tudo saiu de todas as janelas
+            zerar(total);
+            for (Serie s : porItem.values()) zerar(s);
+        } else {
+            for (long seg = agora + 1; seg <= novo; seg++) {
+                avancar(total, seg);
+                for (Serie s : porItem.values()) avancar(s, seg);
+            }
+        }
+        agora = novo;
+    }
+
+    private static void avancar(Serie s, long segundo) {
+        for (int j = 0; j < JANELAS.length; j++) {
+            int saindo = Math.floorMod(segundo - JANELAS[j].segundos, ANEL);
+            s.somaQuantidade[j] -= s.quantidade[saindo];
+            s.somaCentavos[j] -= s.centavos[saindo];
+        }
+        // o balde que sai da janela de 60 min é o mesmo que volta a ser usado
+        int slot = Math.floorMod(segundo, ANEL);
+        s.quantidade[slot] = 0;
+        s.centavos[slot] = 0;
+    }
+
+    private static void zerar(Serie s) {
+        Arrays.fill(s.quantidade, 0);
+        Arrays.fill(s.centavos, 0);
+        Arrays.fill(s.somaQuantidade, 0);
+        Arrays.fill(s.somaCentavos, 0);
+    }
+}
@@ -1,10 +1,151 @@
 package lanchonetelistas;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 public class LanchoneteListas {
+    private static final Logger logger = Logger.getLogger(LanchoneteListas.class.getName());
+
     public static void main(String[] args) {
+        // -Dlanchonete.metricas.dump=30 escreve as métricas no log a cada 30s
+        long dump = Long.getLong("lanchonete.metricas.dump", 0);
+        if (dump > 0) Metricas.iniciarDump(dump);
+
+        GerenciadorPedidos gerenciador = new GerenciadorPedidos();
+        // -Dlanchonete.diario=pasta grava cada alteração dos pedidos num diário
+        // e, na abertura, volta com os pedidos e a visão da última vez
+        String pastaDiario = System.getProperty("lanchonete.diario");
+        if (pastaDiario != null) {
+            try {
+                long t0 = System.nanoTime();
+                DiarioPedidos diario = DiarioPedidos.abrir(Paths.get(pastaDiario), gerenciador);
+                logger.info(gerenciador.tamanho() + " pedidos recuperados de " + pastaDiario
+                        + " em " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        diario.close();
+                    } catch (IOException e) {
+                        logger.log(Level.WARNING, "Não foi possível fechar o diário " + pastaDiario, e);
+                    }
+                }, "fechar-diario"));
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Não foi possível abrir o diário " + pastaDiario, e);
+            }
+        }
+        MotorPedidos motor = new MotorPedidos(gerenciador);
+        MotorMesas mesas = new MotorMesas();
+        // -Dlanchonete.foto=arquivo abre com o salão e os pedidos da última vez
+        // e grava a foto de novo ao fechar
+        String foto = System.getProperty("lanchonete.foto");
+        if (foto != null) {
+            Path arquivoFoto = Paths.get(foto);
+            if (Files.exists(arquivoFoto)) {
+                try {
+                    long t0 = System.nanoTime();
+                    int n = FotoEstado.carregar(arquivoFoto, motor, mesas);
+                    logger.info(n + " pedidos e " + mesas.tamanho() + " mesas restaurados de " + foto
+                            + " em " + (System.nanoTime() - t0) / 1_000_000 + " ms");
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Não foi possível restaurar " + foto, e);
+                }
+            }
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    FotoEstado.gravar(arquivoFoto, motor, mesas);
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Não foi possível gravar " + foto, e);
+                }
+            }, "gravar-foto"));
+        }
+        // -Dlanchonete.pedidos=arquivo carrega os pedidos abertos na abertura
+        String entrada = System.getProperty("lanchonete.pedidos");
+        if (entrada != null) {
+            try {
+                long n = ArquivoDados.importarPedidos(Paths.get(entrada), motor::submeter);
+                logger.info(n + " pedidos carregados de " + entrada);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Não foi possível carregar " + entrada, e);
+            }
+        }
+        // -Dlanchonete.exportar=arquivo grava os pedidos do dia ao fechar
+        String saida = System.getProperty("lanchonete.exportar");
+        if (saida != null) {
+            Path destino = Paths.get(saida);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    ArquivoDados.exportarPedidos(destino, motor.listarNaOrdemDeChegada());
+                } catch (IOException e) {
+                    logger.log(Level.WARNING, "Não foi possível exportar para " + saida, e);
+                }
+            }, "exportar-pedidos"));
+        }
+
+        // vendas da última 1, 15 e 60 minutos (os pedidos carregados acima
+        // não contam), em centavos e unidades, nas métricas e no JMX
+        JanelaVendas vendas = new JanelaVendas(motor);
+        for (JanelaVendas.Janela janela : JanelaVendas.Janela.values()) {
+            String sufixo = janela.segundos / 60 + "min";
+            Metricas.medidor("vendas.receitaCentavos." + sufixo, () -> vendas.receitaCentavos(janela));
+            Metricas.medidor("vendas.quantidade." + sufixo, () -> vendas.quantidade(janela));
+        }
+
+        // pedidos atendidos no dia, em colunas, para os totais por item
+        HistoricoPedidos atendidos = new HistoricoPedidos(motor);
+        Metricas.medidor("historico.atendidos", atendidos::tamanho);
+        Metricas.medidor("historico.receitaCentavos", atendidos::receitaTotal);
+
+        // -Dlanchonete.cozinha=1024 passa cada pedido novo, por um anel com
+        // esse número de slots, para a cozinha dividida por estação
+        int slots = Integer.getInteger("lanchonete.cozinha", 0);
+        if (slots > 0) {
+            try {
+                AnelPedidos anel = new AnelPedidos(slots);
+                CozinhaParticionada cozinha = new CozinhaParticionada((estacao, p) ->
+                        logger.fine(estacao + ": " + p.quantidade + "x " + p.item));
+                anel.adicionarConsumidor("cozinha", (e, seq, fimDoLote) -> cozinha.submeter(e.getPedido()));
+                anel.iniciar();
+                AnelPedidos.Entrada entradaAnel = anel.conectar(motor, 0);
+                // pedidos esperando vaga no anel: a cozinha não está dando conta
+                Metricas.medidor("anel.entrada.pendentes", entradaAnel::getPendentes);
+                logger.info("Cozinha com " + cozinha.getCozinheiros() + " cozinheiros e anel de " + slots + " slots");
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    try {
+                        anel.parar();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    cozinha.close();
+                }, "fechar-cozinha"));
+            } catch (IllegalArgumentException e) {
+                logger.log(Level.WARNING, "Não foi possível abrir a cozinha", e);
+            }
+        }
+
+        // -Dlanchonete.http=8080 abre a entrada de pedidos para tablets e totem
+        int porta = Integer.getInteger("lanchonete.http", 0);
+        if (porta > 0) {
+            // O JDK fecha as conexões keep-alive paradas que passam de 200, e os
+            // tablets teriam que reconectar a cada pedido. A propriedade vale
+            // para todo HttpServer da JVM e só é lida na criação do primeiro;
+            // -D na linha de comando prevalece.
+            if (System.getProperty("sun.net.httpserver.maxIdleConnections") == null) {
+                System.setProperty("sun.net.httpserver.maxIdleConnections", "20000");
+            }
+            try {
+                new ServidorHttp(motor, mesas, atendidos, new InetSocketAddress(porta));
+                logger.info("Pedidos por HTTP na porta " + porta);
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Não foi possível abrir a porta " + porta, e);
+            }
+        }
+
           javax.swing.SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
-                new interfacegrafica().setVisible(true);
+                new interfacegrafica(motor, mesas).setVisible(true);
             }
         });
     }
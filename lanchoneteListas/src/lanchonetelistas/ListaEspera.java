@@ -0,0 +1,199 @@
+package lanchonetelistas;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Lista de espera da porta: grupos com tamanho e hora de chegada que sentam
+// sozinhos quando uma mesa em que cabem fica livre.
+//
+// Os grupos ficam agrupados por tamanho, como as mesas livres no
+// SeatingIndex. Quando uma mesa de capacidade c é liberada (ou criada), o
+// maior grupo que cabe nela sai de floorEntry(c) em O(log n), e dentro do
+// mesmo tamanho vai quem chegou primeiro. Assim nunca sobra mesa livre em que
+// caiba alguém da fila, e não é preciso percorrer a fila a cada liberação.
+//
+// Tudo acontece dentro do lock do MotorMesas (os avisos dele já chegam com o
+// lock), então a lista e as mesas nunca ficam fora de sincronia. Sentar o
+// grupo na mesa que vagou é pedido com depoisDoAviso: a mesa só é ocupada
+// quando todos os ouvintes já souberam que ela ficou livre.
+public class ListaEspera implements MotorMesas.Ouvinte {
+
+    public static final Metricas.Operacao ESPERA = Metricas.operacao("mesas.espera");
+
+    public static final class Grupo {
+        private final long id;
+        private final String nome;
+        private final int tamanho;
+        private final long chegada;
+        private final long chegadaNanos;
+        private volatile Table mesa;
+
+        Grupo(long id, String nome, int tamanho) {
+            this.id = id;
+            this.nome = nome == null ? "" : nome;
+            this.tamanho = tamanho;
+            this.chegada = System.currentTimeMillis();
+            this.chegadaNanos = System.nanoTime();
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public int getTamanho() {
+            return tamanho;
+        }
+
+        // System.currentTimeMillis() da chegada
+        public long getChegada() {
+            return chegada;
+        }
+
+        // Mesa em que o grupo sentou, ou null se ainda espera (ou desistiu).
+        public Table getMesa() {
+            return mesa;
+        }
+    }
+
+    public interface Ouvinte {
+        void sentado(Grupo g, Table mesa);
+    }
+
+    private final MotorMesas mesas;
+    // tamanho -> grupos na ordem de chegada
+    private final TreeMap<Integer, LinkedHashSet<Grupo>> porTamanho = new TreeMap<>();
+    private int esperando;
+    private final AtomicLong proximoId = new AtomicLong(1);
+    private final List<Ouvinte> ouvintes = new CopyOnWriteArrayList<>();
+
+    public ListaEspera(MotorMesas mesas) {
+        this.mesas = mesas;
+        mesas.addOuvinte(this);
+    }
+
+    public void addOuvinte(Ouvinte o) {
+        ouvintes.add(o);
+    }
+
+    public void removeOuvinte(Ouvinte o) {
+        ouvintes.remove(o);
+    }
+
+    // Senta o grupo na hora se houver mesa; senão entra na fila. O grupo
+    // devolvido diz onde sentou (getMesa) ou continua esperando.
+    public Grupo entrar(String nome, int tamanho) {
+        if (tamanho <= 0) throw new IllegalArgumentException("Tamanho inválido: " + tamanho);
+        Grupo g = new Grupo(proximoId.getAndIncrement(), nome, tamanho);
+        synchronized (mesas) {
+            Table t = mesas.alocar(tamanho, g.nome);
+            if (t != null) {
+                sentou(g, t);
+                return g;
+            }
+            if (porTamanho.computeIfAbsent(tamanho, k -> new LinkedHashSet<>()).add(g)) esperando++;
+        }
+        return g;
+    }
+
+    // Grupo desistiu; false se já tinha sentado ou saído.
+    public boolean sair(Grupo g) {
+        synchronized (mesas) {
+            LinkedHashSet<Grupo> fila = porTamanho.get(g.tamanho);
+            if (fila == null || !fila.remove(g)) return false;
+            esperando--;
+            if (fila.isEmpty()) porTamanho.remove(g.tamanho);
+            return true;
+        }
+    }
+
+    public int tamanho() {
+        synchronized (mesas) {
+            return esperando;
+        }
+    }
+
+    // Grupos esperando, por ordem de chegada.
+    public List<Grupo> getGrupos() {
+        synchronized (mesas) {
+            ArrayList<Grupo> todos = new ArrayList<>(esperando);
+            for (LinkedHashSet<Grupo> fila : porTamanho.values()) todos.addAll(fila);
+            todos.sort(Comparator.comparingLong(g -> g.id));
+            return todos;
+        }
+    }
+
+    public void limpar() {
+        synchronized (mesas) {
+            porTamanho.clear();
+            esperando = 0;
+        }
+    }
+
+    // ---- avisos do MotorMesas (já com o lock dele) ----
+
+    @Override
+    public void criada(Table t, int linha) {
+        if (!t.occupied) atender(t);
+    }
+
+    @Override
+    public void removida(Table t, int linha) {
+        // mesa a menos não senta ninguém
+    }
+
+    @Override
+    public void alterada(Table t, int linha) {
+        if (!t.occupied) atender(t);
+    }
+
+    // Layout novo ou limpeza: confere as mesas livres de uma vez.
+    @Override
+    public void recarregado() {
+        if (esperando == 0) return;
+        for (Table t : mesas.toArray()) {
+            if (esperando == 0) break;
+            if (!t.occupied) atender(t);
+        }
+    }
+
+    // ---- interno ----
+
+    private void atender(Table t) {
+        if (esperando == 0) return;
+        Map.Entry<Integer, LinkedHashSet<Grupo>> e = porTamanho.floorEntry(t.capacity);
+        if (e == null) return;
+        LinkedHashSet<Grupo> fila = e.getValue();
+        Iterator<Grupo> it = fila.iterator();
+        Grupo g = it.next();
+        it.remove();
+        esperando--;
+        if (fila.isEmpty()) porTamanho.remove(e.getKey());
+        // o aviso de ocupada que volta para cá é ignorado
+        mesas.depoisDoAviso(() -> {
+            if (mesas.ocupar(t.id, g.nome) == MotorMesas.Resultado.OK) sentou(g, t);
+            else voltar(g);
+        });
+    }
+
+    // Outro ouvinte ocupou ou tirou a mesa antes: o grupo volta para a frente
+    // dos do seu tamanho e espera a próxima.
+    private void voltar(Grupo g) {
+        LinkedHashSet<Grupo> fila = new LinkedHashSet<>();
+        fila.add(g);
+        LinkedHashSet<Grupo> antes = porTamanho.get(g.tamanho);
+        if (antes != null) fila.addAll(antes);
+        porTamanho.put(g.tamanho, fila);
+        esperando++;
+    }
+
+    private void sentou(Grupo g, Table t) {
+        g.mesa = t;
+        if (Metricas.isAtivo()) ESPERA.fim(g.chegadaNanos);
+        for (Ouvinte o : ouvintes) o.sentado(g, t);
+    }
+}
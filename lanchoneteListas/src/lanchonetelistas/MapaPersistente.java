@@ -0,0 +1,166 @@
+package lanchonetelistas;
+import java.util.*;
+
+// Mapa ordenado por chave long e imutável (AVL com cópia de caminho).
+//
+// com() e sem() devolvem um mapa novo copiando só os nós do caminho até a
+// chave, O(log n); o resto da árvore é compartilhado com a versão anterior,
+// que continua valendo. Guardar uma versão é guardar a raiz, O(1), então
+// dá para manter muitas versões do mesmo estado sem copiar nada.
+public final class MapaPersistente<V> implements Iterable<V> {
+
+    private static final class No<V> {
+        final long chave;
+        final V valor;
+        final No<V> esq;
+        final No<V> dir;
+        final int altura;
+        final int tamanho;
+
+        No(long chave, V valor, No<V> esq, No<V> dir) {
+            this.chave = chave;
+            this.valor = valor;
+            this.esq = esq;
+            this.dir = dir;
+            this.altura = Math.max(altura(esq), altura(dir)) + 1;
+            this.tamanho = tamanho(esq) + tamanho(dir) + 1;
+        }
+    }
+
+    private static final MapaPersistente<?> VAZIO = new MapaPersistente<>(null);
+
+    private final No<V> raiz;
+
+    private MapaPersistente(No<V> raiz) {
+        this.raiz = raiz;
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <V> MapaPersistente<V> vazio() {
+        return (MapaPersistente<V>) VAZIO;
+    }
+
+    public int tamanho() {
+        return tamanho(raiz);
+    }
+
+    public boolean isEmpty() {
+        return raiz == null;
+    }
+
+    public V get(long chave) {
+        No<V> n = raiz;
+        while (n != null) {
+            if (chave < n.chave) n = n.esq;
+            else if (chave > n.chave) n = n.dir;
+            else return n.valor;
+        }
+        return null;
+    }
+
+    public boolean contem(long chave) {
+        return get(chave) != null;
+    }
+
+    public MapaPersistente<V> com(long chave, V valor) {
+        Objects.requireNonNull(valor);
+        return new MapaPersistente<>(inserir(raiz, chave, valor));
+    }
+
+    public MapaPersistente<V> sem(long chave) {
+        if (!contem(chave)) return this;
+        return new MapaPersistente<>(remover(raiz, chave));
+    }
+
+    // Valor da menor chave maior que chave, ou null se não há.
+    public V seguinte(long chave) {
+        No<V> n = raiz;
+        V achado = null;
+        while (n != null) {
+            if (n.chave > chave) {
+                achado = n.valor;
+                n = n.esq;
+            } else {
+                n = n.dir;
+            }
+        }
+        return achado;
+    }
+
+    // Valores em ordem crescente de chave.
+    @Override
+    public Iterator<V> iterator() {
+        return new Iterator<>() {
+            private final ArrayDeque<No<V>> pilha = new ArrayDeque<>();
+
+            {
+                descer(raiz);
+            }
+
+            private void descer(No<V> n) {
+                for (; n != null; n = n.esq) pilha.push(n);
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !pilha.isEmpty();
+            }
+
+            @Override
+            public V next() {
+                if (pilha.isEmpty()) throw new NoSuchElementException();
+                No<V> n = pilha.pop();
+                descer(n.dir);
+                return n.valor;
+            }
+        };
+    }
+
+    // ---- árvore ----
+
+    private static int altura(No<?> n) {
+        return n == null ? 0 : n.altura;
+    }
+
+    private static int tamanho(No<?> n) {
+        return n == null ? 0 : n.tamanho;
+    }
+
+    private static <V> No<V> inserir(No<V> n, long chave, V valor) {
+        if (n == null) return new No<>(chave, valor, null, null);
+        if (chave < n.chave) return balancear(n.chave, n.valor, inserir(n.esq, chave, valor), n.dir);
+        if (chave > n.chave) return balancear(n.chave, n.valor, n.esq, inserir(n.dir, chave, valor));
+        return new No<>(chave, valor, n.esq, n.dir);
+    }
+
+    private static <V> No<V> remover(No<V> n, long chave) {
+        if (chave < n.chave) return balancear(n.chave, n.valor, remover(n.esq, chave), n.dir);
+        if (chave > n.chave) return balancear(n.chave, n.valor, n.esq, remover(n.dir, chave));
+        if (n.esq == null) return n.dir;
+        if (n.dir == null) return n.esq;
+        No<V> menor = n.dir;
+        while (menor.esq != null) menor = menor.esq;
+        return balancear(menor.chave, menor.valor, n.esq, remover(n.dir, menor.chave));
+    }
+
+    private static <V> No<V> balancear(long chave, V valor, No<V> esq, No<V> dir) {
+        int he = altura(esq), hd = altura(dir);
+        if (he > hd + 1) {
+            if (altura(esq.esq) >= altura(esq.dir)) {
+                return new No<>(esq.chave, esq.valor, esq.esq, new No<>(chave, valor, esq.dir, dir));
+            }
+            No<V> m = esq.dir;
+            return new No<>(m.chave, m.valor, new No<>(esq.chave, esq.valor, esq.esq, m.esq),
+                    new No<>(chave, valor, m.dir, dir));
+        }
+        if (hd > he + 1) {
+            if (altura(dir.dir) >= altura(dir.esq)) {
+                return new No<>(dir.chave, dir.valor, new No<>(chave, valor, esq, dir.esq), dir.dir);
+            }
+            No<V> m = dir.esq;
+            return new No<>(m.chave, m.valor, new No<>(chave, valor, esq, m.esq),
+                    new No<>(dir.chave, dir.valor, m.dir, dir.dir));
+        }
+        return new No<>(chave, valor, esq, dir);
+    }
+}
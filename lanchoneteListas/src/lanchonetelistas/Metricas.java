@@ -0,0 +1,183 @@
+package lanchonetelistas;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+
+// Métricas dos caminhos quentes (pedidos, mesas e telas), publicadas como
+// MBeans em "lanchonetelistas:*" e, se pedido, despejadas no log de tempos
+// em tempos. Uso:
+//
+//     long t0 = Metricas.inicio();
+//     ... operação ...
+//     Metricas.ADICIONAR.fim(t0);
+//
+// inicio/fim não alocam; com Metricas.setAtivo(false) viram só uma leitura de flag.
+public final class Metricas {
+
+    private static final Logger logger = Logger.getLogger(Metricas.class.getName());
+    private static final String DOMINIO = "lanchonetelistas";
+
+    public interface OperacaoMBean {
+        long getContagem();
+        double getMediaMicros();
+        double getP50Micros();
+        double getP99Micros();
+        double getP999Micros();
+        double getMaxMicros();
+        void zerar();
+    }
+
+    public interface MedidorMBean {
+        long getValor();
+    }
+
+    public static final class Operacao implements OperacaoMBean {
+        private final String nome;
+        private final HistogramaLatencia histograma = new HistogramaLatencia();
+
+        private Operacao(String nome) {
+            this.nome = nome;
+        }
+
+        public String getNome() {
+            return nome;
+        }
+
+        public void fim(long inicio) {
+            if (inicio != 0) histograma.registrar(System.nanoTime() - inicio);
+        }
+
+        public HistogramaLatencia getHistograma() {
+            return histograma;
+        }
+
+        @Override public long getContagem() { return histograma.getContagem(); }
+        @Override public double getMediaMicros() { return histograma.getMedia() / 1000.0; }
+        @Override public double getP50Micros() { return histograma.percentil(50) / 1000.0; }
+        @Override public double getP99Micros() { return histograma.percentil(99) / 1000.0; }
+        @Override public double getP999Micros() { return histograma.percentil(99.9) / 1000.0; }
+        @Override public double getMaxMicros() { return histograma.getMaximo() / 1000.0; }
+        @Override public void zerar() { histograma.zerar(); }
+    }
+
+    private static final Map<String, Operacao> operacoes = new ConcurrentHashMap<>();
+    private static final Map<String, LongSupplier> medidores = new ConcurrentHashMap<>();
+    private static volatile boolean ativo = true;
+    private static ScheduledExecutorService dump;
+
+    public static final Operacao ADICIONAR = operacao("pedidos.adicionar");
+    public static final Operacao REMOVER = operacao("pedidos.remover");
+    public static final Operacao GET_PEDIDOS = operacao("pedidos.getPedidos");
+    public static final Operacao CREATE_TABLE = operacao("mesas.createTable");
+    public static final Operacao FIND_BY_ID = operacao("mesas.findById");
+    // atualização agrupada da tabela e do mapa de mesas, na EDT
+    public static final Operacao REFRESH_MESAS = operacao("tela.refreshMesas");
+
+    private Metricas() {
+    }
+
+    public static long inicio() {
+        return ativo ? System.nanoTime() : 0;
+    }
+
+    public static boolean isAtivo() {
+        return ativo;
+    }
+
+    public static void setAtivo(boolean valor) {
+        ativo = valor;
+    }
+
+    public static synchronized Operacao operacao(String nome) {
+        Operacao op = operacoes.get(nome);
+        if (op == null) {
+            op = new Operacao(nome);
+            operacoes.put(nome, op);
+            registrarMBean("Operacao", nome, new StandardMBean(op, OperacaoMBean.class, false));
+        }
+        return op;
+    }
+
+    // Medidor de profundidade (pedidos abertos, mesas livres...). Um novo
+    // registro com o mesmo nome substitui o anterior.
+    public static synchronized void medidor(String nome, LongSupplier valor) {
+        boolean novo = medidores.put(nome, valor) == null;
+        if (novo) {
+            MedidorMBean mbean = () -> {
+                LongSupplier s = medidores.get(nome);
+                return s == null ? 0 : s.getAsLong();
+            };
+            registrarMBean("Medidor", nome, new StandardMBean(mbean, MedidorMBean.class, false));
+        }
+    }
+
+    // Tira o medidor, se ainda for este (um registro mais novo com o mesmo
+    // nome fica). Quem registra um medidor preso a si mesmo chama isto ao
+    // fechar, para o registro não segurar o objeto.
+    public static synchronized void removerMedidor(String nome, LongSupplier valor) {
+        if (medidores.remove(nome, valor)) removerMBean("Medidor", nome);
+    }
+
+    public static String texto() {
+        StringBuilder sb = new StringBuilder();
+        operacoes.values().stream().sorted((a, b) -> a.nome.compareTo(b.nome)).forEach(op -> {
+            if (op.getContagem() == 0) return;
+            sb.append(String.format("%-22s n=%d media=%.2fus p50=%.2fus p99=%.2fus p99.9=%.2fus max=%.2fus%n",
+                    op.nome, op.getContagem(), op.getMediaMicros(), op.getP50Micros(),
+                    op.getP99Micros(), op.getP999Micros(), op.getMaxMicros()));
+        });
+        medidores.entrySet().stream().sorted(Map.Entry.comparingByKey()).forEach(e ->
+                sb.append(String.format("%-22s %d%n", e.getKey(), e.getValue().getAsLong())));
+        return sb.toString();
+    }
+
+    // Escreve texto() no log a cada periodoSegundos, numa thread daemon.
+    public static synchronized void iniciarDump(long periodoSegundos) {
+        pararDump();
+        dump = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "metricas-dump");
+            t.setDaemon(true);
+            return t;
+        });
+        dump.scheduleAtFixedRate(() -> logger.info("Métricas:\n" + texto()),
+                periodoSegundos, periodoSegundos, TimeUnit.SECONDS);
+    }
+
+    public static synchronized void pararDump() {
+        if (dump != null) {
+            dump.shutdownNow();
+            dump = null;
+        }
+    }
+
+    private static void registrarMBean(String tipo, String nome, Object mbean) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(DOMINIO + ":type=" + tipo + ",name=" + ObjectName.quote(nome));
+            if (servidor.isRegistered(on)) servidor.unregisterMBean(on);
+            servidor.registerMBean(mbean, on);
+        } catch (Exception e) {
+            // sem JMX as métricas continuam disponíveis por texto()
+            logger.log(Level.WARNING, "Não foi possível registrar o MBean " + nome, e);
+        }
+    }
+
+    private static void removerMBean(String tipo, String nome) {
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName on = new ObjectName(DOMINIO + ":type=" + tipo + ",name=" + ObjectName.quote(nome));
+            if (servidor.isRegistered(on)) servidor.unregisterMBean(on);
+        } catch (Exception e) {
+            logger.log(Level.WARNING, "Não foi possível remover o MBean " + nome, e);
+        }
+    }
+}
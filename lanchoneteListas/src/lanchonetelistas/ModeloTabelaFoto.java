@@ -0,0 +1,156 @@
+package lanchonetelistas;
+import java.util.*;
+import javax.swing.table.AbstractTableModel;
+
+// Base dos modelos de JTable que mostram uma foto imutável das linhas em vez
+// de ler o motor a cada getValueAt.
+//
+// Os avisos do motor (de qualquer thread, cliques inclusive) só marcam que
+// algo mudou. No máximo uma vez por quadro a AtualizacaoTela chama preparar()
+// na thread de fundo: ela lê a ordem atual dos objetos vivos, copia para
+// linhas imutáveis o que a tabela mostra (reaproveitando as linhas que não
+// mudaram) e compara com a foto anterior pelo começo e pelo fim em comum. Na
+// EDT, aplicar() só troca a foto e dispara os eventos dessa diferença: um
+// bloco inserido ou removido mais o intervalo de linhas alteradas, ou tudo
+// quando a ordem muda no meio. Assim getRowCount/getValueAt sempre batem com
+// os eventos que a JTable já recebeu.
+//
+// T é o objeto vivo do motor; L, a cópia que a tabela mostra.
+public abstract class ModeloTabelaFoto<T, L> extends AbstractTableModel implements AtualizacaoTela.Alvo {
+
+    private final AtualizacaoTela atualizacao;
+    // só na EDT
+    private List<L> linhas = List.of();
+    // só na thread de fundo: a última foto montada
+    private List<L> montada = List.of();
+    // montada na thread de fundo e consumida pela EDT (a publicação ordena as duas)
+    private Diferenca<L> pronta;
+
+    private static final class Diferenca<L> {
+        final List<L> linhas;
+        // [inicio, fimAntes) saiu e [inicio, fimDepois) entrou
+        final int inicio;
+        final int fimAntes;
+        final int fimDepois;
+        // linhas alteradas, em índices da foto nova; ate < 0 se nenhuma
+        final int alteradaDe;
+        final int alteradaAte;
+
+        Diferenca(List<L> linhas, int inicio, int fimAntes, int fimDepois, int alteradaDe, int alteradaAte) {
+            this.linhas = linhas;
+            this.inicio = inicio;
+            this.fimAntes = fimAntes;
+            this.fimDepois = fimDepois;
+            this.alteradaDe = alteradaDe;
+            this.alteradaAte = alteradaAte;
+        }
+    }
+
+    protected ModeloTabelaFoto() {
+        this(null);
+    }
+
+    // operacao mede cada aplicar() na EDT (ver AtualizacaoTela)
+    protected ModeloTabelaFoto(Metricas.Operacao operacao) {
+        this.atualizacao = new AtualizacaoTela(this, operacao);
+    }
+
+    // Foto imutável da ordem atual dos objetos vivos (chamado fora da EDT).
+    protected abstract List<T> ler();
+
+    // Cópia do que a tabela mostra do objeto.
+    protected abstract L copiar(T vivo);
+
+    protected abstract T origem(L linha);
+
+    // A cópia ainda mostra o objeto como ele está?
+    protected abstract boolean igual(L linha, T vivo);
+
+    // Monta a primeira foto direto. Chamar com o lock do motor, junto com o
+    // addOuvinte, para nenhum aviso escapar entre os dois.
+    protected void iniciar() {
+        ArrayList<L> primeiras = new ArrayList<>();
+        for (T vivo : ler()) primeiras.add(copiar(vivo));
+        montada = Collections.unmodifiableList(primeiras);
+        linhas = montada;
+    }
+
+    // Qualquer mudança no motor, de qualquer thread.
+    protected void mudou() {
+        atualizacao.tudo();
+    }
+
+    // Linha da foto que a tabela mostra, ou null fora dela.
+    public L getLinha(int linha) {
+        List<L> l = linhas;
+        return linha >= 0 && linha < l.size() ? l.get(linha) : null;
+    }
+
+    @Override
+    public int getRowCount() {
+        return linhas.size();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void preparar() {
+        List<T> vivos = ler();
+        List<L> antes = montada;
+        int n = vivos.size();
+        int na = antes.size();
+        int min = Math.min(n, na);
+        Object[] novas = new Object[n];
+        int alteradaDe = Integer.MAX_VALUE;
+        int alteradaAte = -1;
+        // começo em comum: mesmos objetos nas mesmas linhas
+        int p = 0;
+        while (p < min && origem(antes.get(p)) == vivos.get(p)) {
+            L velha = antes.get(p);
+            T vivo = vivos.get(p);
+            if (igual(velha, vivo)) {
+                novas[p] = velha;
+            } else {
+                novas[p] = copiar(vivo);
+                alteradaDe = Math.min(alteradaDe, p);
+                alteradaAte = p;
+            }
+            p++;
+        }
+        // fim em comum
+        int s = 0;
+        while (s < min - p && origem(antes.get(na - 1 - s)) == vivos.get(n - 1 - s)) {
+            L velha = antes.get(na - 1 - s);
+            T vivo = vivos.get(n - 1 - s);
+            int i = n - 1 - s;
+            if (igual(velha, vivo)) {
+                novas[i] = velha;
+            } else {
+                novas[i] = copiar(vivo);
+                alteradaDe = Math.min(alteradaDe, i);
+                alteradaAte = Math.max(alteradaAte, i);
+            }
+            s++;
+        }
+        for (int i = p; i < n - s; i++) novas[i] = copiar(vivos.get(i));
+        List<L> foto = Collections.unmodifiableList((List<L>) Arrays.asList(novas));
+        montada = foto;
+        pronta = new Diferenca<>(foto, p, na - s, n - s, alteradaDe, alteradaAte);
+    }
+
+    @Override
+    public void aplicar(boolean tudo, int de, int ate) {
+        Diferenca<L> d = pronta;
+        pronta = null;
+        if (d == null) return;
+        linhas = d.linhas;
+        boolean saiu = d.fimAntes > d.inicio;
+        boolean entrou = d.fimDepois > d.inicio;
+        if (saiu && entrou) {
+            fireTableDataChanged();
+            return;
+        }
+        if (saiu) fireTableRowsDeleted(d.inicio, d.fimAntes - 1);
+        if (entrou) fireTableRowsInserted(d.inicio, d.fimDepois - 1);
+        if (d.alteradaAte >= 0) fireTableRowsUpdated(d.alteradaDe, d.alteradaAte);
+    }
+}
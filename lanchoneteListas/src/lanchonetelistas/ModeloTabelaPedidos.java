@@ -0,0 +1,127 @@
+package lanchonetelistas;
+import java.util.List;
+import java.util.Objects;
+
+// Modelo da JTable dos pedidos. Mostra a foto montada pelo ModeloTabelaFoto,
+// nunca o motor direto: os avisos só marcam a mudança, e a diferença chega à
+// tabela no máximo uma vez por quadro.
+public class ModeloTabelaPedidos extends ModeloTabelaFoto<Pedido, ModeloTabelaPedidos.Linha> implements MotorPedidos.Ouvinte {
+
+    private static final String[] COLUNAS = { "Item", "Quantidade", "Valor" };
+
+    // O que a tabela mostra de um pedido.
+    public static final class Linha {
+        public final Pedido pedido;
+        public final String item;
+        public final int quantidade;
+        public final double valor;
+
+        Linha(Pedido p) {
+            this.pedido = p;
+            this.item = p.item;
+            this.quantidade = p.quantidade;
+            this.valor = p.valor;
+        }
+    }
+
+    private final MotorPedidos motor;
+
+    public ModeloTabelaPedidos(MotorPedidos motor) {
+        this.motor = motor;
+        synchronized (motor) {
+            motor.addOuvinte(this);
+            iniciar();
+        }
+    }
+
+    public MotorPedidos getMotor() {
+        return motor;
+    }
+
+    // Pedido que a tabela mostra na linha (não o que o motor tem agora nela).
+    public Pedido getPedido(int linha) {
+        Linha l = getLinha(linha);
+        return l == null ? null : l.pedido;
+    }
+
+    @Override
+    public void adicionado(Pedido p, int linha) {
+        mudou();
+    }
+
+    @Override
+    public void removido(Pedido p, int linha) {
+        mudou();
+    }
+
+    @Override
+    public void alterado(Pedido p, int linha) {
+        mudou();
+    }
+
+    @Override
+    public void recarregado() {
+        mudou();
+    }
+
+    @Override
+    protected List<Pedido> ler() {
+        return motor.listar();
+    }
+
+    @Override
+    protected Linha copiar(Pedido p) {
+        return new Linha(p);
+    }
+
+    @Override
+    protected Pedido origem(Linha l) {
+        return l.pedido;
+    }
+
+    @Override
+    protected boolean igual(Linha l, Pedido p) {
+        return l.quantidade == p.quantidade && Double.compare(l.valor, p.valor) == 0 && Objects.equals(l.item, p.item);
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUNAS.length;
+    }
+
+    @Override
+    public String getColumnName(int coluna) {
+        return COLUNAS[coluna];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int coluna) {
+        switch (coluna) {
+            case 1 -> {
+                return Integer.class;
+            }
+            case 2 -> {
+                return Double.class;
+            }
+        }
+        return String.class;
+    }
+
+    @Override
+    public Object getValueAt(int linha, int coluna) {
+        Linha l = getLinha(linha);
+        if (l == null) return null;
+        switch (coluna) {
+            case 0 -> {
+                return l.item;
+            }
+            case 1 -> {
+                return l.quantidade;
+            }
+            case 2 -> {
+                return l.valor;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+package lanchonetelistas;
+import java.util.*;
+import lanchonetelistas.RestaurantTablesApp.Table;
+import lanchonetelistas.RestaurantTablesApp.TableList;
+
+// API das mesas sem dependência de Swing, no mesmo molde do MotorPedidos.
+// O RestaurantTablesApp só lê os campos e mostra o resultado.
+public class MotorMesas {
+
+    public enum Resultado {
+        OK, NAO_ENCONTRADA, JA_OCUPADA
+    }
+
+    public interface Ouvinte {
+        void criada(Table t, int linha);
+
+        void removida(Table t, int linha);
+
+        // ocupada ou liberada
+        void alterada(Table t, int linha);
+
+        void recarregado();
+    }
+
+    private final TableList lista = new TableList();
+    private final List<Ouvinte> ouvintes = new java.util.concurrent.CopyOnWriteArrayList<>();
+    // ações que ouvintes pediram durante um aviso; rodam quando ele termina
+    private final ArrayDeque<Runnable> depoisDoAviso = new ArrayDeque<>();
+    // avisos em andamento (mais de um só se um ouvinte mexer nas mesas direto)
+    private int avisando;
+
+    public void addOuvinte(Ouvinte o) {
+        ouvintes.add(o);
+    }
+
+    public void removeOuvinte(Ouvinte o) {
+        ouvintes.remove(o);
+    }
+
+    public synchronized Table criarMesa(int capacidade) {
+        if (capacidade <= 0) throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        Table t = lista.createTable(capacidade);
+        int linha = lista.size() - 1;
+        avisar(o -> o.criada(t, linha));
+        return t;
+    }
+
+    public synchronized List<Table> criarMesas(int... capacidades) {
+        ArrayList<Table> criadas = new ArrayList<>(capacidades.length);
+        for (int c : capacidades) criadas.add(criarMesa(c));
+        return criadas;
+    }
+
+    // Recria uma mesa com o id que ela tinha em outro lugar (réplica,
+    // importação). O próximo id criado aqui passa a ser maior que ele.
+    public synchronized Table restaurarMesa(int id, int capacidade, boolean ocupada, String nomeGrupo) {
+        if (capacidade <= 0) throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        Table t = lista.restoreTable(id, capacidade);
+        if (ocupada) lista.seat(t, nomeGrupo);
+        int linha = lista.size() - 1;
+        avisar(o -> o.criada(t, linha));
+        return t;
+    }
+
+    // Como restaurarMesa, mas na posição antes da mesa antesDeId (se ela
+    // existir), para a mesa voltar ao lugar que tinha na cadeia.
+    public synchronized Table restaurarMesa(int id, int capacidade, boolean ocupada, String nomeGrupo, int antesDeId) {
+        if (capacidade <= 0) throw new IllegalArgumentException("Capacidade inválida: " + capacidade);
+        Table t = lista.restoreTableBefore(id, capacidade, antesDeId);
+        if (ocupada) lista.seat(t, nomeGrupo);
+        int linha = lista.rowOf(id);
+        avisar(o -> o.criada(t, linha));
+        return t;
+    }
+
+    public synchronized int getProximoId() {
+        return lista.nextId;
+    }
+
+    // Só avança: ids já usados nunca voltam.
+    public synchronized void setProximoId(int id) {
+        lista.nextId = Math.max(lista.nextId, id);
+    }
+
+    public synchronized boolean removerMesa(int id) {
+        int linha = lista.rowOf(id);
+        if (linha < 0) return false;
+        Table t = lista.findById(id);
+        lista.removeTableById(id);
+        avisar(o -> o.removida(t, linha));
+        return true;
+    }
+
+    public synchronized Resultado ocupar(int id, String nomeGrupo) {
+        Table t = lista.findById(id);
+        if (t == null) return Resultado.NAO_ENCONTRADA;
+        if (t.occupied) return Resultado.JA_OCUPADA;
+        lista.seat(t, nomeGrupo);
+        avisarAlterada(t);
+        return Resultado.OK;
+    }
+
+    // Ocupa a menor mesa livre em que o grupo cabe; null se nenhuma couber.
+    public synchronized Table alocar(int tamanhoGrupo, String nomeGrupo) {
+        Table t = lista.findBestFit(tamanhoGrupo);
+        if (t == null) return null;
+        lista.seat(t, nomeGrupo);
+        avisarAlterada(t);
+        return t;
+    }
+
+    public synchronized Resultado liberar(int id) {
+        Table t = lista.findById(id);
+        if (t == null) return Resultado.NAO_ENCONTRADA;
+        lista.free(t);
+        avisarAlterada(t);
+        return Resultado.OK;
+    }
+
+    public synchronized void limpar() {
+        lista.clear();
+        avisar(o -> o.recarregado());
+    }
+
+    public synchronized Table buscar(int id) {
+        return lista.findById(id);
+    }
+
+    // Mesa na linha da tabela (ordem da cadeia), ou null se não existe mais.
+    public synchronized Table get(int linha) {
+        if (linha < 0 || linha >= lista.size()) return null;
+        return lista.get(linha);
+    }
+
+    public synchronized int tamanho() {
+        return lista.size();
+    }
+
+    public synchronized int livres() {
+        return lista.freeCount();
+    }
+
+    // Array compartilhado da TableList; não deve ser alterado.
+    public synchronized Table[] toArray() {
+        return lista.toArray();
+    }
+
+    private void avisarAlterada(Table t) {
+        int linha = lista.rowOf(t.id);
+        avisar(o -> o.alterada(t, linha));
+    }
+
+    // Um ouvinte que quer mudar as mesas por causa de um aviso (a ListaEspera
+    // sentando um grupo na mesa que vagou) pede por aqui: a ação roda quando
+    // todos os ouvintes já receberam o aviso atual, então um aviso nunca
+    // começa dentro de outro e todos veem as mudanças na mesma ordem. Fora de
+    // um aviso, roda na hora.
+    public synchronized void depoisDoAviso(Runnable acao) {
+        if (avisando > 0) depoisDoAviso.add(acao);
+        else acao.run();
+    }
+
+    private void avisar(java.util.function.Consumer<Ouvinte> aviso) {
+        avisando++;
+        try {
+            for (Ouvinte o : ouvintes) aviso.accept(o);
+        } finally {
+            avisando--;
+        }
+        if (avisando > 0) return;
+        Runnable acao;
+        while ((acao = depoisDoAviso.poll()) != null) acao.run();
+    }
+}
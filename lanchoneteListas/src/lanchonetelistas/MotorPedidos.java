@@ -0,0 +1,305 @@
+package lanchonetelistas;
+import java.util.*;
+
+// API dos pedidos abertos sem dependência de Swing. As telas (e qualquer
+// outro cliente) chamam estes métodos e recebem as mudanças pelo Ouvinte.
+//
+// Os pedidos ficam num GerenciadorPedidos (modo normal) e a visão é a
+// estrutura ativa dele: LISTA, FILA e LISTA_ENCADEADA mostram do mais antigo
+// ao mais recente, PILHA do mais recente ao mais antigo e PRIORIDADE na ordem
+// em que os pedidos vão sair. Trocar de visão passa os pedidos para a outra
+// estrutura, e removerProximo() tira o que ela tiraria. Os métodos são
+// sincronizados, então o motor pode ser usado por várias threads.
+public class MotorPedidos {
+
+    public interface Ouvinte {
+        // linha na visão atual logo após a inclusão; -1 na PRIORIDADE, em que
+        // a linha depende das chaves
+        void adicionado(Pedido p, int linha);
+
+        // voltou por reinserir (desfazer, réplica), com a ordem de chegada
+        // que tinha. Para quem não distingue é uma inclusão.
+        default void reinserido(Pedido p, int linha) {
+            adicionado(p, linha);
+        }
+
+        // linha que o pedido ocupava, ou -1 se não era conhecida
+        void removido(Pedido p, int linha);
+
+        // saiu por removerProximo (pop, poll, o de maior prioridade): foi
+        // atendido, não cancelado. Para quem não distingue é uma remoção.
+        default void servido(Pedido p, int linha) {
+            removido(p, linha);
+        }
+
+        // a quantidade mudou (item repetido somado na mesma linha), na linha que o pedido ocupa
+        void alterado(Pedido p, int linha);
+
+        // a ordem inteira mudou (troca de visão, limpeza)
+        void recarregado();
+    }
+
+    private final GerenciadorPedidos gerenciador;
+    private final List<Ouvinte> ouvintes = new java.util.concurrent.CopyOnWriteArrayList<>();
+    // linha aberta de cada SKU, para somar itens iguais em vez de criar linhas
+    private final HashMap<Integer, Pedido> linhaPorSku = new HashMap<>();
+    // pedidos abertos pela ordem de chegada (id estável para clientes remotos)
+    private final HashMap<Long, Pedido> porOrdem = new HashMap<>();
+    // foto das linhas na visão atual, refeita na primeira leitura depois de uma mudança
+    private List<Pedido> linhas;
+
+    public MotorPedidos() {
+        this(new GerenciadorPedidos());
+    }
+
+    // O gerenciador pode já vir com pedidos (recuperados pelo DiarioPedidos,
+    // por exemplo); os da estrutura ativa ficam abertos no motor. O motor já
+    // serializa tudo, então o gerenciador tem de estar no modo normal.
+    public MotorPedidos(GerenciadorPedidos gerenciador) {
+        if (gerenciador.isConcorrente()) {
+            throw new IllegalArgumentException("MotorPedidos precisa de um GerenciadorPedidos no modo normal");
+        }
+        this.gerenciador = gerenciador;
+        for (Pedido p : gerenciador.getPedidos()) indexar(p);
+    }
+
+    public GerenciadorPedidos getGerenciador() {
+        return gerenciador;
+    }
+
+    public void addOuvinte(Ouvinte o) {
+        ouvintes.add(o);
+    }
+
+    public void removeOuvinte(Ouvinte o) {
+        ouvintes.remove(o);
+    }
+
+    // ---- inclusão ----
+
+    public synchronized Pedido submeter(String item, int quantidade, double valor) {
+        Pedido p = new Pedido(item, quantidade, valor);
+        submeter(p);
+        return p;
+    }
+
+    // Soma quantidade à linha aberta do mesmo item, ou cria a linha se não há.
+    // IllegalArgumentException se a soma passar de Integer.MAX_VALUE.
+    public synchronized Pedido submeter(ItemCardapio item, int quantidade) {
+        Pedido p = linhaPorSku.get(item.getSku());
+        if (p == null) {
+            p = new Pedido(item, quantidade);
+            submeter(p);
+        } else {
+            int soma;
+            try {
+                soma = Math.addExact(p.quantidade, quantidade);
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Quantidade grande demais para " + item.getNome());
+            }
+            alterarQuantidade(p, soma);
+        }
+        return p;
+    }
+
+    public synchronized void submeter(Pedido p) {
+        if (porOrdem.get(p.ordem) == p) throw new IllegalStateException("Pedido já está aberto");
+        gerenciador.adicionar(p);
+        indexar(p);
+        linhas = null;
+        int linha = switch (gerenciador.getEstrutura()) {
+            case PILHA -> 0;
+            case PRIORIDADE -> -1;
+            default -> gerenciador.tamanho() - 1;
+        };
+        for (Ouvinte o : ouvintes) o.adicionado(p, linha);
+    }
+
+    // Devolve um pedido que saiu ao lugar que ele tinha (pela ordem de chegada).
+    public synchronized void reinserir(Pedido p) {
+        gerenciador.reinserir(p);
+        indexar(p);
+        linhas = null;
+        int linha = linhaDe(p);
+        for (Ouvinte o : ouvintes) o.reinserido(p, linha);
+    }
+
+    // Pedido lido de uma foto na visão PRIORIDADE, com a chave e a chegada que tinha.
+    synchronized void restaurarPrioridade(Pedido p, long chave, long sequencia) {
+        gerenciador.restaurarPrioridade(p, chave, sequencia);
+        indexar(p);
+        linhas = null;
+        for (Ouvinte o : ouvintes) o.adicionado(p, -1);
+    }
+
+    public synchronized void submeterLote(Collection<Pedido> pedidos) {
+        for (Pedido p : pedidos) submeter(p);
+    }
+
+    public synchronized boolean alterarQuantidade(Pedido p, int quantidade) {
+        if (!gerenciador.alterarQuantidade(p, quantidade)) return false;
+        // a quantidade não muda a ordem; na PRIORIDADE a linha sai da foto ordenada
+        int linha = gerenciador.getEstrutura() == GerenciadorPedidos.TipoEstrutura.PRIORIDADE
+                ? linhas().indexOf(p)
+                : linhaDe(p);
+        for (Ouvinte o : ouvintes) o.alterado(p, linha);
+        return true;
+    }
+
+    // ---- remoção ----
+
+    // Pelo próprio pedido: O(log n) para achar mais O(min(i, n - i)) para
+    // fechar o buraco na sequência; na PRIORIDADE, O(log n).
+    public synchronized boolean remover(Pedido p) {
+        int linha = linhaDe(p);
+        if (!gerenciador.remover(p)) return false;
+        desindexar(p);
+        linhas = null;
+        for (Ouvinte o : ouvintes) o.removido(p, linha);
+        return true;
+    }
+
+    // O que a estrutura da visão tira: pop na pilha, poll na fila, o de maior
+    // prioridade na PRIORIDADE e o último na lista.
+    public synchronized Pedido removerProximo() {
+        int n = gerenciador.tamanho();
+        Pedido p = gerenciador.retirar();
+        if (p != null) {
+            desindexar(p);
+            linhas = null;
+            int linha = switch (gerenciador.getEstrutura()) {
+                case LISTA, LISTA_ENCADEADA -> n - 1;
+                default -> 0;
+            };
+            for (Ouvinte o : ouvintes) o.servido(p, linha);
+        }
+        return p;
+    }
+
+    // Remove até n pedidos seguindo a visão atual.
+    public synchronized List<Pedido> removerLote(int n) {
+        ArrayList<Pedido> removidos = new ArrayList<>(Math.min(n, gerenciador.tamanho()));
+        for (int i = 0; i < n && gerenciador.tamanho() > 0; i++) {
+            removidos.add(removerProximo());
+        }
+        return removidos;
+    }
+
+    public synchronized int removerLote(Collection<Pedido> pedidos) {
+        int n = 0;
+        for (Pedido p : pedidos) {
+            if (remover(p)) n++;
+        }
+        return n;
+    }
+
+    public synchronized void limpar() {
+        gerenciador.limpar();
+        linhaPorSku.clear();
+        porOrdem.clear();
+        linhas = null;
+        for (Ouvinte o : ouvintes) o.recarregado();
+    }
+
+    private void indexar(Pedido p) {
+        if (p.getCardapio() != null) linhaPorSku.putIfAbsent(p.getSku(), p);
+        porOrdem.put(p.ordem, p);
+    }
+
+    private void desindexar(Pedido p) {
+        if (p.getCardapio() != null) linhaPorSku.remove(p.getSku(), p);
+        porOrdem.remove(p.ordem, p);
+    }
+
+    // Linha do pedido na visão atual, ou -1 (PRIORIDADE, ou se não está aberto).
+    private int linhaDe(Pedido p) {
+        int i = gerenciador.indiceDe(p);
+        if (i < 0 || gerenciador.getEstrutura() != GerenciadorPedidos.TipoEstrutura.PILHA) return i;
+        return gerenciador.tamanho() - 1 - i;
+    }
+
+    // A pilha guarda o topo no fim; as outras sequências já estão na ordem da
+    // visão. Na PRIORIDADE o gerenciador devolve uma cópia ordenada.
+    private List<Pedido> linhas() {
+        if (linhas == null) {
+            List<Pedido> foto = gerenciador.getPedidos();
+            linhas = gerenciador.getEstrutura() == GerenciadorPedidos.TipoEstrutura.PILHA
+                    ? foto.reversed()
+                    : Collections.unmodifiableList(foto);
+        }
+        return linhas;
+    }
+
+    // ---- visão ----
+
+    public synchronized GerenciadorPedidos.TipoEstrutura getVisao() {
+        return gerenciador.getEstrutura();
+    }
+
+    // Passa os pedidos abertos para a estrutura do tipo. Todos os tipos do
+    // GerenciadorPedidos são aceitos; null é rejeitado.
+    public synchronized void setVisao(GerenciadorPedidos.TipoEstrutura tipo) {
+        Objects.requireNonNull(tipo, "visão");
+        if (tipo == gerenciador.getEstrutura()) return;
+        gerenciador.trocarEstrutura(tipo);
+        linhas = null;
+        for (Ouvinte o : ouvintes) o.recarregado();
+    }
+
+    // ---- consultas ----
+
+    public synchronized int tamanho() {
+        return gerenciador.tamanho();
+    }
+
+    public synchronized boolean isEmpty() {
+        return gerenciador.tamanho() == 0;
+    }
+
+    // Pedido na linha da visão atual, ou null se a linha não existe mais.
+    public synchronized Pedido get(int linha) {
+        List<Pedido> l = linhas();
+        if (linha < 0 || linha >= l.size()) return null;
+        return l.get(linha);
+    }
+
+    // Foto imutável na ordem da visão atual (O(1) fora da PRIORIDADE).
+    public synchronized List<Pedido> listar() {
+        return linhas();
+    }
+
+    // Do mais antigo ao mais recente, seja qual for a visão.
+    public synchronized List<Pedido> listarNaOrdemDeChegada() {
+        List<Pedido> l = linhas();
+        switch (gerenciador.getEstrutura()) {
+            case PILHA -> {
+                return l.reversed();
+            }
+            case PRIORIDADE -> {
+                ArrayList<Pedido> copia = new ArrayList<>(l);
+                copia.sort(Comparator.comparingLong(Pedido::getOrdem));
+                return copia;
+            }
+        }
+        return l;
+    }
+
+    // Pedido aberto com essa ordem de chegada (getOrdem), ou null.
+    public synchronized Pedido buscar(long ordem) {
+        return porOrdem.get(ordem);
+    }
+
+    public synchronized List<Pedido> buscarPorItem(String item) {
+        ArrayList<Pedido> achados = new ArrayList<>();
+        for (Pedido p : linhas()) {
+            if (Objects.equals(p.item, item)) achados.add(p);
+        }
+        return achados;
+    }
+
+    public synchronized double total() {
+        double soma = 0;
+        for (Pedido p : linhas()) soma += p.valor * p.quantidade;
+        return soma;
+    }
+}
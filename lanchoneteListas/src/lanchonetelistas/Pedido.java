@@ -4,11 +4,40 @@ public class Pedido {
     public String item;
     public int quantidade;
     public double valor;
+    // item do cardápio que originou o pedido, ou null se foi digitado à parte
+    private final ItemCardapio cardapio;
+
+    // ordem de chegada, dada pelo GerenciadorPedidos; reinserir mantém, então
+    // o pedido volta ao mesmo lugar
+    long ordem;
 
     public Pedido(String item, int quantidade, double valor) {
+        this(item, quantidade, valor, null);
+    }
+
+    public Pedido(ItemCardapio item, int quantidade) {
+        this(item.getNome(), quantidade, item.getPreco(), item);
+    }
+
+    private Pedido(String item, int quantidade, double valor, ItemCardapio cardapio) {
         this.item = item;
         this.quantidade = quantidade;
         this.valor = valor;
+        this.cardapio = cardapio;
+    }
+
+    // Ordem de chegada no gerenciador em que está (ou esteve por último).
+    public long getOrdem() {
+        return ordem;
+    }
+
+    public ItemCardapio getCardapio() {
+        return cardapio;
+    }
+
+    // -1 se não veio do cardápio.
+    public int getSku() {
+        return cardapio == null ? -1 : cardapio.getSku();
     }
 
     public String getItem() {
@@ -0,0 +1,56 @@
+package lanchonetelistas;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Pilha sem lock (Treiber): push/pop são um compareAndSet no topo.
+public class PilhaTreiber<E> {
+
+    private static final class No<E> {
+        final E valor;
+        final No<E> proximo;
+
+        No(E valor, No<E> proximo) {
+            this.valor = valor;
+            this.proximo = proximo;
+        }
+    }
+
+    private final AtomicReference<No<E>> topo = new AtomicReference<>();
+
+    public void push(E valor) {
+        No<E> antigo;
+        No<E> novo;
+        do {
+            antigo = topo.get();
+            novo = new No<>(valor, antigo);
+        } while (!topo.compareAndSet(antigo, novo));
+    }
+
+    public E pop() {
+        No<E> antigo;
+        do {
+            antigo = topo.get();
+            if (antigo == null) return null;
+        } while (!topo.compareAndSet(antigo, antigo.proximo));
+        return antigo.valor;
+    }
+
+    public E peek() {
+        No<E> t = topo.get();
+        return t == null ? null : t.valor;
+    }
+
+    public boolean isEmpty() {
+        return topo.get() == null;
+    }
+
+    // Copia da base para o topo, na mesma ordem de new ArrayList<>(stack).
+    public List<E> toList() {
+        ArrayList<E> itens = new ArrayList<>();
+        for (No<E> cur = topo.get(); cur != null; cur = cur.proximo) {
+            itens.add(cur.valor);
+        }
+        Collections.reverse(itens);
+        return itens;
+    }
+}
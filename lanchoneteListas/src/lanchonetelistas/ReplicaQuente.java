@@ -0,0 +1,230 @@
+package lanchonetelistas;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Réplica em espera quente: recebe o FluxoEventos de uma ReplicacaoPrimaria
+// e aplica cada evento nos próprios MotorPedidos e MotorMesas. Se a primária
+// cair, basta abrir interfacegrafica/RestaurantTablesApp com estes motores.
+//
+// Guarda o id do fluxo e a posição aplicada; conectar de novo retoma dali,
+// e a primária só manda o estado inteiro se a posição não servir mais.
+public class ReplicaQuente implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ReplicaQuente.class.getName());
+    private static final GerenciadorPedidos.TipoEstrutura[] TIPOS = GerenciadorPedidos.TipoEstrutura.values();
+
+    private final MotorPedidos pedidos;
+    private final MotorMesas mesas;
+    // id dado pela primária -> pedido aplicado aqui
+    private final HashMap<Long, Pedido> porId = new HashMap<>();
+
+    private volatile long idFluxo;
+    private volatile long posicao = -1;
+    private volatile Socket socket;
+    private final Object avanco = new Object();
+
+    public ReplicaQuente(MotorPedidos pedidos, MotorMesas mesas) {
+        this.pedidos = pedidos;
+        this.mesas = mesas;
+    }
+
+    public MotorPedidos getPedidos() {
+        return pedidos;
+    }
+
+    public MotorMesas getMesas() {
+        return mesas;
+    }
+
+    // Posição do fluxo já aplicada (-1 antes do primeiro estado).
+    public long getPosicao() {
+        return posicao;
+    }
+
+    public boolean isConectada() {
+        Socket s = socket;
+        return s != null && !s.isClosed();
+    }
+
+    public synchronized void conectar(String host, int porta) throws IOException {
+        desconectar();
+        Socket s = new Socket();
+        s.setTcpNoDelay(true);
+        s.connect(new InetSocketAddress(host, porta));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(s.getOutputStream(), 64));
+        out.writeLong(idFluxo);
+        out.writeLong(posicao);
+        out.flush();
+        socket = s;
+        Thread t = new Thread(() -> receber(s, out), "replica-" + porta);
+        t.setDaemon(true);
+        t.start();
+    }
+
+    public synchronized void desconectar() {
+        Socket s = socket;
+        socket = null;
+        if (s != null) {
+            try {
+                s.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+
+    // Espera a réplica aplicar até alvo (posição da primária, ex.: FluxoEventos.getFim()).
+    public boolean aguardar(long alvo, long timeoutMillis) throws InterruptedException {
+        long limite = System.currentTimeMillis() + timeoutMillis;
+        synchronized (avanco) {
+            while (posicao < alvo) {
+                long resta = limite - System.currentTimeMillis();
+                if (resta <= 0) return false;
+                avanco.wait(resta);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void close() {
+        desconectar();
+    }
+
+    private void receber(Socket s, DataOutputStream out) {
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(s.getInputStream(), 1 << 16));
+            while (true) {
+                int n = in.readInt();
+                byte tipo = in.readByte();
+                aplicar(tipo, in);
+                if (tipo != FluxoEventos.ESTADO) posicao += 4 + n;
+                // confirma quando acabou o que já chegou; sob carga uma por lote
+                if (in.available() == 0) {
+                    out.writeLong(posicao);
+                    out.flush();
+                    synchronized (avanco) {
+                        avanco.notifyAll();
+                    }
+                }
+            }
+        } catch (EOFException e) {
+            // primária fechou
+        } catch (IOException e) {
+            if (socket == s) logger.log(Level.WARNING, "Réplica desconectada", e);
+        } finally {
+            synchronized (this) {
+                if (socket == s) socket = null;
+            }
+            try {
+                s.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+
+    private void aplicar(byte tipo, DataInputStream in) throws IOException {
+        switch (tipo) {
+            case FluxoEventos.PEDIDO_ADICIONADO -> {
+                long id = in.readLong();
+                long ordem = in.readLong();
+                Pedido p = lerPedido(in);
+                porId.put(id, p);
+                entrar(p, ordem);
+            }
+            case FluxoEventos.PEDIDO_REMOVIDO -> {
+                Pedido p = porId.remove(in.readLong());
+                if (p != null) pedidos.remover(p);
+            }
+            case FluxoEventos.PEDIDO_ALTERADO -> {
+                Pedido p = porId.get(in.readLong());
+                int quantidade = in.readInt();
+                if (p != null) pedidos.alterarQuantidade(p, quantidade);
+            }
+            case FluxoEventos.PEDIDOS_RECARREGADOS -> {
+                GerenciadorPedidos.TipoEstrutura visao = TIPOS[in.readByte()];
+                if (in.readBoolean()) {
+                    porId.clear();
+                    pedidos.limpar();
+                }
+                pedidos.setVisao(visao);
+            }
+            case FluxoEventos.MESA_CRIADA -> {
+                int id = in.readInt();
+                int capacidade = in.readInt();
+                boolean ocupada = in.readBoolean();
+                String nome = lerTexto(in);
+                mesas.restaurarMesa(id, capacidade, ocupada, nome, in.readInt());
+            }
+            case FluxoEventos.MESA_REMOVIDA -> mesas.removerMesa(in.readInt());
+            case FluxoEventos.MESA_ALTERADA -> {
+                int id = in.readInt();
+                boolean ocupada = in.readBoolean();
+                String nome = lerTexto(in);
+                if (ocupada) mesas.ocupar(id, nome);
+                else mesas.liberar(id);
+            }
+            case FluxoEventos.MESAS_LIMPAS -> mesas.limpar();
+            case FluxoEventos.ESTADO -> aplicarEstado(in);
+            default -> throw new IOException("Evento desconhecido: " + tipo);
+        }
+    }
+
+    private void aplicarEstado(DataInputStream in) throws IOException {
+        long id = in.readLong();
+        long inicio = in.readLong();
+        GerenciadorPedidos.TipoEstrutura visao = TIPOS[in.readByte()];
+        porId.clear();
+        pedidos.limpar();
+        pedidos.setVisao(visao);
+        int n = in.readInt();
+        for (int i = 0; i < n; i++) {
+            long idPedido = in.readLong();
+            long ordem = in.readLong();
+            Pedido p = lerPedido(in);
+            porId.put(idPedido, p);
+            entrar(p, ordem);
+        }
+        mesas.limpar();
+        int m = in.readInt();
+        for (int i = 0; i < m; i++) {
+            int idMesa = in.readInt();
+            int capacidade = in.readInt();
+            boolean ocupada = in.readBoolean();
+            mesas.restaurarMesa(idMesa, capacidade, ocupada, lerTexto(in));
+        }
+        mesas.setProximoId(in.readInt());
+        idFluxo = id;
+        posicao = inicio;
+    }
+
+    // Com a ordem de chegada da primária: o motor põe o pedido no mesmo lugar
+    // (no fim, se é o mais novo; no meio, se voltou por um desfazer).
+    private void entrar(Pedido p, long ordem) {
+        p.ordem = ordem;
+        pedidos.reinserir(p);
+    }
+
+    private static Pedido lerPedido(DataInputStream in) throws IOException {
+        String item = lerTexto(in);
+        int quantidade = in.readInt();
+        double valor = Double.longBitsToDouble(in.readLong());
+        // volta a apontar para o item do cardápio, para somar linhas depois de assumir
+        return Cardapio.padrao().pedido(item, quantidade, valor);
+    }
+
+    private static String lerTexto(DataInputStream in) throws IOException {
+        if (!in.readBoolean()) return null;
+        int n = in.readInt();
+        if (n < 0) throw new IOException("Texto com tamanho inválido: " + n);
+        byte[] b = in.readNBytes(n);
+        if (b.length < n) throw new EOFException();
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
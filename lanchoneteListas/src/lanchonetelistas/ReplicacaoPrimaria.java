@@ -0,0 +1,185 @@
+package lanchonetelistas;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Lado primário da replicação: aceita réplicas (ReplicaQuente) e envia a
+// cada uma o FluxoEventos a partir de onde ela parou.
+//
+// Protocolo, tudo big-endian:
+//   réplica -> primária: id do fluxo (long) e posição (long, -1 se não tem nada)
+//   primária -> réplica: evento ESTADO, se a posição não serve, e depois os
+//                        bytes do log a partir da posição, sem parar
+//   réplica -> primária: posição aplicada (long), sempre que esvazia o que recebeu
+//
+// O envio não espera confirmação: cada volta manda de uma vez tudo que se
+// acumulou desde a anterior, então sob carga os eventos seguem em lotes
+// grandes e as confirmações chegam em paralelo. O atraso (do envio até a
+// confirmação) vai para Metricas como "replicacao.atraso".
+public class ReplicacaoPrimaria implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ReplicacaoPrimaria.class.getName());
+    private static final int LOTE = 256 << 10;
+
+    public static final Metricas.Operacao ATRASO = Metricas.operacao("replicacao.atraso");
+
+    private final FluxoEventos fluxo;
+    private final ServerSocket servidor;
+    private final List<Conexao> conexoes = new CopyOnWriteArrayList<>();
+    private volatile boolean fechado;
+
+    public ReplicacaoPrimaria(FluxoEventos fluxo, int porta) throws IOException {
+        this(fluxo, new InetSocketAddress(porta));
+    }
+
+    public ReplicacaoPrimaria(FluxoEventos fluxo, InetSocketAddress endereco) throws IOException {
+        this.fluxo = fluxo;
+        this.servidor = new ServerSocket();
+        servidor.setReuseAddress(true);
+        servidor.bind(endereco);
+        Thread t = new Thread(this::aceitar, "replicacao-aceitar");
+        t.setDaemon(true);
+        t.start();
+        Metricas.medidor("replicacao.replicas", conexoes::size);
+    }
+
+    // Só loopback, para testes e para uma réplica na mesma máquina.
+    public static ReplicacaoPrimaria local(FluxoEventos fluxo, int porta) throws IOException {
+        return new ReplicacaoPrimaria(fluxo, new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    public int getPorta() {
+        return servidor.getLocalPort();
+    }
+
+    public int getReplicas() {
+        return conexoes.size();
+    }
+
+    // Menor posição confirmada entre as réplicas conectadas (-1 se nenhuma).
+    public long getConfirmado() {
+        long menor = -1;
+        for (Conexao c : conexoes) {
+            long p = c.confirmado;
+            if (menor < 0 || p < menor) menor = p;
+        }
+        return menor;
+    }
+
+    @Override
+    public void close() throws IOException {
+        fechado = true;
+        servidor.close();
+        for (Conexao c : conexoes) c.fechar();
+    }
+
+    private void aceitar() {
+        while (!fechado) {
+            try {
+                Socket s = servidor.accept();
+                s.setTcpNoDelay(true);
+                Conexao c = new Conexao(s);
+                conexoes.add(c);
+                Thread t = new Thread(c::enviar, "replicacao-envio-" + s.getPort());
+                t.setDaemon(true);
+                t.start();
+            } catch (IOException e) {
+                if (!fechado) logger.log(Level.WARNING, "Falha ao aceitar réplica", e);
+            }
+        }
+    }
+
+    private final class Conexao {
+        private final Socket socket;
+        private volatile long confirmado = -1;
+        // (posição, instante) de cada lote ainda não confirmado
+        private final ArrayDeque<long[]> emVoo = new ArrayDeque<>();
+
+        Conexao(Socket socket) {
+            this.socket = socket;
+        }
+
+        void enviar() {
+            try {
+                DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream()));
+                OutputStream out = socket.getOutputStream();
+                long idFluxo = in.readLong();
+                long posicao = in.readLong();
+                if (idFluxo != fluxo.getId() || posicao < 0) posicao = -1;
+
+                Thread leitor = new Thread(() -> lerConfirmacoes(in), "replicacao-confirmacao-" + socket.getPort());
+                leitor.setDaemon(true);
+                leitor.start();
+
+                byte[] buf = new byte[LOTE];
+                while (!fechado) {
+                    int n = posicao < 0 ? -1 : fluxo.ler(posicao, buf, buf.length);
+                    if (n < 0) {
+                        // réplica nova, de outro fluxo ou atrasada além da retenção
+                        byte[] estado = fluxo.estado();
+                        out.write(estado);
+                        out.flush();
+                        posicao = posicaoDoEstado(estado);
+                        continue;
+                    }
+                    if (n == 0) {
+                        fluxo.aguardar(posicao, 100);
+                        continue;
+                    }
+                    out.write(buf, 0, n);
+                    posicao += n;
+                    synchronized (emVoo) {
+                        emVoo.addLast(new long[] { posicao, System.nanoTime() });
+                    }
+                }
+            } catch (EOFException | SocketException e) {
+                // réplica saiu
+            } catch (IOException e) {
+                if (!fechado) logger.log(Level.WARNING, "Falha ao enviar para a réplica", e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fechar();
+            }
+        }
+
+        void lerConfirmacoes(DataInputStream in) {
+            try {
+                while (true) {
+                    long p = in.readLong();
+                    confirmado = p;
+                    synchronized (emVoo) {
+                        while (!emVoo.isEmpty() && emVoo.peekFirst()[0] <= p) {
+                            ATRASO.fim(emVoo.pollFirst()[1]);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                fechar();
+            }
+        }
+
+        void fechar() {
+            conexoes.remove(this);
+            try {
+                socket.close();
+            } catch (IOException e) {
+                // já fechado
+            }
+        }
+    }
+
+    // [tamanho][ESTADO][id do fluxo][posição]...
+    private static long posicaoDoEstado(byte[] estado) {
+        long p = 0;
+        for (int i = 13; i < 21; i++) p = (p << 8) | (estado[i] & 0xFF);
+        return p;
+    }
+}
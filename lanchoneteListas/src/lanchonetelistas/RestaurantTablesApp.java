@@ -1,6 +1,6 @@
 package lanchonetelistas;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
+import javax.swing.table.AbstractTableModel;
 import java.awt.*;
 import java.awt.event.*;
 
@@ -25,71 +25,336 @@ public class RestaurantTablesApp extends JFrame {
 
     static class Node {
         Table table;
+        Node prev;
         Node next;
-        Node(Table t) { this.table = t; next = null; }
+        // posição na TableList.slots
+        int slot;
+        Node(Table t) { this.table = t; prev = null; next = null; }
+    }
+
+    // Mesas livres agrupadas por capacidade; a menor mesa que cabe o grupo
+    // sai de ceilingEntry em O(log n).
+    static class SeatingIndex {
+        private final java.util.TreeMap<Integer, java.util.LinkedHashSet<Table>> byCapacity = new java.util.TreeMap<>();
+        private int count;
+
+        void add(Table t) {
+            if (byCapacity.computeIfAbsent(t.capacity, k -> new java.util.LinkedHashSet<>()).add(t)) count++;
+        }
+
+        void remove(Table t) {
+            java.util.LinkedHashSet<Table> bucket = byCapacity.get(t.capacity);
+            if (bucket == null || !bucket.remove(t)) return;
+            count--;
+            if (bucket.isEmpty()) byCapacity.remove(t.capacity);
+        }
+
+        // Menor mesa livre com capacidade >= partySize, ou null.
+        Table bestFit(int partySize) {
+            java.util.Map.Entry<Integer, java.util.LinkedHashSet<Table>> e = byCapacity.ceilingEntry(partySize);
+            return e == null ? null : e.getValue().iterator().next();
+        }
+
+        int size() {
+            return count;
+        }
+
+        void clear() {
+            byCapacity.clear();
+            count = 0;
+        }
     }
 
     static class TableList {
         Node head;
+        Node tail;
         int nextId = 1;
+        private int size;
+        // índice id -> nó, para busca/remoção sem percorrer a cadeia
+        private final java.util.HashMap<Integer, Node> index = new java.util.HashMap<>();
+        // linha das mesas sem renumerar: cada mesa ocupa um slot, na ordem da
+        // cadeia, e uma árvore de Fenwick conta os slots ocupados. Inserir no
+        // fim e remover custam O(log n); a linha de uma mesa é a contagem até o
+        // slot dela e a mesa de uma linha é uma descida na árvore, ambas
+        // O(log n). Os slots só são refeitos (O(n)) quando acabam, e aí a
+        // capacidade passa ao dobro das mesas, ou quando uma mesa volta no
+        // meio da cadeia (desfazer), o que não acontece no caminho normal.
+        private Table[] slots = new Table[16];
+        private int[] arvore = new int[17];
+        private int usados;
+        private Table[] cachedArray;
+        private final SeatingIndex freeTables = new SeatingIndex();
 
         public Table createTable(int capacity) {
+            long t0 = Metricas.inicio();
             Table t = new Table(nextId++, capacity);
+            append(t);
+            Metricas.CREATE_TABLE.fim(t0);
+            return t;
+        }
+
+        // Recoloca no fim uma mesa que já tinha id (réplica, importação).
+        public Table restoreTable(int id, int capacity) {
+            if (index.containsKey(id)) throw new IllegalArgumentException("Mesa " + id + " já existe");
+            Table t = new Table(id, capacity);
+            append(t);
+            nextId = Math.max(nextId, id + 1);
+            return t;
+        }
+
+        // Recoloca uma mesa antes de outra (desfazer uma remoção no meio da cadeia).
+        public Table restoreTableBefore(int id, int capacity, int beforeId) {
+            Node next = index.get(beforeId);
+            if (next == null) return restoreTable(id, capacity);
+            if (index.containsKey(id)) throw new IllegalArgumentException("Mesa " + id + " já existe");
+            Table t = new Table(id, capacity);
+            Node n = new Node(t);
+            n.next = next;
+            n.prev = next.prev;
+            if (n.prev == null) head = n;
+            else n.prev.next = n;
+            next.prev = n;
+            index.put(id, n);
+            freeTables.add(t);
+            size++;
+            nextId = Math.max(nextId, id + 1);
+            refazerSlots();
+            cachedArray = null;
+            return t;
+        }
+
+        private void append(Table t) {
             Node n = new Node(t);
             if (head == null) head = n;
             else {
-                Node cur = head;
-                while (cur.next != null) cur = cur.next;
-                cur.next = n;
+                tail.next = n;
+                n.prev = tail;
             }
-            return t;
+            tail = n;
+            index.put(t.id, n);
+            freeTables.add(t);
+            size++;
+            if (usados == slots.length) {
+                refazerSlots();
+            } else {
+                n.slot = usados++;
+                slots[n.slot] = t;
+                somar(n.slot, 1);
+            }
+            cachedArray = null;
         }
 
         public boolean removeTableById(int id) {
-            if (head == null) return false;
-            if (head.table.id == id) {
-                head = head.next;
-                return true;
-            }
-            Node cur = head;
-            while (cur.next != null && cur.next.table.id != id) cur = cur.next;
-            if (cur.next == null) return false;
-            cur.next = cur.next.next;
+            Node n = index.remove(id);
+            if (n == null) return false;
+            freeTables.remove(n.table);
+            if (n.prev == null) head = n.next;
+            else n.prev.next = n.next;
+            if (n.next == null) tail = n.prev;
+            else n.next.prev = n.prev;
+            n.prev = null;
+            n.next = null;
+            size--;
+            slots[n.slot] = null;
+            somar(n.slot, -1);
+            cachedArray = null;
             return true;
         }
 
         public Table findById(int id) {
-            Node cur = head;
-            while (cur != null) {
-                if (cur.table.id == id) return cur.table;
-                cur = cur.next;
+            long t0 = Metricas.inicio();
+            Node n = index.get(id);
+            Metricas.FIND_BY_ID.fim(t0);
+            return n == null ? null : n.table;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public void seat(Table t, String partyName) {
+            t.occupied = true;
+            t.partyName = partyName;
+            freeTables.remove(t);
+        }
+
+        public void free(Table t) {
+            t.occupied = false;
+            t.partyName = "";
+            freeTables.add(t);
+        }
+
+        // Menor mesa livre em que o grupo cabe, ou null se nenhuma couber.
+        public Table findBestFit(int partySize) {
+            return freeTables.bestFit(partySize);
+        }
+
+        public int freeCount() {
+            return freeTables.size();
+        }
+
+        // Mesa na linha (0 a size - 1): O(log n).
+        public Table get(int row) {
+            java.util.Objects.checkIndex(row, size);
+            // desce pela árvore atrás do slot em que a contagem chega a row + 1
+            int pos = 0;
+            int resta = row + 1;
+            for (int passo = Integer.highestOneBit(slots.length); passo > 0; passo >>= 1) {
+                int prox = pos + passo;
+                if (prox <= slots.length && arvore[prox] < resta) {
+                    pos = prox;
+                    resta -= arvore[prox];
+                }
             }
-            return null;
+            return slots[pos];
         }
 
+        // Posição da mesa na cadeia, ou -1 se não existir: O(log n).
+        public int rowOf(int id) {
+            Node n = index.get(id);
+            if (n == null) return -1;
+            int antes = 0;
+            for (int i = n.slot + 1; i > 0; i -= i & -i) antes += arvore[i];
+            return antes - 1;
+        }
+
+        // O array devolvido é compartilhado entre chamadas: não deve ser alterado.
         public Table[] toArray() {
-            int count = 0;
-            Node cur = head;
-            while (cur != null) { count++; cur = cur.next; }
-            Table[] arr = new Table[count];
-            cur = head;
-            int i = 0;
-            while (cur != null) {
-                arr[i++] = cur.table;
-                cur = cur.next;
+            if (cachedArray == null) {
+                Table[] a = new Table[size];
+                int i = 0;
+                for (Node cur = head; cur != null; cur = cur.next) a[i++] = cur.table;
+                cachedArray = a;
             }
-            return arr;
+            return cachedArray;
         }
 
         public void clear() {
             head = null;
+            tail = null;
             nextId = 1;
+            size = 0;
+            index.clear();
+            freeTables.clear();
+            slots = new Table[16];
+            arvore = new int[17];
+            usados = 0;
+            cachedArray = null;
+        }
+
+        private void somar(int slot, int delta) {
+            for (int i = slot + 1; i < arvore.length; i += i & -i) arvore[i] += delta;
+        }
+
+        // Slots de novo na ordem da cadeia, sem buracos, com folga para o dobro.
+        private void refazerSlots() {
+            int capacidade = Math.max(16, size * 2);
+            slots = new Table[capacidade];
+            arvore = new int[capacidade + 1];
+            int i = 0;
+            for (Node cur = head; cur != null; cur = cur.next) {
+                slots[i] = cur.table;
+                cur.slot = i;
+                arvore[++i] = 1;
+            }
+            usados = i;
+            // montagem da Fenwick em O(n)
+            for (int k = 1; k <= capacidade; k++) {
+                int pai = k + (k & -k);
+                if (pai <= capacidade) arvore[pai] += arvore[k];
+            }
         }
     }
 
 
-    static class TableMapPanel extends JPanel {
-        private TableList list;
+    // Modelo da JTable das mesas: mostra a foto montada pelo ModeloTabelaFoto,
+    // nunca o MotorMesas direto; a diferença chega no máximo uma vez por quadro.
+    static class TableListModel extends ModeloTabelaFoto<Table, TableListModel.Row> implements MotorMesas.Ouvinte {
+        private static final String[] COLUMNS = {"ID", "Capacidade", "Ocupada", "Grupo"};
+        private final MotorMesas motor;
+
+        // o que a tabela mostra de uma mesa
+        static final class Row {
+            final Table table;
+            final int id;
+            final int capacity;
+            final boolean occupied;
+            final String partyName;
+
+            Row(Table t) {
+                this.table = t;
+                this.id = t.id;
+                this.capacity = t.capacity;
+                this.occupied = t.occupied;
+                this.partyName = t.partyName;
+            }
+        }
+
+        TableListModel(MotorMesas motor) {
+            super(Metricas.REFRESH_MESAS);
+            this.motor = motor;
+            synchronized (motor) {
+                motor.addOuvinte(this);
+                iniciar();
+            }
+        }
+
+        @Override public void criada(Table t, int row) { mudou(); }
+        @Override public void removida(Table t, int row) { mudou(); }
+        @Override public void alterada(Table t, int row) { mudou(); }
+        @Override public void recarregado() { mudou(); }
+
+        @Override protected java.util.List<Table> ler() { return java.util.Arrays.asList(motor.toArray()); }
+        @Override protected Row copiar(Table t) { return new Row(t); }
+        @Override protected Table origem(Row r) { return r.table; }
+
+        @Override
+        protected boolean igual(Row r, Table t) {
+            return r.id == t.id && r.capacity == t.capacity && r.occupied == t.occupied
+                    && java.util.Objects.equals(r.partyName, t.partyName);
+        }
+
+        // Mesa como a tabela mostra na linha, ou null.
+        public Row getRowAt(int row) {
+            return getLinha(row);
+        }
+
+        @Override public int getColumnCount() { return COLUMNS.length; }
+        @Override public String getColumnName(int col) { return COLUMNS[col]; }
+
+        @Override
+        public Class<?> getColumnClass(int col) {
+            return col <= 1 ? Integer.class : String.class;
+        }
+
+        @Override
+        public Object getValueAt(int row, int col) {
+            Row r = getLinha(row);
+            if (r == null) return null;
+            return switch (col) {
+                case 0 -> r.id;
+                case 1 -> r.capacity;
+                case 2 -> r.occupied ? "Sim" : "Não";
+                default -> r.partyName;
+            };
+        }
+    }
+
+
+    // Mapa das mesas. Redesenhar tudo a cada repaint não escala, então:
+    //  - o fundo de cada mesa vem de um sprite pronto por estado (livre/ocupada);
+    //  - as posições são calculadas uma vez por mudança estrutural (criar,
+    //    remover, limpar), não a cada pintura;
+    //  - ocupar/liberar repinta só o retângulo da mesa que mudou, e a pintura
+    //    percorre apenas as mesas que caem no clip.
+    static class TableMapPanel extends JPanel implements MotorMesas.Ouvinte {
+        private static final int W = 80, H = 60;
+        private static final int COLS = 4, START_Y = 330, GAP_X = 120, GAP_Y = 70;
+        private static final Color COR_LIVRE = new Color(110, 200, 120);
+        private static final Color COR_OCUPADA = new Color(220, 70, 70);
+        private static final BasicStroke TRACO_SETA = new BasicStroke(2);
+
+        private MotorMesas list;
         private boolean encadeado;
    
         private final int[][] fixedPositions = {
@@ -100,107 +365,202 @@ public class RestaurantTablesApp extends JFrame {
             {280, 60}   
         };
 
-        public TableMapPanel(TableList list, boolean encadeado) {
+        // cache do layout, refeito só quando layoutSujo
+        private Table[] tables = new Table[0];
+        private int[] xs = new int[0];
+        private int[] ys = new int[0];
+        private boolean layoutSujo = true;
+        // mudanças estruturais de fora da EDT: um novo layout por quadro
+        private final AtualizacaoTela atualizacao = new AtualizacaoTela((tudo, de, ate) -> estruturaMudou(), Metricas.REFRESH_MESAS);
+
+        private java.awt.image.BufferedImage spriteLivre;
+        private java.awt.image.BufferedImage spriteOcupada;
+        private Font fonteId;
+        private Font fonteCap;
+
+        public TableMapPanel(MotorMesas list, boolean encadeado) {
             this.list = list;
             this.encadeado = encadeado;
             setPreferredSize(new Dimension(600, 420));
             setBackground(Color.white);
+            list.addOuvinte(this);
         }
 
         public void setEncadeado(boolean encadeado) {
+            if (this.encadeado == encadeado) return;
             this.encadeado = encadeado;
             repaint();
         }
 
+        // ---- avisos do motor (podem vir de fora da EDT) ----
+
         @Override
-        protected void paintComponent(Graphics g) {
-            super.paintComponent(g);
-            Table[] tables = list.toArray();
+        public void criada(Table t, int linha) {
+            if (!SwingUtilities.isEventDispatchThread()) {
+                atualizacao.tudo();
+                return;
+            }
+            if (linha < list.tamanho() - 1) {
+                // entrou no meio (desfazer): todas as seguintes andam
+                estruturaMudou();
+                return;
+            }
+            layoutSujo = true;
+            // só a mesa nova e a seta que chega nela mudam
+            if (linha > 0) repaintSeta(linha - 1);
+            repaintMesa(xParaLinha(linha), yParaLinha(linha));
+            ajustarTamanho(linha + 1);
+        }
 
-    
-            int n = tables.length;
-            Point[] positions = new Point[Math.max(n,0)];
+        @Override
+        public void removida(Table t, int linha) {
+            if (SwingUtilities.isEventDispatchThread()) estruturaMudou();
+            else atualizacao.tudo();
+        }
 
-            for (int i = 0; i < Math.min(n, fixedPositions.length); i++) {
-                positions[i] = new Point(fixedPositions[i][0], fixedPositions[i][1]);
-            }
-            if (n > fixedPositions.length) {
-             
-                int cols = 4;
-                int startY = 330;
-                int gapX = 120;
-                int gapY = 70;
-                for (int i = fixedPositions.length; i < n; i++) {
-                    int idx = i - fixedPositions.length;
-                    int col = idx % cols;
-                    int row = idx / cols;
-                    int x = 40 + col * gapX;
-                    int y = startY + row * gapY;
-                    positions[i] = new Point(x, y);
-                }
+        @Override
+        public void alterada(Table t, int linha) {
+            // a posição é função só da linha, então dá para repintar de qualquer thread
+            if (linha >= 0) repaintMesa(xParaLinha(linha), yParaLinha(linha));
+            else repaint();
+        }
+
+        @Override
+        public void recarregado() {
+            if (SwingUtilities.isEventDispatchThread()) estruturaMudou();
+            else atualizacao.tudo();
+        }
+
+        private void estruturaMudou() {
+            layoutSujo = true;
+            ajustarTamanho(list.tamanho());
+            repaint();
+        }
+
+        private void repaintMesa(int x, int y) {
+            repaint(x, y, W + 1, H + 1);
+        }
+
+        private void repaintSeta(int linha) {
+            int x = xParaLinha(linha), y = yParaLinha(linha);
+            int bx = xParaLinha(linha + 1), by = yParaLinha(linha + 1);
+            int ax = x + W, ay = y + H / 2;
+            int x0 = Math.min(ax, bx) - 14, y0 = Math.min(ay, by + H / 2) - 14;
+            repaint(x0, y0, Math.abs(bx - ax) + 28, Math.abs(by + H / 2 - ay) + 28);
+        }
+
+        // com milhares de mesas o painel cresce e passa a rolar
+        private void ajustarTamanho(int n) {
+            int altura = Math.max(420, yParaLinha(Math.max(n - 1, 0)) + H + 20);
+            if (getPreferredSize().height != altura) {
+                setPreferredSize(new Dimension(600, altura));
+                revalidate();
             }
+        }
+
+        private int xParaLinha(int i) {
+            if (i < fixedPositions.length) return fixedPositions[i][0];
+            return 40 + ((i - fixedPositions.length) % COLS) * GAP_X;
+        }
 
-         
+        private int yParaLinha(int i) {
+            if (i < fixedPositions.length) return fixedPositions[i][1];
+            return START_Y + ((i - fixedPositions.length) / COLS) * GAP_Y;
+        }
+
+        private void recalcularLayout() {
+            tables = list.toArray();
+            int n = tables.length;
+            if (xs.length < n) {
+                xs = new int[Math.max(n, xs.length * 2)];
+                ys = new int[xs.length];
+            }
             for (int i = 0; i < n; i++) {
-                Table t = tables[i];
-                Point p = positions[i];
-                if (p == null) continue;
-                int x = p.x, y = p.y;
-                int w = 80, h = 60;
-            
-                if (t.occupied) g.setColor(new Color(220, 70, 70));
-                else g.setColor(new Color(110, 200, 120));
-                g.fillRoundRect(x, y, w, h, 16, 16);
-
-           
-                g.setColor(Color.DARK_GRAY);
-                g.drawRoundRect(x, y, w, h, 16, 16);
-
-               
-                g.setColor(Color.BLACK);
-                Font f = g.getFont().deriveFont(Font.BOLD, 14f);
-                g.setFont(f);
-                String idText = String.valueOf(t.id);
-           
-                g.drawString(idText, x + w/2 - (g.getFontMetrics().stringWidth(idText)/2), y + 22);
-
-          
-                Font f2 = g.getFont().deriveFont(Font.PLAIN, 11f);
-                g.setFont(f2);
-                String capText = "cap:" + t.capacity;
-                g.drawString(capText, x + 6, y + h - 18);
-
-           
-                if (t.occupied) {
-                    String name = t.partyName;
-                    String shortName = name.length() > 12 ? name.substring(0, 11) + "…" : name;
-                    g.drawString(shortName, x + 6, y + h - 6);
-                }
+                xs[i] = xParaLinha(i);
+                ys[i] = yParaLinha(i);
             }
+            layoutSujo = false;
+        }
+
+        private java.awt.image.BufferedImage sprite(boolean ocupada) {
+            java.awt.image.BufferedImage s = ocupada ? spriteOcupada : spriteLivre;
+            if (s == null) {
+                s = new java.awt.image.BufferedImage(W + 1, H + 1, java.awt.image.BufferedImage.TYPE_INT_ARGB);
+                Graphics2D g2 = s.createGraphics();
+                g2.setColor(ocupada ? COR_OCUPADA : COR_LIVRE);
+                g2.fillRoundRect(0, 0, W, H, 16, 16);
+                g2.setColor(Color.DARK_GRAY);
+                g2.drawRoundRect(0, 0, W, H, 16, 16);
+                g2.dispose();
+                if (ocupada) spriteOcupada = s;
+                else spriteLivre = s;
+            }
+            return s;
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            if (layoutSujo) recalcularLayout();
+            if (fonteId == null) {
+                fonteId = getFont().deriveFont(Font.BOLD, 14f);
+                fonteCap = getFont().deriveFont(Font.PLAIN, 11f);
+            }
+            Table[] tables = this.tables;
+            int n = tables.length;
+            Rectangle clip = g.getClipBounds();
+            if (clip == null) clip = new Rectangle(0, 0, getWidth(), getHeight());
+
+            // as fixas são poucas; da grade só as linhas que o clip alcança
+            int ultimaFixa = Math.min(n, fixedPositions.length);
+            int de = fixedPositions.length + Math.max(0, (clip.y - START_Y - H) / GAP_Y) * COLS;
+            int ate = fixedPositions.length + ((clip.y + clip.height - START_Y) / GAP_Y + 1) * COLS;
+            ate = Math.min(n, Math.max(ate, de));
+
+            g.setColor(Color.BLACK);
+            for (int i = 0; i < ultimaFixa; i++) pintarMesa(g, clip, tables[i], xs[i], ys[i]);
+            for (int i = de; i < ate; i++) pintarMesa(g, clip, tables[i], xs[i], ys[i]);
 
-     
             if (encadeado) {
-                g.setColor(Color.BLACK);
-                for (int i = 0; i < n - 1; i++) {
-                    Point a = positions[i];
-                    Point b = positions[i+1];
-                    if (a == null || b == null) continue;
-                 
-                    int ax = a.x + 80;
-                    int ay = a.y + 30;
-                    int bx = b.x;
-                    int by = b.y + 30;
-        
-                    drawArrow(g, ax, ay, bx, by);
+                Graphics2D g2 = (Graphics2D) g.create();
+                g2.setStroke(TRACO_SETA);
+                g2.setColor(Color.BLACK);
+                // as setas das fixas cruzam o painel; as da grade só ligam vizinhas
+                for (int i = 0; i < Math.min(n - 1, fixedPositions.length); i++) pintarSeta(g2, clip, i);
+                for (int i = Math.max(de - COLS, fixedPositions.length); i < Math.min(n - 1, ate + COLS); i++) {
+                    pintarSeta(g2, clip, i);
                 }
+                g2.dispose();
             }
         }
 
+        private void pintarMesa(Graphics g, Rectangle clip, Table t, int x, int y) {
+            if (!clip.intersects(x, y, W + 1, H + 1)) return;
+            g.drawImage(sprite(t.occupied), x, y, null);
 
-        private void drawArrow(Graphics g, int x1, int y1, int x2, int y2) {
-            Graphics2D g2 = (Graphics2D) g.create();
-            g2.setStroke(new BasicStroke(2));
-   
+            g.setFont(fonteId);
+            String idText = String.valueOf(t.id);
+            g.drawString(idText, x + W/2 - (g.getFontMetrics().stringWidth(idText)/2), y + 22);
+
+            g.setFont(fonteCap);
+            g.drawString("cap:" + t.capacity, x + 6, y + H - 18);
+
+            if (t.occupied) {
+                String name = t.partyName;
+                String shortName = name.length() > 12 ? name.substring(0, 11) + "…" : name;
+                g.drawString(shortName, x + 6, y + H - 6);
+            }
+        }
+
+        private void pintarSeta(Graphics2D g2, Rectangle clip, int i) {
+            int ax = xs[i] + W, ay = ys[i] + H / 2;
+            int bx = xs[i + 1], by = ys[i + 1] + H / 2;
+            if (!clip.intersects(Math.min(ax, bx) - 14, Math.min(ay, by) - 14,
+                    Math.abs(bx - ax) + 28, Math.abs(by - ay) + 28)) return;
+            drawArrow(g2, ax, ay, bx, by);
+        }
+
+        private void drawArrow(Graphics2D g2, int x1, int y1, int x2, int y2) {
             g2.drawLine(x1, y1, x2, y2);
      
             double phi = Math.toRadians(20);
@@ -215,13 +575,16 @@ public class RestaurantTablesApp extends JFrame {
             x = x2 - barb * Math.cos(theta - phi);
             y = y2 - barb * Math.sin(theta - phi);
             g2.drawLine(x2, y2, (int)x, (int)y);
-            g2.dispose();
         }
     }
 
-
-    private TableList tableList = new TableList();
-    private DefaultTableModel tableModel;
+    private final MotorMesas mesas;
+    // pedidos abertos, para a busca por item; null sem a tela de pedidos
+    private final MotorPedidos pedidos;
+    private final ListaEspera espera;
+    private final Historico historico;
+    private final IndiceBusca busca;
+    private TableListModel tableModel;
     private JTable table;
     private TableMapPanel mapPanel;
 
@@ -233,11 +596,32 @@ public class RestaurantTablesApp extends JFrame {
     private JTextField tfSeatId = new JTextField();
     private JTextField tfSeatName = new JTextField();
     private JTextField tfFreeId = new JTextField();
+    private JTextField tfPartySize = new JTextField();
+    private JTextField tfBuscaItem = new JTextField();
     private JLabel lblMode = new JLabel("Modo: Encadeado");
     private JLabel lblStatus = new JLabel("Pronto");
 
     public RestaurantTablesApp() {
+        this(new MotorMesas());
+    }
+
+    public RestaurantTablesApp(MotorMesas mesas) {
+        this(mesas, null);
+    }
+
+    public RestaurantTablesApp(MotorMesas mesas, MotorPedidos pedidos) {
         super("Gerenciador de Mesas");
+        this.mesas = mesas;
+        this.pedidos = pedidos;
+        this.espera = new ListaEspera(mesas);
+        this.historico = new Historico(mesas);
+        this.busca = new IndiceBusca(Cardapio.padrao(), pedidos, mesas);
+        Metricas.medidor("mesas.total", mesas::tamanho);
+        Metricas.medidor("mesas.livres", mesas::livres);
+        Metricas.medidor("mesas.espera", espera::tamanho);
+        // quem estava na fila senta quando alguém libera uma mesa
+        espera.addOuvinte((g, t) -> SwingUtilities.invokeLater(() ->
+                lblStatus.setText("Grupo " + (g.getNome().isEmpty() ? g.getId() : g.getNome()) + " sentou na mesa " + t.id)));
         setDefaultCloseOperation(DISPOSE_ON_CLOSE);
         setSize(1100, 720);
         setLocationRelativeTo(null);
@@ -258,7 +642,6 @@ public class RestaurantTablesApp extends JFrame {
             isEncadeado = !isEncadeado;
             lblMode.setText("Modo: " + (isEncadeado ? "Encadeado" : "Não Encadeado"));
             mapPanel.setEncadeado(isEncadeado);
-            mapPanel.repaint();
         });
 
         lblMode.setAlignmentX(Component.LEFT_ALIGNMENT);
@@ -285,7 +668,7 @@ public class RestaurantTablesApp extends JFrame {
             try {
                 int cap = Integer.parseInt(tfCapacity.getText().trim());
                 if (cap <= 0) throw new NumberFormatException();
-                tableList.createTable(cap);
+                mesas.criarMesa(cap);
                 tfCapacity.setText("");
                 refreshAll("Mesa adicionada");
             } catch (NumberFormatException ex) {
@@ -302,7 +685,7 @@ public class RestaurantTablesApp extends JFrame {
         btnRemove.addActionListener(e -> {
             try {
                 int id = Integer.parseInt(tfRemove.getText().trim());
-                boolean ok = tableList.removeTableById(id);
+                boolean ok = mesas.removerMesa(id);
                 tfRemove.setText("");
                 refreshAll(ok ? "Mesa removida" : "Mesa não encontrada");
             } catch (NumberFormatException ex) {
@@ -318,21 +701,20 @@ public class RestaurantTablesApp extends JFrame {
         left.add(new JLabel("Nome do grupo"));
         tfSeatName.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
         left.add(tfSeatName);
+        completarAoDigitar(tfSeatName, busca::completarGrupo);
         JButton btnSeat = new JButton("Ocupar Mesa");
         btnSeat.addActionListener(e -> {
             try {
                 int id = Integer.parseInt(tfSeatId.getText().trim());
-                Table t = tableList.findById(id);
-                if (t == null) {
+                MotorMesas.Resultado r = mesas.ocupar(id, tfSeatName.getText().trim());
+                if (r == MotorMesas.Resultado.NAO_ENCONTRADA) {
                     JOptionPane.showMessageDialog(this, "Mesa não encontrada");
                     return;
                 }
-                if (t.occupied) {
+                if (r == MotorMesas.Resultado.JA_OCUPADA) {
                     JOptionPane.showMessageDialog(this, "Mesa já ocupada");
                     return;
                 }
-                t.occupied = true;
-                t.partyName = tfSeatName.getText().trim();
                 tfSeatId.setText(""); tfSeatName.setText("");
                 refreshAll("Mesa ocupada");
             } catch (NumberFormatException ex) {
@@ -342,6 +724,34 @@ public class RestaurantTablesApp extends JFrame {
         left.add(btnSeat);
         left.add(Box.createRigidArea(new Dimension(0,8)));
 
+        left.add(new JLabel("Alocar - Tamanho do grupo"));
+        tfPartySize.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
+        left.add(tfPartySize);
+        JButton btnAuto = new JButton("Alocar Mesa");
+        btnAuto.addActionListener(e -> {
+            try {
+                int size = Integer.parseInt(tfPartySize.getText().trim());
+                if (size <= 0) throw new NumberFormatException();
+                Table t = mesas.alocar(size, tfSeatName.getText().trim());
+                if (t == null) {
+                    int op = JOptionPane.showConfirmDialog(this,
+                            "Nenhuma mesa livre comporta o grupo. Colocar na lista de espera?");
+                    if (op != JOptionPane.YES_OPTION) return;
+                    ListaEspera.Grupo g = espera.entrar(tfSeatName.getText().trim(), size);
+                    tfPartySize.setText(""); tfSeatName.setText("");
+                    refreshAll(g.getMesa() != null ? "Mesa " + g.getMesa().id + " alocada"
+                            : "Grupo na lista de espera (" + espera.tamanho() + ")");
+                    return;
+                }
+                tfPartySize.setText(""); tfSeatName.setText("");
+                refreshAll("Mesa " + t.id + " alocada");
+            } catch (NumberFormatException ex) {
+                JOptionPane.showMessageDialog(this, "Tamanho inválido");
+            }
+        });
+        left.add(btnAuto);
+        left.add(Box.createRigidArea(new Dimension(0,8)));
+
         left.add(new JLabel("Liberar - ID"));
         tfFreeId.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
         left.add(tfFreeId);
@@ -349,13 +759,10 @@ public class RestaurantTablesApp extends JFrame {
         btnFree.addActionListener(e -> {
             try {
                 int id = Integer.parseInt(tfFreeId.getText().trim());
-                Table t = tableList.findById(id);
-                if (t == null) {
+                if (mesas.liberar(id) == MotorMesas.Resultado.NAO_ENCONTRADA) {
                     JOptionPane.showMessageDialog(this, "Mesa não encontrada");
                     return;
                 }
-                t.occupied = false;
-                t.partyName = "";
                 tfFreeId.setText("");
                 refreshAll("Mesa liberada");
             } catch (NumberFormatException ex) {
@@ -363,21 +770,32 @@ public class RestaurantTablesApp extends JFrame {
             }
         });
         left.add(btnFree);
+        left.add(Box.createRigidArea(new Dimension(0,8)));
+
+        if (pedidos != null) {
+            left.add(new JLabel("Pedidos abertos - Item"));
+            tfBuscaItem.setMaximumSize(new Dimension(Integer.MAX_VALUE, 24));
+            left.add(tfBuscaItem);
+            completarAoDigitar(tfBuscaItem, busca::completarItem);
+            JButton btnBusca = new JButton("Buscar Pedidos");
+            btnBusca.addActionListener(e -> mostrarPedidos(tfBuscaItem.getText()));
+            left.add(btnBusca);
+        }
         left.add(Box.createVerticalGlue());
         left.add(lblStatus);
 
         add(left, BorderLayout.WEST);
 
-        mapPanel = new TableMapPanel(tableList, isEncadeado);
+        mapPanel = new TableMapPanel(mesas, isEncadeado);
         JPanel centerTop = new JPanel(new BorderLayout());
-        centerTop.add(mapPanel, BorderLayout.CENTER);
+        JScrollPane mapScroll = new JScrollPane(mapPanel);
+        mapScroll.getViewport().setBackground(Color.white);
+        mapScroll.getVerticalScrollBar().setUnitIncrement(TableMapPanel.GAP_Y);
+        centerTop.add(mapScroll, BorderLayout.CENTER);
         centerTop.setBorder(BorderFactory.createTitledBorder("Mapa das Mesas"));
 
   
-        String[] cols = {"ID", "Capacidade", "Ocupada", "Grupo"};
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new TableListModel(mesas);
         table = new JTable(tableModel);
         table.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
         JScrollPane tableScroll = new JScrollPane(table);
@@ -396,33 +814,56 @@ public class RestaurantTablesApp extends JFrame {
         btnClearAll.addActionListener(e -> {
             int op = JOptionPane.showConfirmDialog(this, "Remover todas as mesas?");
             if (op == JOptionPane.YES_OPTION) {
-                tableList.clear();
+                mesas.limpar();
                 refreshAll("Todas as mesas removidas");
             }
         });
         bottom.add(btnClearAll);
+
+        JButton btnUndo = new JButton("Desfazer");
+        btnUndo.addActionListener(e -> refreshAll(historico.desfazer() ? "Ação desfeita" : "Nada para desfazer"));
+        bottom.add(btnUndo);
+        JButton btnRedo = new JButton("Refazer");
+        btnRedo.addActionListener(e -> refreshAll(historico.refazer() ? "Ação refeita" : "Nada para refazer"));
+        bottom.add(btnRedo);
+        InputMap atalhos = getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW);
+        atalhos.put(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK), "desfazer");
+        atalhos.put(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK), "refazer");
+        getRootPane().getActionMap().put("desfazer", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { btnUndo.doClick(); }
+        });
+        getRootPane().getActionMap().put("refazer", new AbstractAction() {
+            @Override public void actionPerformed(ActionEvent e) { btnRedo.doClick(); }
+        });
         add(bottom, BorderLayout.SOUTH);
 
 
-        tableList.createTable(2);
-        tableList.createTable(4);
-        tableList.createTable(6);
-        tableList.createTable(4);
-        tableList.createTable(2);
+        if (mesas.tamanho() == 0) carregarLayout();
 
         refreshAll("Pronto");
     }
 
-    private void refreshAll(String status) {
-   
-        tableModel.setRowCount(0);
-        for (Table t : tableList.toArray()) {
-            tableModel.addRow(new Object[]{ t.id, t.capacity, t.occupied ? "Sim" : "Não", t.partyName });
+    // -Dlanchonete.mesas=arquivo (.csv ou binário do ArquivoDados) troca o layout padrão
+    private void carregarLayout() {
+        String arquivo = System.getProperty("lanchonete.mesas");
+        if (arquivo != null) {
+            try {
+                ArquivoDados.importarMesas(java.nio.file.Paths.get(arquivo), mesas);
+                return;
+            } catch (java.io.IOException | IllegalArgumentException ex) {
+                mesas.limpar();
+                JOptionPane.showMessageDialog(this, "Não foi possível carregar " + arquivo + ": " + ex.getMessage());
+            }
         }
+        mesas.criarMesas(2, 4, 6, 4, 2);
+    }
+
+    // Tabela e mapa já foram avisados pelo motor e repintam só o que mudou;
+    // o tempo dessas atualizações fica em Metricas.REFRESH_MESAS.
+    private void refreshAll(String status) {
         lblStatus.setText(status);
         lblModeUpdate();
         mapPanel.setEncadeado(isEncadeado);
-        mapPanel.repaint();
     }
 
     private void lblModeUpdate() {
@@ -430,14 +871,79 @@ public class RestaurantTablesApp extends JFrame {
         lblMode.setText("Modo: " + (isEncadeado ? "Encadeado" : "Não Encadeado"));
     }
 
+    // Completa o campo com o texto mais frequente que começa com o que foi
+    // digitado; o resto fica selecionado, então digitar por cima descarta.
+    private void completarAoDigitar(JTextField campo, java.util.function.BiFunction<String, Integer, java.util.List<String>> completar) {
+        campo.getDocument().addDocumentListener(new javax.swing.event.DocumentListener() {
+            private boolean completando;
+
+            @Override
+            public void insertUpdate(javax.swing.event.DocumentEvent e) {
+                if (completando || e.getLength() != 1) return;
+                // o documento não pode mudar dentro do próprio aviso
+                SwingUtilities.invokeLater(() -> {
+                    String digitado = campo.getText();
+                    if (digitado.isBlank() || campo.getCaretPosition() != digitado.length()) return;
+                    java.util.List<String> achados = completar.apply(digitado, 1);
+                    if (achados.isEmpty()) return;
+                    String nome = achados.get(0);
+                    int de = fimDoPrefixo(nome, digitado);
+                    if (de >= nome.length()) return;
+                    completando = true;
+                    try {
+                        campo.setText(digitado + nome.substring(de));
+                        campo.select(digitado.length(), digitado.length() + nome.length() - de);
+                    } finally {
+                        completando = false;
+                    }
+                });
+            }
+
+            @Override
+            public void removeUpdate(javax.swing.event.DocumentEvent e) {
+            }
+
+            @Override
+            public void changedUpdate(javax.swing.event.DocumentEvent e) {
+            }
+        });
+    }
+
+    // Onde acaba, no texto achado, o que foi digitado: a busca compara sem
+    // espaços nas pontas, maiúsculas nem acentos, então o tamanho digitado
+    // não serve de posição. Espaço no fim do digitado tem de bater com o
+    // texto; se não bate, devolve o tamanho do texto (nada a completar).
+    private static int fimDoPrefixo(String nome, String digitado) {
+        int alvo = IndicePrefixo.normalizar(digitado).length();
+        int k = 0;
+        while (k < nome.length() && IndicePrefixo.normalizar(nome.substring(0, k)).length() < alvo) k++;
+        for (int espacos = digitado.length() - digitado.stripTrailing().length(); espacos > 0; espacos--, k++) {
+            if (k >= nome.length() || !Character.isWhitespace(nome.charAt(k))) return nome.length();
+        }
+        return k;
+    }
+
+    private void mostrarPedidos(String prefixo) {
+        if (prefixo.isBlank()) return;
+        java.util.List<Pedido> achados = busca.buscarPedidos(prefixo);
+        if (achados.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Nenhum pedido aberto com \"" + prefixo.trim() + "\"");
+            return;
+        }
+        StringBuilder sb = new StringBuilder();
+        for (Pedido p : achados) {
+            sb.append(String.format("#%d  %dx %s  R$ %.2f%n", p.getOrdem(), p.quantidade, p.item, p.valor * p.quantidade));
+        }
+        JOptionPane.showMessageDialog(this, sb.toString(), "Pedidos abertos", JOptionPane.INFORMATION_MESSAGE);
+    }
+
     private void showSelectedDetails() {
         int sel = table.getSelectedRow();
         if (sel == -1) {
             JOptionPane.showMessageDialog(this, "Selecione uma linha na tabela para ver detalhes.");
             return;
         }
-        int id = (int) tableModel.getValueAt(sel, 0);
-        Table t = tableList.findById(id);
+        TableListModel.Row t = tableModel.getRowAt(sel);
         if (t == null) {
             JOptionPane.showMessageDialog(this, "Mesa não encontrada (inconsistência).");
             return;
@@ -453,4 +959,4 @@ public class RestaurantTablesApp extends JFrame {
             app.setVisible(true);
         });
     }
-}
\ No newline at end of file
+}
\ No newline at end of file
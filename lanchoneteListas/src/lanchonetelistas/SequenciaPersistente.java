@@ -0,0 +1,219 @@
+package lanchonetelistas;
+import java.util.*;
+
+// Sequência com inclusão no fim e remoção nas duas pontas (serve de lista,
+// pilha e fila) que entrega fotos imutáveis em O(1). Também aceita incluir e
+// remover no meio, deslocando os vizinhos: add(i, e) custa O(n - i) e
+// remove(i) O(min(i, n - i)).
+//
+// Os elementos ficam em blocos de 256 posições. snapshot() só guarda o
+// diretório de blocos e os limites [inicio, fim); a partir daí, o escritor
+// copia um bloco (copy-on-write) apenas se for sobrescrever uma posição que a
+// foto ainda enxerga, o que só acontece depois de uma remoção no fim ou ao
+// deslocar vizinhos numa inclusão/remoção no meio. Incluir no fim e remover
+// do início nunca copiam nada, então cada foto custa só os blocos que
+// realmente mudaram.
+//
+// Não é thread-safe para escrita: escritas e snapshot() devem vir da mesma
+// thread (ou sob o mesmo lock). As fotos podem ser lidas de qualquer thread.
+public class SequenciaPersistente<E> {
+
+    private static final int BITS = 8;
+    private static final int BLOCO = 1 << BITS;
+    private static final int MASCARA = BLOCO - 1;
+
+    private Object[][] diretorio = new Object[4][];
+    // época em que cada bloco foi criado/copiado; bloco da época atual é só do escritor
+    private long[] epocaDoBloco = new long[4];
+    private long base;
+    private long inicio;
+    private long fim;
+
+    private long epoca;
+    // posições abaixo disto podem estar em alguma foto
+    private long visivelAte = Long.MIN_VALUE;
+    private boolean diretorioCompartilhado;
+    private Foto<E> ultimaFoto;
+
+    public int size() {
+        return (int) (fim - inicio);
+    }
+
+    public boolean isEmpty() {
+        return fim == inicio;
+    }
+
+    public void addLast(E e) {
+        long i = fim;
+        int b = (int) ((i - base) >>> BITS);
+        if (b >= diretorio.length) crescerDiretorio(b + 1);
+        Object[] bloco = diretorio[b];
+        if (bloco == null) {
+            bloco = new Object[BLOCO];
+            trocarBloco(b, bloco);
+        } else if (i < visivelAte && epocaDoBloco[b] != epoca) {
+            bloco = bloco.clone();
+            trocarBloco(b, bloco);
+        }
+        bloco[(int) ((i - base) & MASCARA)] = e;
+        fim++;
+        ultimaFoto = null;
+    }
+
+    public E removeFirst() {
+        if (fim == inicio) throw new NoSuchElementException();
+        E e = posicao(inicio);
+        limpar(inicio);
+        inicio++;
+        ultimaFoto = null;
+        compactar();
+        return e;
+    }
+
+    public E removeLast() {
+        if (fim == inicio) throw new NoSuchElementException();
+        E e = posicao(fim - 1);
+        limpar(fim - 1);
+        fim--;
+        ultimaFoto = null;
+        return e;
+    }
+
+    // Insere na posição, empurrando o fim uma casa para frente.
+    public void add(int indice, E e) {
+        Objects.checkIndex(indice, size() + 1);
+        if (indice == size()) {
+            addLast(e);
+            return;
+        }
+        addLast(peekLast());
+        long pos = inicio + indice;
+        for (long i = fim - 2; i > pos; i--) escrever(i, posicao(i - 1));
+        escrever(pos, e);
+    }
+
+    // Tira da posição fechando o buraco pelo lado mais curto.
+    public E remove(int indice) {
+        Objects.checkIndex(indice, size());
+        long pos = inicio + indice;
+        E e = posicao(pos);
+        if (indice < size() / 2) {
+            for (long i = pos; i > inicio; i--) escrever(i, posicao(i - 1));
+            removeFirst();
+        } else {
+            for (long i = pos; i < fim - 1; i++) escrever(i, posicao(i + 1));
+            removeLast();
+        }
+        return e;
+    }
+
+    public E peekFirst() {
+        return fim == inicio ? null : posicao(inicio);
+    }
+
+    public E peekLast() {
+        return fim == inicio ? null : posicao(fim - 1);
+    }
+
+    public E get(int indice) {
+        Objects.checkIndex(indice, size());
+        return posicao(inicio + indice);
+    }
+
+    // Foto imutável do conteúdo atual, do primeiro ao último incluído.
+    public List<E> snapshot() {
+        if (ultimaFoto == null) {
+            ultimaFoto = new Foto<>(diretorio, base, inicio, fim);
+            visivelAte = Math.max(visivelAte, fim);
+            epoca++;
+            diretorioCompartilhado = true;
+        }
+        return ultimaFoto;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E posicao(long i) {
+        long rel = i - base;
+        return (E) diretorio[(int) (rel >>> BITS)][(int) (rel & MASCARA)];
+    }
+
+    // Sobrescreve uma posição ocupada, copiando o bloco se alguma foto o enxerga.
+    private void escrever(long i, Object v) {
+        int b = (int) ((i - base) >>> BITS);
+        Object[] bloco = diretorio[b];
+        if (i < visivelAte && epocaDoBloco[b] != epoca) {
+            bloco = bloco.clone();
+            trocarBloco(b, bloco);
+        }
+        bloco[(int) ((i - base) & MASCARA)] = v;
+        ultimaFoto = null;
+    }
+
+    // Solta a referência para o GC, se nenhuma foto enxerga a posição.
+    private void limpar(long i) {
+        if (i < visivelAte) return;
+        long rel = i - base;
+        diretorio[(int) (rel >>> BITS)][(int) (rel & MASCARA)] = null;
+    }
+
+    private void trocarBloco(int b, Object[] bloco) {
+        if (diretorioCompartilhado) {
+            diretorio = diretorio.clone();
+            diretorioCompartilhado = false;
+        }
+        diretorio[b] = bloco;
+        epocaDoBloco[b] = epoca;
+    }
+
+    private void crescerDiretorio(int minimo) {
+        int n = Math.max(minimo, diretorio.length * 2);
+        diretorio = Arrays.copyOf(diretorio, n);
+        epocaDoBloco = Arrays.copyOf(epocaDoBloco, n);
+        diretorioCompartilhado = false;
+    }
+
+    // Descarta os blocos já consumidos pelo início quando eles passam da
+    // metade dos blocos em uso (custo amortizado O(1) por remoção).
+    private void compactar() {
+        int mortos = (int) ((inicio - base) >>> BITS);
+        if (mortos == 0) return;
+        int usados = (int) ((fim - base + MASCARA) >>> BITS);
+        if (mortos * 2 < usados) return;
+        int n = Math.max(4, diretorio.length - mortos);
+        Object[][] novo = new Object[n][];
+        long[] novasEpocas = new long[n];
+        System.arraycopy(diretorio, mortos, novo, 0, Math.min(diretorio.length - mortos, n));
+        System.arraycopy(epocaDoBloco, mortos, novasEpocas, 0, Math.min(diretorio.length - mortos, n));
+        diretorio = novo;
+        epocaDoBloco = novasEpocas;
+        diretorioCompartilhado = false;
+        base += (long) mortos << BITS;
+    }
+
+    private static final class Foto<E> extends AbstractList<E> implements RandomAccess {
+        private final Object[][] diretorio;
+        private final long base;
+        private final long inicio;
+        private final int tamanho;
+
+        Foto(Object[][] diretorio, long base, long inicio, long fim) {
+            this.diretorio = diretorio;
+            this.base = base;
+            this.inicio = inicio;
+            this.tamanho = (int) (fim - inicio);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int indice) {
+            Objects.checkIndex(indice, tamanho);
+            long rel = inicio + indice - base;
+            return (E) diretorio[(int) (rel >>> BITS)][(int) (rel & MASCARA)];
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+package lanchonetelistas;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import lanchonetelistas.RestaurantTablesApp.Table;
+
+// Entrada de pedidos por HTTP, para tablets e o totem de autoatendimento.
+//
+// Usa o HttpServer do JDK com uma thread virtual por requisição: uma conexão
+// keep-alive parada não prende thread de sistema, então milhares de clientes
+// cabem numa máquina só. As requisições vão para os mesmos MotorPedidos e
+// MotorMesas das telas, que se atualizam pelos Ouvintes como num clique.
+//
+//   GET    /pedidos                    pedidos abertos, na visão atual
+//   POST   /pedidos?sku=1&quantidade=2 item do cardápio (soma na linha aberta)
+//   POST   /pedidos?item=..&quantidade=..&valor=..  item avulso
+//   DELETE /pedidos/{id}               id = ordem de chegada
+//   DELETE /pedidos/proximo            pop/poll conforme a visão
+//   GET    /mesas
+//   POST   /mesas/{id}/ocupar?nome=..
+//   POST   /mesas/{id}/liberar
+//   POST   /mesas/alocar?tamanho=4&nome=..
+//   GET    /historico                  atendidos no dia, por item (se houver HistoricoPedidos)
+//
+// Parâmetros vêm na query ou no corpo (application/x-www-form-urlencoded);
+// as respostas são JSON. Erros: 400 parâmetro inválido (item com mais de
+// 200 caracteres, quantidade acima de 1000 ou que estouraria a linha aberta,
+// id fora da faixa), 404 não encontrado, 409 mesa já ocupada / nenhuma mesa
+// comporta o grupo.
+//
+// Com muitos tablets, suba sun.net.httpserver.maxIdleConnections (vale para
+// todo HttpServer da JVM; LanchoneteListas.main faz isso).
+public class ServidorHttp implements Closeable {
+
+    private static final Logger logger = Logger.getLogger(ServidorHttp.class.getName());
+
+    public static final Metricas.Operacao REQUISICAO = Metricas.operacao("http.requisicao");
+
+    static final int MAX_ITEM = 200;
+    static final int MAX_QUANTIDADE = 1000;
+
+    private final MotorPedidos pedidos;
+    private final MotorMesas mesas;
+    // pode ser null: sem /historico
+    private final HistoricoPedidos historico;
+    private final Cardapio cardapio;
+    private final HttpServer servidor;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ServidorHttp(MotorPedidos pedidos, MotorMesas mesas, int porta) throws IOException {
+        this(pedidos, mesas, new InetSocketAddress(porta));
+    }
+
+    public ServidorHttp(MotorPedidos pedidos, MotorMesas mesas, InetSocketAddress endereco) throws IOException {
+        this(pedidos, mesas, null, endereco);
+    }
+
+    public ServidorHttp(MotorPedidos pedidos, MotorMesas mesas, HistoricoPedidos historico, InetSocketAddress endereco) throws IOException {
+        this.pedidos = pedidos;
+        this.mesas = mesas;
+        this.historico = historico;
+        this.cardapio = Cardapio.padrao();
+        // fila de conexões grande: os tablets reconectam todos juntos quando o wi-fi volta
+        this.servidor = HttpServer.create(endereco, 4096);
+        servidor.createContext("/pedidos", this::tratar);
+        servidor.createContext("/mesas", this::tratar);
+        if (historico != null) servidor.createContext("/historico", this::tratar);
+        servidor.setExecutor(executor);
+        servidor.start();
+    }
+
+    // Só loopback, para testes e para um proxy na mesma máquina.
+    public static ServidorHttp local(MotorPedidos pedidos, MotorMesas mesas, int porta) throws IOException {
+        return new ServidorHttp(pedidos, mesas, new InetSocketAddress(InetAddress.getLoopbackAddress(), porta));
+    }
+
+    public int getPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        servidor.stop(0);
+        executor.close();
+    }
+
+    // ---- roteamento ----
+
+    private static final class Resposta {
+        final int status;
+        final String json;
+
+        Resposta(int status, String json) {
+            this.status = status;
+            this.json = json;
+        }
+    }
+
+    private void tratar(HttpExchange troca) throws IOException {
+        long t0 = Metricas.inicio();
+        Resposta r;
+        try {
+            String metodo = troca.getRequestMethod();
+            String[] partes = troca.getRequestURI().getPath().split("/");
+            Map<String, String> params = parametros(troca);
+            if (partes[1].equals("pedidos")) r = pedidos(metodo, partes, params);
+            else if (partes[1].equals("mesas")) r = mesas(metodo, partes, params);
+            else if (partes[1].equals("historico") && historico != null) r = historico(metodo, partes);
+            else r = erro(404, "Caminho não encontrado");
+        } catch (IllegalArgumentException e) {
+            r = erro(400, e.getMessage());
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Falha na requisição " + troca.getRequestURI(), e);
+            r = erro(500, "Erro interno");
+        }
+        enviar(troca, r);
+        REQUISICAO.fim(t0);
+    }
+
+    private Resposta pedidos(String metodo, String[] partes, Map<String, String> params) {
+        if (partes.length == 2) {
+            if (metodo.equals("GET")) {
+                StringBuilder sb = new StringBuilder("[");
+                for (Pedido p : pedidos.listar()) {
+                    if (sb.length() > 1) sb.append(',');
+                    json(sb, p);
+                }
+                return new Resposta(200, sb.append(']').toString());
+            }
+            if (metodo.equals("POST")) {
+                int quantidade = inteiro(params, "quantidade", 1);
+                if (quantidade <= 0 || quantidade > MAX_QUANTIDADE) {
+                    throw new IllegalArgumentException("Quantidade inválida: " + quantidade);
+                }
+                Pedido p;
+                if (params.containsKey("sku")) {
+                    ItemCardapio item = cardapio.porSku(inteiro(params, "sku", -1));
+                    if (item == null) return erro(404, "SKU não encontrado");
+                    p = pedidos.submeter(item, quantidade);
+                } else {
+                    String item = params.get("item");
+                    if (item == null || item.isBlank()) throw new IllegalArgumentException("Informe sku ou item");
+                    if (item.length() > MAX_ITEM) throw new IllegalArgumentException("Item com mais de " + MAX_ITEM + " caracteres");
+                    p = pedidos.submeter(item, quantidade, decimal(params, "valor"));
+                }
+                return new Resposta(201, json(new StringBuilder(), p).toString());
+            }
+        } else if (partes.length == 3 && metodo.equals("DELETE")) {
+            Pedido p;
+            if (partes[2].equals("proximo")) {
+                p = pedidos.removerProximo();
+            } else {
+                p = pedidos.buscar(longo(partes[2]));
+                if (p != null && !pedidos.remover(p)) p = null;
+            }
+            return p == null ? erro(404, "Pedido não encontrado") : new Resposta(200, json(new StringBuilder(), p).toString());
+        }
+        return erro(405, "Método ou caminho não suportado");
+    }
+
+    private Resposta mesas(String metodo, String[] partes, Map<String, String> params) {
+        if (partes.length == 2 && metodo.equals("GET")) {
+            StringBuilder sb = new StringBuilder("[");
+            for (Table t : mesas.toArray()) {
+                if (sb.length() > 1) sb.append(',');
+                json(sb, t);
+            }
+            return new Resposta(200, sb.append(']').toString());
+        }
+        if (!metodo.equals("POST")) return erro(405, "Método ou caminho não suportado");
+        if (partes.length == 3 && partes[2].equals("alocar")) {
+            int tamanho = inteiro(params, "tamanho", -1);
+            if (tamanho <= 0) throw new IllegalArgumentException("Tamanho inválido: " + tamanho);
+            Table t = mesas.alocar(tamanho, params.getOrDefault("nome", ""));
+            return t == null ? erro(409, "Nenhuma mesa livre comporta o grupo") : new Resposta(200, json(new StringBuilder(), t).toString());
+        }
+        if (partes.length == 4) {
+            int id;
+            try {
+                id = Math.toIntExact(longo(partes[2]));
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Id inválido: " + partes[2]);
+            }
+            MotorMesas.Resultado resultado;
+            switch (partes[3]) {
+                case "ocupar" -> resultado = mesas.ocupar(id, params.getOrDefault("nome", ""));
+                case "liberar" -> resultado = mesas.liberar(id);
+                default -> {
+                    return erro(405, "Método ou caminho não suportado");
+                }
+            }
+            return switch (resultado) {
+                case NAO_ENCONTRADA -> erro(404, "Mesa não encontrada");
+                case JA_OCUPADA -> erro(409, "Mesa já ocupada");
+                default -> new Resposta(200, json(new StringBuilder(), mesas.buscar(id)).toString());
+            };
+        }
+        return erro(405, "Método ou caminho não suportado");
+    }
+
+    private Resposta historico(String metodo, String[] partes) {
+        if (partes.length != 2 || !metodo.equals("GET")) return erro(405, "Método ou caminho não suportado");
+        StringBuilder sb = new StringBuilder("{\"itens\":[");
+        // uma leitura só: itens novos no meio deixariam as colunas desalinhadas
+        synchronized (historico) {
+            long[] receita = historico.receitaPorItem();
+            long[] quantidade = historico.quantidadePorItem();
+            int[] linhas = historico.contagemPorItem();
+            for (int id = 0; id < receita.length; id++) {
+                if (linhas[id] == 0) continue;
+                if (sb.charAt(sb.length() - 1) != '[') sb.append(',');
+                sb.append("{\"item\":");
+                texto(sb, historico.nomeDoItem(id));
+                sb.append(",\"linhas\":").append(linhas[id]).append(",\"quantidade\":").append(quantidade[id])
+                        .append(",\"receitaCentavos\":").append(receita[id]).append('}');
+            }
+            sb.append("],\"quantidade\":").append(historico.quantidadeTotal())
+                    .append(",\"receitaCentavos\":").append(historico.receitaTotal()).append('}');
+        }
+        return new Resposta(200, sb.toString());
+    }
+
+    // ---- entrada ----
+
+    private static Map<String, String> parametros(HttpExchange troca) throws IOException {
+        HashMap<String, String> params = new HashMap<>();
+        lerFormulario(troca.getRequestURI().getRawQuery(), params);
+        try (InputStream in = troca.getRequestBody()) {
+            byte[] corpo = in.readAllBytes();
+            if (corpo.length > 0) lerFormulario(new String(corpo, StandardCharsets.UTF_8), params);
+        }
+        return params;
+    }
+
+    private static void lerFormulario(String texto, Map<String, String> params) {
+        if (texto == null || texto.isEmpty()) return;
+        for (String par : texto.split("&")) {
+            int igual = par.indexOf('=');
+            if (igual <= 0) continue;
+            params.put(URLDecoder.decode(par.substring(0, igual), StandardCharsets.UTF_8),
+                    URLDecoder.decode(par.substring(igual + 1), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static int inteiro(Map<String, String> params, String nome, int padrao) {
+        String v = params.get(nome);
+        if (v == null) return padrao;
+        try {
+            return Integer.parseInt(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parâmetro " + nome + " inválido: " + v);
+        }
+    }
+
+    // Valor em reais: finito e não negativo (NaN e Infinity passam no parseDouble).
+    private static double decimal(Map<String, String> params, String nome) {
+        String v = params.get(nome);
+        if (v == null) throw new IllegalArgumentException("Informe " + nome);
+        double d;
+        try {
+            d = Double.parseDouble(v.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parâmetro " + nome + " inválido: " + v);
+        }
+        if (!Double.isFinite(d) || d < 0) throw new IllegalArgumentException("Parâmetro " + nome + " inválido: " + v);
+        return d;
+    }
+
+    private static long longo(String v) {
+        try {
+            return Long.parseLong(v);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Id inválido: " + v);
+        }
+    }
+
+    // ---- saída ----
+
+    private static void enviar(HttpExchange troca, Resposta r) throws IOException {
+        byte[] corpo = r.json.getBytes(StandardCharsets.UTF_8);
+        troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        troca.sendResponseHeaders(r.status, corpo.length);
+        try (OutputStream out = troca.getResponseBody()) {
+            out.write(corpo);
+        }
+    }
+
+    private static Resposta erro(int status, String mensagem) {
+        StringBuilder sb = new StringBuilder("{\"erro\":");
+        texto(sb, mensagem);
+        return new Resposta(status, sb.append('}').toString());
+    }
+
+    private static StringBuilder json(StringBuilder sb, Pedido p) {
+        sb.append("{\"id\":").append(p.getOrdem()).append(",\"item\":");
+        texto(sb, p.item);
+        sb.append(",\"quantidade\":").append(p.quantidade).append(",\"valor\":").append(p.valor);
+        if (p.getCardapio() != null) sb.append(",\"sku\":").append(p.getSku());
+        return sb.append('}');
+    }
+
+    private static StringBuilder json(StringBuilder sb, Table t) {
+        sb.append("{\"id\":").append(t.id).append(",\"capacidade\":").append(t.capacity)
+                .append(",\"ocupada\":").append(t.occupied).append(",\"grupo\":");
+        texto(sb, t.partyName);
+        return sb.append('}');
+    }
+
+    private static void texto(StringBuilder sb, String s) {
+        if (s == null) {
+            sb.append("null");
+            return;
+        }
+        sb.append('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        sb.append('"');
+    }
+}
@@ -12,7 +12,7 @@ import javax.swing.JOptionPane;
  */
 public class escolha_pedido extends javax.swing.JFrame {
     
-    private Pedido itemSelecionado;
+    private ItemCardapio itemSelecionado;
     private interfacegrafica telaPrincipal;
     private static final java.util.logging.Logger logger = java.util.logging.Logger.getLogger(escolha_pedido.class.getName());
 
@@ -166,37 +166,37 @@ public class escolha_pedido extends javax.swing.JFrame {
             }
 
             
-            telaPrincipal.adicionarPedido(itemSelecionado);
+            telaPrincipal.adicionarItem(itemSelecionado, 1);
 
 
             dispose(); 
     }//GEN-LAST:event_FinalizarActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
-            itemSelecionado = new Pedido("Cachorro Quente", 1, 5.50);
-            pedido_escolhido.setText("Cachorro Quente");
+            selecionar(Cardapio.CACHORRO_QUENTE);
     }//GEN-LAST:event_jButton3ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
-        itemSelecionado = new Pedido("X-Burger", 1, 10.90);
-        pedido_escolhido.setText("X-Burger");
+        selecionar(Cardapio.X_BURGER);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
-        itemSelecionado = new Pedido("Guaraná", 1, 4.50);
-        pedido_escolhido.setText("Guaraná");
+        selecionar(Cardapio.GUARANA);
     }//GEN-LAST:event_jButton4ActionPerformed
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
-        itemSelecionado = new Pedido("Batata-Frita", 1, 7.50);
-            pedido_escolhido.setText("Batata-Frita");
+        selecionar(Cardapio.BATATA_FRITA);
     }//GEN-LAST:event_jButton5ActionPerformed
 
     private void jButton6ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton6ActionPerformed
-        itemSelecionado = new Pedido("MilkShake", 1, 11.00);
-            pedido_escolhido.setText("MilkShake");
+        selecionar(Cardapio.MILKSHAKE);
     }//GEN-LAST:event_jButton6ActionPerformed
 
+    private void selecionar(int sku) {
+        itemSelecionado = Cardapio.padrao().porSku(sku);
+        pedido_escolhido.setText(itemSelecionado.getNome());
+    }
+
     /**
      * @param args the command line arguments
      */
@@ -5,7 +5,6 @@
 package lanchonetelistas;
 
 import javax.swing.JOptionPane;
-import javax.swing.table.DefaultTableModel;
 
 /**
  *
@@ -13,14 +12,21 @@ import javax.swing.table.DefaultTableModel;
  */
 public class interfacegrafica extends javax.swing.JFrame {
 
-DefaultTableModel modeloTabela;
+// Toda a lógica dos pedidos fica no motor; a tela só repassa os cliques.
+private final MotorPedidos motor;
+private final ModeloTabelaPedidos modeloTabela;
+// mesas da casa; a tela de mesas é aberta uma vez e reaproveitada
+private final MotorMesas mesas;
+private RestaurantTablesApp telaMesas;
+// Ctrl+Z / Ctrl+Y desfazem e refazem inclusões, remoções e limpezas
+private final Historico historico;
 
-private java.util.List<Pedido> lista = new java.util.ArrayList<>();
-private java.util.Stack<Pedido> pilha = new java.util.Stack<>();
-private java.util.Queue<Pedido> fila = new java.util.LinkedList<>();
-
-// Modo de visualização (0 = lista, 1 = pilha, 2 = fila)
+// Modo de visualização (0 = lista, 1 = pilha, 2 = fila, 3 = prioridade)
 private int modoView = 0;
+private static final GerenciadorPedidos.TipoEstrutura[] VISOES = {
+    GerenciadorPedidos.TipoEstrutura.LISTA, GerenciadorPedidos.TipoEstrutura.PILHA, GerenciadorPedidos.TipoEstrutura.FILA,
+    GerenciadorPedidos.TipoEstrutura.PRIORIDADE
+};
 
 
 
@@ -32,63 +38,77 @@ private int modoView = 0;
      */
    
     public interfacegrafica() {
+        this(new MotorPedidos());
+    }
+
+    public interfacegrafica(MotorPedidos motor) {
+        this(motor, new MotorMesas());
+    }
+
+    public interfacegrafica(MotorPedidos motor, MotorMesas mesas) {
+        this.motor = motor;
+        this.mesas = mesas;
+        this.modeloTabela = new ModeloTabelaPedidos(motor);
+        this.historico = new Historico(motor);
+        Metricas.medidor("pedidos.abertos", motor::tamanho);
+        // começa na visão em que o motor já está (ela volta da foto ou do diário)
+        modoView = java.util.Arrays.asList(VISOES).indexOf(motor.getVisao());
+        if (modoView < 0) {
+            modoView = 0;
+            motor.setVisao(VISOES[0]);
+        }
        initComponents(); 
-    modeloTabela = (DefaultTableModel) tabela_itens.getModel();
+    tabela_itens.setModel(modeloTabela);
     atualizarLabelView();
+    configurarAtalhos();
+    }
+
+    // Atalhos registrados na raiz: não dependem do form gerado.
+    private void configurarAtalhos() {
+        javax.swing.InputMap atalhos = getRootPane().getInputMap(javax.swing.JComponent.WHEN_IN_FOCUSED_WINDOW);
+        atalhos.put(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_Z, java.awt.event.InputEvent.CTRL_DOWN_MASK), "desfazer");
+        atalhos.put(javax.swing.KeyStroke.getKeyStroke(java.awt.event.KeyEvent.VK_Y, java.awt.event.InputEvent.CTRL_DOWN_MASK), "refazer");
+        getRootPane().getActionMap().put("desfazer", new javax.swing.AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                historico.desfazer();
+            }
+        });
+        getRootPane().getActionMap().put("refazer", new javax.swing.AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                historico.refazer();
+            }
+        });
+    }
+
+    public Historico getHistorico() {
+        return historico;
     }
     
 
 
     public void adicionarPedido(Pedido p) {
-     lista.add(p);
-    pilha.push(p);
-    fila.add(p);
-
-    atualizarTabela();
+    motor.submeter(p);
 }
 
+    // Itens do cardápio: repetir o item soma na mesma linha.
+    public void adicionarItem(ItemCardapio item, int quantidade) {
+        motor.submeter(item, quantidade);
+    }
+
+    public MotorPedidos getMotor() {
+        return motor;
+    }
+
    
 
     public void adicionarItemNaTabela(String item, int quantidade, double valor) {
-         DefaultTableModel model = (DefaultTableModel) tabela_itens.getModel();
-         model.insertRow(0, new Object[]{ item, quantidade, valor });
+         adicionarPedido(new Pedido(item, quantidade, valor));
     }
 
     public void adicionarAoPedido(Pedido p) {
-    DefaultTableModel model = (DefaultTableModel) tabela_itens.getModel();
-    model.insertRow(0, new Object[]{
-        p.item,
-        p.quantidade,
-        p.valor
-    });
-}
-private void atualizarTabela() {
-    DefaultTableModel model = (DefaultTableModel) tabela_itens.getModel();
-    model.setRowCount(0);
-
-    switch (modoView) {
-        case 0 -> {
-            // LISTA
-            for (Pedido p : lista) {
-                model.addRow(new Object[]{ p.item, p.quantidade, p.valor });
-            }
-        }
-
-        case 1 -> {
-            // PILHA 
-            for (int i = pilha.size() - 1; i >= 0; i--) {
-                Pedido p = pilha.get(i);
-                model.addRow(new Object[]{ p.item, p.quantidade, p.valor });
-            }
-        }
-
-        case 2 -> {
-            // FILA
-            for (Pedido p : fila) {
-                model.addRow(new Object[]{ p.item, p.quantidade, p.valor });
-            }
-        }
-    }
+    adicionarPedido(p);
 }
 
 private void atualizarLabelView() {
@@ -105,6 +125,10 @@ private void atualizarLabelView() {
         lbl_view.setText("Visualização: Fila (FIFO)");
         remover_pedido.setText("Poll");
     }
+    case 3 -> {
+        lbl_view.setText("Visualização: Prioridade (mais demorado primeiro)");
+        remover_pedido.setText("Próximo");
+    }
 
 }
 
@@ -217,49 +241,36 @@ private void atualizarLabelView() {
     }//GEN-LAST:event_add_pedidosActionPerformed
 
     private void alt_viewActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_alt_viewActionPerformed
-          modoView = (modoView + 1) % 3;  
-    atualizarTabela();
+          modoView = (modoView + 1) % VISOES.length;  
+    motor.setVisao(VISOES[modoView]);
     atualizarLabelView();
     }//GEN-LAST:event_alt_viewActionPerformed
 
     private void remover_pedidoActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_remover_pedidoActionPerformed
-      if (lista.isEmpty()) {
+      if (motor.isEmpty()) {
         JOptionPane.showMessageDialog(this, "Não há itens para remover.");
         return;
     }
 
-    Pedido removido = null;
-
-    switch (modoView) {
-
-        case 0 -> {
-            int linha = tabela_itens.getSelectedRow();
-            if (linha < 0) {
-                JOptionPane.showMessageDialog(this, "Selecione um item para remover!");
-                return;
-            }
-            removido = lista.get(linha);
-        }
-
-        case 1 -> {
-            removido = pilha.pop();
-        }
-
-        case 2 -> {
-            removido = fila.poll();
+    if (modoView == 0) {
+        int linha = tabela_itens.getSelectedRow();
+        if (linha < 0) {
+            JOptionPane.showMessageDialog(this, "Selecione um item para remover!");
+            return;
         }
+        // pelo pedido que a tabela mostra: a linha pode ter mudado desde o clique
+        Pedido p = modeloTabela.getPedido(linha);
+        if (p != null) motor.remover(p);
+    } else {
+        // pilha: pop; fila: poll; prioridade: o mais demorado
+        motor.removerProximo();
     }
-
-    lista.remove(removido);
-    pilha.remove(removido);
-    fila.remove(removido);
-
-    atualizarTabela();
     }//GEN-LAST:event_remover_pedidoActionPerformed
 
     private void admin_btnActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_admin_btnActionPerformed
-    RestaurantTablesApp tela2 = new RestaurantTablesApp();
-    tela2.setVisible(true);
+    if (telaMesas == null) telaMesas = new RestaurantTablesApp(mesas, motor);
+    telaMesas.setVisible(true);
+    telaMesas.toFront();
     }//GEN-LAST:event_admin_btnActionPerformed
 
     /**
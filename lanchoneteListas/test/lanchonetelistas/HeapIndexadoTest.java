@@ -0,0 +1,151 @@
+package lanchonetelistas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Depois de cada add/update/remove/poll todo pai vem antes dos filhos por
+// (chave, chegada) e o índice elemento -> posição bate com o array.
+public class HeapIndexadoTest {
+
+    // aridade do heap (HeapIndexado.D)
+    private static final int D = 4;
+
+    private static void conferirInvariante(HeapIndexado<Object> h) {
+        for (int i = 0; i < h.size(); i++) {
+            assertEquals(i, h.posicao(h.elemento(i)));
+            if (i == 0) continue;
+            int pai = (i - 1) / D;
+            long cp = h.chaveEm(pai), cf = h.chaveEm(i);
+            assertTrue("pai " + pai + " depois do filho " + i,
+                    cp < cf || (cp == cf && h.sequenciaEm(pai) < h.sequenciaEm(i)));
+        }
+    }
+
+    @Test
+    public void operacoesAleatoriasMantemOInvariante() {
+        Random r = new Random(42);
+        HeapIndexado<Object> h = new HeapIndexado<>();
+        List<Object> dentro = new ArrayList<>();
+        for (int passo = 0; passo < 20_000; passo++) {
+            int op = r.nextInt(10);
+            if (op < 4 || dentro.isEmpty()) {
+                Object e = new Object();
+                // poucas chaves distintas, para haver muito empate
+                h.add(e, r.nextInt(50));
+                dentro.add(e);
+            } else if (op < 7) {
+                Object e = dentro.get(r.nextInt(dentro.size()));
+                long chave = r.nextInt(50);
+                assertTrue(h.update(e, chave));
+                assertEquals(chave, h.chave(e));
+            } else if (op < 9) {
+                Object e = dentro.remove(r.nextInt(dentro.size()));
+                assertTrue(h.remove(e));
+                assertFalse(h.contains(e));
+            } else {
+                Object e = h.poll();
+                assertTrue(dentro.remove(e));
+            }
+            assertEquals(dentro.size(), h.size());
+            conferirInvariante(h);
+        }
+        // esvaziando, sai em ordem de (chave, chegada)
+        long chaveAnterior = Long.MIN_VALUE;
+        long chegadaAnterior = Long.MIN_VALUE;
+        while (!h.isEmpty()) {
+            long chave = h.chaveEm(0);
+            long chegada = h.sequenciaEm(0);
+            assertTrue(chave > chaveAnterior || (chave == chaveAnterior && chegada > chegadaAnterior));
+            chaveAnterior = chave;
+            chegadaAnterior = chegada;
+            h.poll();
+            conferirInvariante(h);
+        }
+    }
+
+    @Test
+    public void chavesIguaisSaemNaOrdemDeChegada() {
+        HeapIndexado<String> h = new HeapIndexado<>();
+        for (int i = 0; i < 100; i++) h.add("p" + i, 7);
+        for (int i = 0; i < 100; i++) assertEquals("p" + i, h.poll());
+    }
+
+    @Test
+    public void mudarChaveNaoMudaAChegada() {
+        HeapIndexado<String> h = new HeapIndexado<>();
+        h.add("a", 5);
+        h.add("b", 5);
+        h.add("c", 5);
+        // a vai para o fim e volta: continua na frente de b e c
+        h.update("a", 10);
+        assertEquals("b", h.peek());
+        h.update("a", 5);
+        assertEquals("a", h.poll());
+        // c passa na frente e depois volta para trás de b
+        h.update("c", 1);
+        assertEquals("c", h.peek());
+        h.update("c", 5);
+        assertEquals("b", h.poll());
+        assertEquals("c", h.poll());
+        assertNull(h.poll());
+    }
+
+    @Test
+    public void removerNoMeioSobeQuemTapaOBuraco() {
+        // chaves crescentes pela posição, então o array fica na ordem de inclusão;
+        // a subárvore da posição 1 tem chaves altas. O último (posição 199, fora
+        // dela) vai tapar o buraco na posição 100 (dentro dela) e tem que subir.
+        HeapIndexado<Object> h = new HeapIndexado<>();
+        List<Object> todos = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Object e = new Object();
+            h.add(e, naSubarvoreDe1(i) ? 1000 + i : i);
+            todos.add(e);
+        }
+        assertSame(todos.get(100), h.elemento(100));
+        assertTrue(h.remove(todos.get(100)));
+        conferirInvariante(h);
+        assertTrue(h.posicao(todos.get(199)) < 100);
+        assertTrue(h.remove(todos.get(0)));
+        conferirInvariante(h);
+        assertFalse(h.remove(todos.get(0)));
+        assertEquals(-1, h.posicao(todos.get(0)));
+        assertFalse(h.update(todos.get(0), 3));
+    }
+
+    private static boolean naSubarvoreDe1(int posicao) {
+        while (posicao > 1) posicao = (posicao - 1) / D;
+        return posicao == 1;
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void naoAceitaOMesmoElementoDuasVezes() {
+        HeapIndexado<String> h = new HeapIndexado<>();
+        String e = "x";
+        h.add(e, 1);
+        h.add(e, 2);
+    }
+
+    @Test
+    public void prioridadeDoGerenciadorRespeitaChegadaERepriorizar() {
+        GerenciadorPedidos g = new GerenciadorPedidos();
+        g.setEstrutura(GerenciadorPedidos.TipoEstrutura.PRIORIDADE);
+        g.setChavePrioridade(p -> 0);
+        Pedido a = new Pedido("X-Burger", 1, 10.90);
+        Pedido b = new Pedido("Guaraná", 1, 4.50);
+        Pedido c = new Pedido("MilkShake", 1, 12.00);
+        g.adicionar(a);
+        g.adicionar(b);
+        g.adicionar(c);
+        assertTrue(g.repriorizar(c, -1));
+        assertSame(c, g.proximoPorPrioridade());
+        assertTrue(g.cancelar(a));
+        assertFalse(g.cancelar(a));
+        assertSame(c, g.retirar());
+        assertSame(b, g.retirar());
+        assertNull(g.retirar());
+    }
+}
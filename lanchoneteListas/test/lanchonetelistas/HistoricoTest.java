@@ -0,0 +1,129 @@
+package lanchonetelistas;
+
+import java.util.ArrayList;
+import java.util.List;
+import lanchonetelistas.RestaurantTablesApp.Table;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Desfazer/refazer levando os motores de volta a cada versão, inclusive
+// atravessando um Limpar, que recoloca tudo o que a versão anterior guardava.
+public class HistoricoTest {
+
+    private static List<String> pedidos(MotorPedidos m) {
+        List<String> s = new ArrayList<>();
+        for (Pedido p : m.listarNaOrdemDeChegada()) s.add(p.item + " x" + p.quantidade);
+        return s;
+    }
+
+    private static List<String> mesas(MotorMesas m) {
+        List<String> s = new ArrayList<>();
+        for (Table t : m.toArray()) s.add(t.id + ":" + t.capacity + (t.occupied ? " " + t.partyName : ""));
+        return s;
+    }
+
+    @Test
+    public void pedidosIdaEVoltaPassandoPeloLimpar() {
+        MotorPedidos m = new MotorPedidos();
+        Historico h = new Historico(m);
+        Pedido a = m.submeter("X-Burger", 1, 10.90);
+        Pedido b = m.submeter("Guaraná", 2, 4.50);
+        m.submeter("MilkShake", 3, 12.00);
+        m.alterarQuantidade(b, 5);
+        m.remover(a);
+        List<String> antesDoLimpar = pedidos(m);
+        m.limpar();
+        assertTrue(m.isEmpty());
+
+        assertTrue(h.desfazer());
+        assertEquals(antesDoLimpar, pedidos(m));
+        assertTrue(h.refazer());
+        assertTrue(m.isEmpty());
+        assertFalse(h.podeRefazer());
+
+        // volta tudo até o começo, na ordem de chegada original
+        assertTrue(h.desfazer());
+        assertTrue(h.desfazer());
+        assertEquals(List.of("X-Burger x1", "Guaraná x5", "MilkShake x3"), pedidos(m));
+        assertTrue(h.desfazer());
+        assertEquals(List.of("X-Burger x1", "Guaraná x2", "MilkShake x3"), pedidos(m));
+        while (h.desfazer()) {
+        }
+        assertTrue(m.isEmpty());
+
+        // e refaz até depois do Limpar
+        while (h.refazer()) {
+        }
+        assertTrue(m.isEmpty());
+        assertEquals(6, h.getDesfazeres());
+    }
+
+    @Test
+    public void limparDesfeitoRespeitaAVisao() {
+        MotorPedidos m = new MotorPedidos();
+        m.setVisao(GerenciadorPedidos.TipoEstrutura.PILHA);
+        Historico h = new Historico(m);
+        m.submeter("X-Burger", 1, 10.90);
+        m.submeter("Guaraná", 1, 4.50);
+        m.submeter("MilkShake", 1, 12.00);
+        List<Pedido> antes = m.listar();
+        m.limpar();
+        assertTrue(h.desfazer());
+        assertEquals(antes, m.listar());
+        assertEquals("MilkShake", m.removerProximo().item);
+    }
+
+    @Test
+    public void acaoNovaDepoisDeDesfazerDescartaORefazer() {
+        MotorPedidos m = new MotorPedidos();
+        Historico h = new Historico(m);
+        m.submeter("X-Burger", 1, 10.90);
+        m.limpar();
+        assertTrue(h.desfazer());
+        m.submeter("Guaraná", 1, 4.50);
+        assertFalse(h.podeRefazer());
+        assertFalse(h.refazer());
+        assertEquals(List.of("X-Burger x1", "Guaraná x1"), pedidos(m));
+    }
+
+    @Test
+    public void mesasIdaEVoltaPassandoPeloLimpar() {
+        MotorMesas m = new MotorMesas();
+        Historico h = new Historico(m);
+        List<Table> criadas = m.criarMesas(2, 4, 6);
+        m.ocupar(criadas.get(1).id, "Silva");
+        m.removerMesa(criadas.get(0).id);
+        List<String> antesDoLimpar = mesas(m);
+        m.limpar();
+        assertEquals(0, m.tamanho());
+
+        assertTrue(h.desfazer());
+        assertEquals(antesDoLimpar, mesas(m));
+        assertTrue(h.refazer());
+        assertEquals(0, m.tamanho());
+        assertTrue(h.desfazer());
+        // a mesa removida volta ao lugar dela, na frente das outras
+        assertTrue(h.desfazer());
+        assertEquals(List.of(criadas.get(0).id + ":2", criadas.get(1).id + ":4 Silva", criadas.get(2).id + ":6"), mesas(m));
+        assertTrue(h.desfazer());
+        assertEquals(List.of(criadas.get(0).id + ":2", criadas.get(1).id + ":4", criadas.get(2).id + ":6"), mesas(m));
+
+        // ids novos não colidem com os que o histórico pode trazer de volta
+        Table nova = m.criarMesa(8);
+        for (Table t : criadas) assertTrue(nova.id != t.id);
+    }
+
+    @Test
+    public void limiteDescartaAsAcoesMaisAntigas() {
+        MotorPedidos m = new MotorPedidos();
+        Historico h = new Historico(m, null, 2);
+        m.submeter("X-Burger", 1, 10.90);
+        m.submeter("Guaraná", 1, 4.50);
+        m.limpar();
+        assertEquals(2, h.getDesfazeres());
+        assertTrue(h.desfazer());
+        assertTrue(h.desfazer());
+        assertFalse(h.desfazer());
+        assertEquals(List.of("X-Burger x1"), pedidos(m));
+    }
+}
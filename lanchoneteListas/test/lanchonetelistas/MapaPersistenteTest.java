@@ -0,0 +1,69 @@
+package lanchonetelistas;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Cada com()/sem() dá um mapa novo e as versões antigas continuam valendo.
+public class MapaPersistenteTest {
+
+    private static List<String> valores(MapaPersistente<String> m) {
+        List<String> s = new ArrayList<>();
+        for (String v : m) s.add(v);
+        return s;
+    }
+
+    @Test
+    public void versoesAntigasNaoMudam() {
+        MapaPersistente<String> v0 = MapaPersistente.vazio();
+        MapaPersistente<String> v1 = v0.com(2, "b").com(1, "a").com(3, "c");
+        MapaPersistente<String> v2 = v1.sem(2).com(4, "d");
+        MapaPersistente<String> v3 = v2.com(1, "A");
+        assertTrue(v0.isEmpty());
+        assertEquals(List.of("a", "b", "c"), valores(v1));
+        assertEquals(List.of("a", "c", "d"), valores(v2));
+        assertEquals(List.of("A", "c", "d"), valores(v3));
+        assertEquals("a", v2.get(1));
+        assertNull(v2.get(2));
+        assertSame(v2, v2.sem(99));
+    }
+
+    @Test
+    public void seguinteDevolveAMenorChaveMaior() {
+        MapaPersistente<String> m = MapaPersistente.<String>vazio().com(10, "x").com(20, "y").com(30, "z");
+        assertEquals("x", m.seguinte(5));
+        assertEquals("y", m.seguinte(10));
+        assertEquals("z", m.seguinte(29));
+        assertNull(m.seguinte(30));
+    }
+
+    @Test
+    public void confereComTreeMapEmTodasAsVersoes() {
+        Random r = new Random(7);
+        List<MapaPersistente<String>> versoes = new ArrayList<>();
+        List<TreeMap<Long, String>> esperadas = new ArrayList<>();
+        MapaPersistente<String> m = MapaPersistente.vazio();
+        TreeMap<Long, String> t = new TreeMap<>();
+        for (int i = 0; i < 3000; i++) {
+            long k = r.nextInt(500);
+            if (r.nextInt(3) == 0) {
+                m = m.sem(k);
+                t.remove(k);
+            } else {
+                m = m.com(k, "v" + i);
+                t.put(k, "v" + i);
+            }
+            if (i % 100 == 0) {
+                versoes.add(m);
+                esperadas.add(new TreeMap<>(t));
+            }
+        }
+        for (int i = 0; i < versoes.size(); i++) {
+            assertEquals(esperadas.get(i).size(), versoes.get(i).tamanho());
+            assertEquals(new ArrayList<>(esperadas.get(i).values()), valores(versoes.get(i)));
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package lanchonetelistas;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+// Uma foto tirada com snapshot() não pode enxergar nada que o escritor fizer
+// depois, principalmente quando ele reescreve posições que a foto ainda vê
+// (remoção no fim seguida de inclusão, deslocamento no meio, limpar).
+public class SequenciaPersistenteTest {
+
+    // 600 elementos ocupam três blocos de 256
+    private static final int N = 600;
+
+    private static SequenciaPersistente<Integer> preenchida() {
+        SequenciaPersistente<Integer> s = new SequenciaPersistente<>();
+        for (int i = 0; i < N; i++) s.addLast(i);
+        return s;
+    }
+
+    private static void conferir(List<Integer> foto, int de, int ate) {
+        assertEquals(ate - de, foto.size());
+        for (int i = de; i < ate; i++) assertEquals(Integer.valueOf(i), foto.get(i - de));
+    }
+
+    @Test
+    public void fotoNaoVeRemocaoNoFimNemQuemOcupaAVaga() {
+        SequenciaPersistente<Integer> s = preenchida();
+        List<Integer> foto = s.snapshot();
+        for (int i = 0; i < N / 2; i++) s.removeLast();
+        for (int i = 0; i < N / 2; i++) s.addLast(-i);
+        conferir(foto, 0, N);
+        assertEquals(Integer.valueOf(-1), s.get(N / 2 + 1));
+    }
+
+    @Test
+    public void fotoNaoVeRemocaoNoInicio() {
+        SequenciaPersistente<Integer> s = preenchida();
+        List<Integer> foto = s.snapshot();
+        while (!s.isEmpty()) s.removeFirst();
+        for (int i = 0; i < N; i++) s.addLast(-i);
+        conferir(foto, 0, N);
+    }
+
+    @Test
+    public void fotoNaoVeRemocaoNoMeio() {
+        SequenciaPersistente<Integer> s = preenchida();
+        List<Integer> foto = s.snapshot();
+        // uma perto do início (fecha pela esquerda) e uma perto do fim (pela direita)
+        assertEquals(Integer.valueOf(10), s.remove(10));
+        assertEquals(Integer.valueOf(N - 10), s.remove(N - 11));
+        conferir(foto, 0, N);
+        assertEquals(N - 2, s.size());
+        assertEquals(Integer.valueOf(11), s.get(10));
+        assertEquals(Integer.valueOf(N - 9), s.get(N - 11));
+    }
+
+    @Test
+    public void fotoNaoVeInclusaoNoMeio() {
+        SequenciaPersistente<Integer> s = preenchida();
+        List<Integer> foto = s.snapshot();
+        s.add(300, -1);
+        conferir(foto, 0, N);
+        assertEquals(Integer.valueOf(-1), s.get(300));
+        assertEquals(Integer.valueOf(300), s.get(301));
+    }
+
+    @Test
+    public void fotosSeguidasSoVeemOProprioMomento() {
+        SequenciaPersistente<Integer> s = preenchida();
+        List<List<Integer>> fotos = new ArrayList<>();
+        List<Integer> esperado = new ArrayList<>(s.snapshot());
+        List<List<Integer>> esperados = new ArrayList<>();
+        for (int passo = 0; passo < 50; passo++) {
+            fotos.add(s.snapshot());
+            esperados.add(new ArrayList<>(esperado));
+            int i = (passo * 37) % s.size();
+            if (passo % 3 == 0) {
+                s.remove(i);
+                esperado.remove(i);
+            } else if (passo % 3 == 1) {
+                s.removeLast();
+                esperado.remove(esperado.size() - 1);
+            } else {
+                s.add(i, -passo);
+                esperado.add(i, -passo);
+            }
+        }
+        for (int k = 0; k < fotos.size(); k++) assertEquals(esperados.get(k), fotos.get(k));
+    }
+
+    @Test
+    public void semEscritaAFotoEAMesma() {
+        SequenciaPersistente<Integer> s = preenchida();
+        assertSame(s.snapshot(), s.snapshot());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void fotoNaoAceitaEscrita() {
+        preenchida().snapshot().add(1);
+    }
+
+    @Test
+    public void fotoDoGerenciadorSobreviveAoLimpar() {
+        for (GerenciadorPedidos.TipoEstrutura tipo : GerenciadorPedidos.TipoEstrutura.values()) {
+            GerenciadorPedidos g = new GerenciadorPedidos();
+            g.setEstrutura(tipo);
+            List<Pedido> pedidos = new ArrayList<>();
+            for (int i = 0; i < N; i++) {
+                Pedido p = new Pedido("X-Burger", 1, 10.90);
+                pedidos.add(p);
+                g.adicionar(p);
+            }
+            List<Pedido> foto = g.getPedidos();
+            List<Pedido> antes = new ArrayList<>(foto);
+            g.limpar();
+            assertEquals(0, g.tamanho());
+            for (int i = 0; i < 10; i++) g.adicionar(new Pedido("Guaraná", 1, 4.50));
+            assertEquals(tipo.toString(), antes, foto);
+        }
+    }
+}